@@ -0,0 +1,263 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.model.GeocodeCacheEntry;
+import com.example.fooddeliveryaut.repository.GeocodeCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🗺️ Кэш прямого геокодирования по нормализованному адресу
+ *
+ * Три уровня: ограниченный кэш в памяти, локальный файл {@link MappedGeocodeStore}
+ * (теплый сразу после перезапуска, без загрузки при старте) и таблица geocode_cache,
+ * общая для всех экземпляров сервиса. Кэшируется и
+ * отрицательный результат "адрес не найден" (с меньшим TTL), чтобы опечатки
+ * не тратили квоту Mapbox. Ошибки Mapbox не кэшируются.
+ *
+ * Ошибка БД не ломает геокодирование: кэш просто считается промахом.
+ */
+@Component
+@Slf4j
+public class GeocodeCache {
+
+    // Длина колонки address_key: более длинные адреса не кэшируются
+    private static final int MAX_KEY_LENGTH = 500;
+
+    private final GeocodeCacheRepository repository;
+    private final CacheConfigProperties.Geocode config;
+    private final CacheConfigProperties.GeocodeFile fileConfig;
+    private final Cache<String, Result> cache;
+    private final MappedGeocodeStore fileStore;
+
+    private final Counter fileHitCounter;
+    private final Counter databaseHitCounter;
+    private final Counter missCounter;
+
+    public GeocodeCache(GeocodeCacheRepository repository,
+                        CacheConfigProperties cacheConfig,
+                        MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.config = cacheConfig.getGeocode();
+        this.fileConfig = cacheConfig.getGeocodeFile();
+        this.fileStore = Boolean.TRUE.equals(config.getEnabled()) && Boolean.TRUE.equals(fileConfig.getEnabled())
+                ? MappedGeocodeStore.tryOpen(Path.of(fileConfig.getDirectory(), "forward.bin"),
+                        fileConfig.getMaxEntries(), fileConfig.getMaxBytes())
+                : null;
+
+        // Каждая запись живет до своего expiresAt (положительный и отрицательный TTL разные)
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.writing((String key, Result result) -> result.remaining()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "geocode");
+        this.fileHitCounter = Counter.builder("cache.geocode.file.hits")
+                .description("Адреса, найденные в файле кэша после промаха в памяти")
+                .register(meterRegistry);
+        this.databaseHitCounter = Counter.builder("cache.geocode.database.hits")
+                .description("Адреса, найденные в таблице geocode_cache после промаха в памяти")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("cache.geocode.misses.total")
+                .description("Адреса, которых нет ни в памяти, ни в таблице geocode_cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔍 Сохраненный результат для нормализованного адреса или null, если его нет
+     */
+    public Result get(String addressKey) {
+        if (!isCacheable(addressKey)) {
+            return null;
+        }
+
+        Result cached = cache.getIfPresent(addressKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Result fromFile = readFile(addressKey);
+        if (fromFile != null) {
+            cache.put(addressKey, fromFile);
+            fileHitCounter.increment();
+            return fromFile;
+        }
+
+        try {
+            Result stored = repository.findById(addressKey)
+                    .filter(entry -> entry.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .map(entry -> new Result(entry.getLatitude(), entry.getLongitude(), entry.getExpiresAt()))
+                    .orElse(null);
+            if (stored != null) {
+                cache.put(addressKey, stored);
+                writeFile(addressKey, stored);
+                databaseHitCounter.increment();
+                return stored;
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Не удалось прочитать кэш геокодирования для '{}': {}", addressKey, e.getMessage());
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * ✅ Сохранить найденные координаты
+     */
+    public void putFound(String addressKey, BigDecimal latitude, BigDecimal longitude) {
+        put(addressKey, latitude, longitude, config.getTtlSeconds());
+    }
+
+    /**
+     * 🚫 Сохранить отрицательный результат "адрес не найден"
+     */
+    public void putNotFound(String addressKey) {
+        put(addressKey, null, null, config.getNegativeTtlSeconds());
+    }
+
+    /**
+     * 🧹 Удаление истекших записей из таблицы
+     */
+    @Scheduled(fixedDelayString = "${app.cache.geocode.purge-interval-seconds:3600}",
+            initialDelayString = "${app.cache.geocode.purge-interval-seconds:3600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void purgeExpired() {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.info("🧹 Удалено {} истекших записей кэша геокодирования", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Не удалось удалить истекшие записи кэша геокодирования: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 🧹 Уплотнение файла кэша
+     */
+    @Scheduled(fixedDelayString = "${app.cache.geocode-file.compact-interval-seconds:600}",
+            initialDelayString = "${app.cache.geocode-file.compact-interval-seconds:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void compactFile() {
+        if (fileStore != null) {
+            fileStore.compactIfNeeded(fileConfig.getCompactGarbagePercent());
+        }
+    }
+
+    @PreDestroy
+    public void closeFile() throws IOException {
+        if (fileStore != null) {
+            fileStore.close();
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private boolean isCacheable(String addressKey) {
+        return Boolean.TRUE.equals(config.getEnabled())
+                && !addressKey.isEmpty()
+                && addressKey.length() <= MAX_KEY_LENGTH;
+    }
+
+    private void put(String addressKey, BigDecimal latitude, BigDecimal longitude, int ttlSeconds) {
+        if (!isCacheable(addressKey)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(ttlSeconds);
+        Result result = new Result(latitude, longitude, expiresAt);
+        cache.put(addressKey, result);
+        writeFile(addressKey, result);
+
+        try {
+            repository.save(GeocodeCacheEntry.builder()
+                    .addressKey(addressKey)
+                    .latitude(latitude)
+                    .longitude(longitude)
+                    .createdAt(now)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (Exception e) {
+            log.warn("⚠️ Не удалось сохранить кэш геокодирования для '{}': {}", addressKey, e.getMessage());
+        }
+    }
+
+    private Result readFile(String addressKey) {
+        if (fileStore == null) {
+            return null;
+        }
+        MappedGeocodeStore.Record record = fileStore.get(addressKey);
+        if (record == null) {
+            return null;
+        }
+        // NaN в файле - отрицательный результат
+        boolean found = !Double.isNaN(record.latitude());
+        return new Result(
+                found ? BigDecimal.valueOf(record.latitude()) : null,
+                found ? BigDecimal.valueOf(record.longitude()) : null,
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(record.expiresAtEpochSecond()), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Ошибка файла не должна превращать попадание в БД в промах или терять запись в таблицу
+     */
+    private void writeFile(String addressKey, Result result) {
+        if (fileStore == null) {
+            return;
+        }
+        try {
+            fileStore.put(addressKey, new MappedGeocodeStore.Record(
+                    result.isFound() ? result.getLatitude().doubleValue() : Double.NaN,
+                    result.isFound() ? result.getLongitude().doubleValue() : Double.NaN,
+                    result.getExpiresAt().atZone(ZoneId.systemDefault()).toEpochSecond(),
+                    null));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Не удалось записать файловый кэш геокодирования для '{}': {}", addressKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 📍 Результат геокодирования (координаты null - адрес не найден)
+     */
+    @Value
+    public static class Result {
+        BigDecimal latitude;
+        BigDecimal longitude;
+        LocalDateTime expiresAt;
+
+        public boolean isFound() {
+            return latitude != null && longitude != null;
+        }
+
+        Duration remaining() {
+            Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package com.example.fooddeliveryaut.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 💽 Файловое хранилище результатов геокодирования, отображенное в память (mmap)
+ *
+ * Формат файла: заголовок, таблица слотов с открытой адресацией (хэш ключа и
+ * смещение записи) и область записей, куда записи только дописываются.
+ * При открытии файл отображается в память целиком, без чтения и разбора записей:
+ * страницы подгружаются ОС по мере обращения, поэтому старт почти бесплатный,
+ * а кэш после перезапуска уже "теплый".
+ *
+ * Перезаписанные и истекшие записи остаются мусором до уплотнения: живые записи
+ * переписываются в новый файл, который атомарно заменяет старый.
+ *
+ * Файл открывается одним процессом: блокировка берется на соседний файл .lock
+ * (сам файл заменяется при уплотнении), второй экземпляр получает отказ и
+ * работает только с памятью. Поврежденная область записей обнаруживается при
+ * записи или уплотнении: файл создается заново, а если и это не удалось,
+ * хранилище отключается.
+ *
+ * Запись: [длина ключа u16][ключ][широта f64][долгота f64][истекает, сек эпохи i64]
+ *         [длина значения i32, -1 = null][значение UTF-8]
+ */
+@Slf4j
+public final class MappedGeocodeStore implements Closeable {
+
+    private static final int MAGIC = 0x47454F43; // "GEOC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;    // хэш i64 + смещение записи i32 + резерв
+    private static final int OFFSET_SLOT_CAPACITY = 8;
+    private static final int OFFSET_HEAP_CAPACITY = 12;
+    private static final int OFFSET_HEAP_USED = 16;
+    private static final int OFFSET_COUNT = 20;
+    private static final int OFFSET_GARBAGE_BYTES = 24;
+
+    // Заполнение таблицы слотов, после которого новые ключи не добавляются без уплотнения
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private final Path path;
+    private final int slotCapacity;
+    private final int heapCapacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // Файл поврежден и не пересоздан: чтение - промах, запись отклоняется
+    private boolean disabled;
+
+    /**
+     * 📍 Запись хранилища (value - произвольная строка или null)
+     */
+    public record Record(double latitude, double longitude, long expiresAtEpochSecond, String value) {
+    }
+
+    private MappedGeocodeStore(Path path, int slotCapacity, int heapCapacity) {
+        this.path = path;
+        this.slotCapacity = slotCapacity;
+        this.heapCapacity = heapCapacity;
+    }
+
+    /**
+     * 📂 Открыть файл или создать новый (несовместимый или поврежденный файл пересоздается)
+     *
+     * @throws IOException и если файл уже открыт другим процессом
+     * @param maxEntries максимальное количество ключей
+     * @param maxBytes размер области записей (байт)
+     */
+    public static MappedGeocodeStore open(Path path, int maxEntries, int maxBytes) throws IOException {
+        int slots = Integer.highestOneBit((int) Math.ceil(maxEntries / MAX_LOAD_FACTOR) - 1) << 1;
+        MappedGeocodeStore store = new MappedGeocodeStore(path, Math.max(slots, 16), maxBytes);
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        store.lockFile();
+        try {
+            if (!store.mapExisting()) {
+                store.create(path);
+                store.map();
+            }
+        } catch (IOException | RuntimeException e) {
+            store.lockChannel.close();
+            throw e;
+        }
+
+        log.info("💽 Файловый кэш геокодирования {}: {} записей, {} из {} байт",
+                path, store.size(), store.heapUsed(), maxBytes);
+        return store;
+    }
+
+    /**
+     * 📂 Открыть хранилище или null, если файл недоступен (кэш работает только в памяти)
+     */
+    public static MappedGeocodeStore tryOpen(Path path, int maxEntries, int maxBytes) {
+        try {
+            return open(path, maxEntries, maxBytes);
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Файловый кэш {} недоступен, используется только память: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    public Record get(String key) {
+        return get(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Record get(long key) {
+        return get(ByteBuffer.allocate(Long.BYTES).putLong(key).array());
+    }
+
+    public boolean put(String key, Record record) {
+        return put(key.getBytes(StandardCharsets.UTF_8), record);
+    }
+
+    public boolean put(long key, Record record) {
+        return put(ByteBuffer.allocate(Long.BYTES).putLong(key).array(), record);
+    }
+
+    /**
+     * 🔍 Неистекшая запись по ключу или null
+     */
+    public Record get(byte[] key) {
+        lock.readLock().lock();
+        try {
+            if (disabled) {
+                return null;
+            }
+            int slot = findSlot(key, hash(key));
+            if (slot < 0 || buffer.getLong(slotPosition(slot)) == 0) {
+                return null;
+            }
+            Record record = readRecord(buffer.getInt(slotPosition(slot) + 8));
+            return record.expiresAtEpochSecond() > nowEpochSecond() ? record : null;
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Ошибка чтения файлового кэша {}: {}", path, e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 💾 Записать запись; false, если места нет даже после уплотнения
+     */
+    public boolean put(byte[] key, Record record) {
+        byte[] value = record.value() == null ? null : record.value().getBytes(StandardCharsets.UTF_8);
+        int recordBytes = recordBytes(key, value);
+
+        lock.writeLock().lock();
+        try {
+            if (disabled) {
+                return false;
+            }
+            long hash = hash(key);
+            int slot = findSlot(key, hash);
+            boolean newKey = slot < 0 || buffer.getLong(slotPosition(slot)) == 0;
+
+            if (!hasRoom(recordBytes, newKey)) {
+                compactLocked();
+                slot = findSlot(key, hash);
+                newKey = slot < 0 || buffer.getLong(slotPosition(slot)) == 0;
+                if (!hasRoom(recordBytes, newKey)) {
+                    return false;
+                }
+            }
+
+            int offset = buffer.getInt(OFFSET_HEAP_USED);
+            writeRecord(offset, key, record, value);
+            buffer.putInt(OFFSET_HEAP_USED, offset + recordBytes);
+
+            int position = slotPosition(slot);
+            if (newKey) {
+                buffer.putInt(OFFSET_COUNT, buffer.getInt(OFFSET_COUNT) + 1);
+            } else {
+                int oldOffset = buffer.getInt(position + 8);
+                buffer.putInt(OFFSET_GARBAGE_BYTES, buffer.getInt(OFFSET_GARBAGE_BYTES) + recordLength(oldOffset));
+            }
+            buffer.putInt(position + 8, offset);
+            // Хэш пишется последним: слот становится видимым уже с готовой записью
+            buffer.putLong(position, hash);
+            return true;
+
+        } catch (IOException e) {
+            log.warn("⚠️ Не удалось уплотнить файловый кэш {}: {}", path, e.getMessage());
+            return false;
+        } catch (RuntimeException e) {
+            recreateLocked(e);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 🧹 Уплотнить, если мусор занимает больше garbagePercent процентов области записей
+     */
+    public void compactIfNeeded(int garbagePercent) {
+        lock.writeLock().lock();
+        try {
+            if (disabled) {
+                return;
+            }
+            long garbage = buffer.getInt(OFFSET_GARBAGE_BYTES);
+            if (garbage * 100 > (long) heapCapacity * garbagePercent || hasExpiredMajority()) {
+                compactLocked();
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Не удалось уплотнить файловый кэш {}: {}", path, e.getMessage());
+        } catch (RuntimeException e) {
+            recreateLocked(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return disabled ? 0 : buffer.getInt(OFFSET_COUNT);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Байт мусора (перезаписанные записи) до следующего уплотнения
+     */
+    int garbageBytes() {
+        lock.readLock().lock();
+        try {
+            return buffer.getInt(OFFSET_GARBAGE_BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Занятая часть области записей (байт)
+     */
+    int usedBytes() {
+        lock.readLock().lock();
+        try {
+            return heapUsed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (buffer != null && !disabled) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+            lockChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // === ФАЙЛ ===
+
+    private long fileBytes() {
+        return HEADER_BYTES + (long) slotCapacity * SLOT_BYTES + heapCapacity;
+    }
+
+    private int heapStart() {
+        return HEADER_BYTES + slotCapacity * SLOT_BYTES;
+    }
+
+    /**
+     * Блокировка соседнего файла .lock: снимается при закрытии канала (и при завершении процесса)
+     */
+    private void lockFile() throws IOException {
+        lockChannel = FileChannel.open(path.resolveSibling(path.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Файл уже открыт в этом же процессе
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            lockChannel.close();
+            throw new IOException("файл уже открыт другим экземпляром сервиса");
+        }
+    }
+
+    private boolean mapExisting() throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        if (Files.size(path) != fileBytes()) {
+            log.info("💽 Размер файлового кэша {} изменился в настройках, файл создается заново", path);
+            return false;
+        }
+
+        map();
+        boolean valid = buffer.getInt(0) == MAGIC
+                && buffer.getInt(4) == FORMAT_VERSION
+                && buffer.getInt(OFFSET_SLOT_CAPACITY) == slotCapacity
+                && buffer.getInt(OFFSET_HEAP_CAPACITY) == heapCapacity
+                && buffer.getInt(OFFSET_HEAP_USED) >= heapStart()
+                && buffer.getInt(OFFSET_HEAP_USED) <= fileBytes();
+        if (!valid) {
+            log.warn("⚠️ Файловый кэш {} несовместим или поврежден, файл создается заново", path);
+            channel.close();
+        }
+        return valid;
+    }
+
+    private void create(Path target) throws IOException {
+        try (FileChannel created = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = created.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes());
+            header.putInt(0, MAGIC);
+            header.putInt(4, FORMAT_VERSION);
+            header.putInt(OFFSET_SLOT_CAPACITY, slotCapacity);
+            header.putInt(OFFSET_HEAP_CAPACITY, heapCapacity);
+            header.putInt(OFFSET_HEAP_USED, heapStart());
+            header.putInt(OFFSET_COUNT, 0);
+            header.putInt(OFFSET_GARBAGE_BYTES, 0);
+            header.force();
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes());
+    }
+
+    /**
+     * Живые неистекшие записи переписываются в новый файл, который заменяет текущий
+     */
+    private void compactLocked() throws IOException {
+        long now = nowEpochSecond();
+        List<byte[]> keys = new ArrayList<>();
+        List<Record> records = new ArrayList<>();
+        for (int slot = 0; slot < slotCapacity; slot++) {
+            int position = slotPosition(slot);
+            if (buffer.getLong(position) == 0) {
+                continue;
+            }
+            int offset = buffer.getInt(position + 8);
+            Record record = readRecord(offset);
+            if (record.expiresAtEpochSecond() > now) {
+                keys.add(readKey(offset));
+                records.add(record);
+            }
+        }
+
+        int before = buffer.getInt(OFFSET_COUNT);
+        buffer.force();
+        replaceWithEmptyFile();
+
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] key = keys.get(i);
+            Record record = records.get(i);
+            byte[] value = record.value() == null ? null : record.value().getBytes(StandardCharsets.UTF_8);
+            int offset = buffer.getInt(OFFSET_HEAP_USED);
+            writeRecord(offset, key, record, value);
+            buffer.putInt(OFFSET_HEAP_USED, offset + recordBytes(key, value));
+
+            long hash = hash(key);
+            int position = slotPosition(findSlot(key, hash));
+            buffer.putInt(position + 8, offset);
+            buffer.putLong(position, hash);
+        }
+        buffer.putInt(OFFSET_COUNT, keys.size());
+        buffer.force();
+
+        log.info("🧹 Файловый кэш {} уплотнен: {} -> {} записей, {} байт", path, before, keys.size(), heapUsed());
+    }
+
+    /**
+     * Новый пустой файл атомарно заменяет текущий и отображается вместо него
+     */
+    private void replaceWithEmptyFile() throws IOException {
+        Path fresh = path.resolveSibling(path.getFileName() + ".compact");
+        create(fresh);
+        channel.close();
+        Files.move(fresh, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    /**
+     * Запись или уплотнение наткнулись на поврежденные данные: кэш теряется, файл создается заново
+     */
+    private void recreateLocked(RuntimeException cause) {
+        log.warn("⚠️ Файловый кэш {} поврежден ({}), файл создается заново", path, cause.toString());
+        try {
+            replaceWithEmptyFile();
+        } catch (IOException | RuntimeException e) {
+            log.warn("⚠️ Не удалось пересоздать файловый кэш {}, используется только память: {}",
+                    path, e.getMessage());
+            disabled = true;
+        }
+    }
+
+    private boolean hasExpiredMajority() {
+        // Выборка первых слотов: дешевая оценка без полного прохода
+        long now = nowEpochSecond();
+        int sampled = 0;
+        int expired = 0;
+        for (int slot = 0; slot < slotCapacity && sampled < 256; slot++) {
+            int position = slotPosition(slot);
+            if (buffer.getLong(position) == 0) {
+                continue;
+            }
+            sampled++;
+            if (readRecord(buffer.getInt(position + 8)).expiresAtEpochSecond() <= now) {
+                expired++;
+            }
+        }
+        return sampled > 0 && expired * 2 > sampled;
+    }
+
+    // === СЛОТЫ И ЗАПИСИ ===
+
+    private boolean hasRoom(int recordBytes, boolean newKey) {
+        if (buffer.getInt(OFFSET_HEAP_USED) + (long) recordBytes > fileBytes()) {
+            return false;
+        }
+        return !newKey || buffer.getInt(OFFSET_COUNT) + 1 <= slotCapacity * MAX_LOAD_FACTOR;
+    }
+
+    /**
+     * Слот с этим ключом или первый пустой слот в цепочке; -1, если таблица заполнена
+     */
+    private int findSlot(byte[] key, long hash) {
+        int mask = slotCapacity - 1;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        for (int probe = 0; probe < slotCapacity; probe++) {
+            int position = slotPosition(slot);
+            long stored = buffer.getLong(position);
+            if (stored == 0 || (stored == hash && keyEquals(buffer.getInt(position + 8), key))) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 2 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] readKey(int offset) {
+        byte[] key = new byte[Short.toUnsignedInt(buffer.getShort(offset))];
+        buffer.get(offset + 2, key);
+        return key;
+    }
+
+    private Record readRecord(int offset) {
+        int position = offset + 2 + Short.toUnsignedInt(buffer.getShort(offset));
+        double latitude = buffer.getDouble(position);
+        double longitude = buffer.getDouble(position + 8);
+        long expiresAt = buffer.getLong(position + 16);
+        int valueLength = valueLength(offset, position);
+
+        String value = null;
+        if (valueLength >= 0) {
+            byte[] bytes = new byte[valueLength];
+            buffer.get(position + 28, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new Record(latitude, longitude, expiresAt, value);
+    }
+
+    private int recordLength(int offset) {
+        int keyLength = Short.toUnsignedInt(buffer.getShort(offset));
+        int valueLength = valueLength(offset, offset + 2 + keyLength);
+        return 2 + keyLength + 28 + Math.max(valueLength, 0);
+    }
+
+    /**
+     * Длина значения записи; выход за область записей - признак повреждения
+     */
+    private int valueLength(int offset, int position) {
+        int valueLength = buffer.getInt(position + 24);
+        if (valueLength < -1 || position + 28L + valueLength > buffer.getInt(OFFSET_HEAP_USED)) {
+            throw new IllegalStateException("поврежденная запись по смещению " + offset);
+        }
+        return valueLength;
+    }
+
+    private void writeRecord(int offset, byte[] key, Record record, byte[] value) {
+        buffer.putShort(offset, (short) key.length);
+        buffer.put(offset + 2, key);
+        int position = offset + 2 + key.length;
+        buffer.putDouble(position, record.latitude());
+        buffer.putDouble(position + 8, record.longitude());
+        buffer.putLong(position + 16, record.expiresAtEpochSecond());
+        buffer.putInt(position + 24, value == null ? -1 : value.length);
+        if (value != null) {
+            buffer.put(position + 28, value);
+        }
+    }
+
+    private static int recordBytes(byte[] key, byte[] value) {
+        if (key.length > 0xFFFF) {
+            throw new IllegalArgumentException("Ключ длиннее 65535 байт");
+        }
+        return 2 + key.length + 28 + (value == null ? 0 : value.length);
+    }
+
+    private int heapUsed() {
+        return buffer.getInt(OFFSET_HEAP_USED) - heapStart();
+    }
+
+    /**
+     * 64-битный FNV-1a (0 зарезервирован для пустого слота)
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long nowEpochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
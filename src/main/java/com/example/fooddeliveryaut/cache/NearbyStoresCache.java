@@ -0,0 +1,354 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.ProductServiceClient;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.dto.FindNearbyStoresDto;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.service.StoreRankingEngine;
+import com.example.fooddeliveryaut.util.FutureUtil;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import com.example.fooddeliveryaut.util.GeoRadiusFilter;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 🔍 Кэш результатов поиска ближайших магазинов по ячейкам сетки
+ *
+ * Пользователи из одной ячейки с одинаковыми фильтрами делят один ответ
+ * PRODUCT-SERVICE: он запрашивается от центра ячейки с радиусом, увеличенным
+ * на размер ячейки (по расстоянию), а для каждого пользователя магазины заново
+ * фильтруются и ранжируются по его точному расстоянию и sortBy
+ * ({@link StoreRankingEngine}), поэтому сортировка не входит в ключ. Устаревшая запись отдается,
+ * пока в фоне загружается новая (stale-while-revalidate).
+ * Ячейки загружаются через WebClient вне блокировок кэша.
+ */
+@Component
+@Slf4j
+public class NearbyStoresCache {
+
+    // Оценка памяти на запись и на магазин (объекты, BigDecimal, ссылки)
+    private static final int ENTRY_BASE_BYTES = 256;
+    private static final int STORE_BASE_BYTES = 480;
+
+    private final ProductServiceClient productServiceClient;
+    private final LocationConfigProperties locationConfig;
+    private final StoreRankingEngine rankingEngine;
+    private final CacheConfigProperties.NearbyStores config;
+    private final GeoGrid grid;
+    private final AsyncLoadingCache<CellKey, CellResult> cache;
+    private final Counter bypassCounter;
+
+    public NearbyStoresCache(ProductServiceClient productServiceClient,
+                             LocationConfigProperties locationConfig,
+                             StoreRankingEngine rankingEngine,
+                             CacheConfigProperties cacheConfig,
+                             @Qualifier("applicationTaskExecutor") Executor loadExecutor,
+                             MeterRegistry meterRegistry) {
+        this.productServiceClient = productServiceClient;
+        this.locationConfig = locationConfig;
+        this.rankingEngine = rankingEngine;
+        this.config = cacheConfig.getNearbyStores();
+        this.grid = new GeoGrid(config.getCellSizeKm());
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxBytes())
+                .weigher((CellKey key, CellResult result) -> result.getBytes())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .refreshAfterWrite(Duration.ofSeconds(config.getStaleAfterSeconds()))
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync((key, executor) -> loadCell(key));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "nearbyStores");
+        Gauge.builder("cache.nearbyStores.bytes", cache,
+                        c -> c.synchronous().policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .description("Оценка памяти, занятой кэшем ближайших магазинов")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bypassCounter = Counter.builder("cache.nearbyStores.bypass")
+                .description("Запросы, которые нельзя было ответить из ячейки кэша")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔍 Ближайшие магазины для точки из запроса (координаты должны быть заполнены)
+     *
+     * @throws RuntimeException если PRODUCT-SERVICE недоступен и в кэше нет записи
+     */
+    public List<NearbyStoreDto> find(FindNearbyStoresDto searchDto) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return productServiceClient.findNearbyStores(searchDto);
+        }
+
+        CellKey key = cellKey(searchDto);
+        if (key == null) {
+            return bypass(searchDto, "радиус ячейки больше максимального");
+        }
+
+        List<NearbyStoreDto> stores = select(key, FutureUtil.join(cache.get(key)), searchDto);
+        return stores != null ? stores : bypass(searchDto, "ответ для ячейки был обрезан лимитом");
+    }
+
+    /**
+     * ⚡ Неблокирующий вариант {@link #find}
+     */
+    public CompletableFuture<List<NearbyStoreDto>> findAsync(FindNearbyStoresDto searchDto) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return productServiceClient.findNearbyStoresAsync(searchDto);
+        }
+
+        CellKey key = cellKey(searchDto);
+        if (key == null) {
+            return bypassAsync(searchDto, "радиус ячейки больше максимального");
+        }
+
+        return cache.get(key).thenCompose(cell -> {
+            List<NearbyStoreDto> stores = select(key, cell, searchDto);
+            return stores != null
+                    ? CompletableFuture.completedFuture(stores)
+                    : bypassAsync(searchDto, "ответ для ячейки был обрезан лимитом");
+        });
+    }
+
+    /**
+     * 🧹 Полная очистка кэша
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+        log.info("🧹 Кэш ближайших магазинов очищен");
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private List<NearbyStoreDto> bypass(FindNearbyStoresDto searchDto, String reason) {
+        bypassCounter.increment();
+        log.debug("🔗 Запрос ближайших магазинов мимо кэша: {}", reason);
+        return productServiceClient.findNearbyStores(searchDto);
+    }
+
+    private CompletableFuture<List<NearbyStoreDto>> bypassAsync(FindNearbyStoresDto searchDto, String reason) {
+        bypassCounter.increment();
+        log.debug("🔗 Запрос ближайших магазинов мимо кэша: {}", reason);
+        return productServiceClient.findNearbyStoresAsync(searchDto);
+    }
+
+    /**
+     * Ключ ячейки для точки запроса или null, если радиус ячейки больше максимального
+     */
+    private CellKey cellKey(FindNearbyStoresDto searchDto) {
+        double lat = searchDto.getLatitude().doubleValue();
+        double lon = searchDto.getLongitude().doubleValue();
+
+        long latIndex = grid.latIndex(lat);
+        long lonIndex = grid.lonIndex(latIndex, lon);
+        double cellRadiusKm = grid.maxDistanceFromCenterKm(latIndex, lonIndex);
+        int fetchRadiusKm = (int) Math.ceil(searchDto.getRadiusKm() + cellRadiusKm);
+
+        if (fetchRadiusKm > locationConfig.getMaxRadiusKm()) {
+            return null;
+        }
+
+        // Сортировка не входит в ключ: ячейка ранжируется локально под любой sortBy
+        return new CellKey(latIndex, lonIndex, fetchRadiusKm,
+                normalizeCategory(searchDto.getCategory()), searchDto.getMinRating(),
+                searchDto.getOnlyOpen());
+    }
+
+    private List<NearbyStoreDto> select(CellKey key, CellResult cell, FindNearbyStoresDto searchDto) {
+        List<NearbyStoreDto> stores = cell.select(
+                searchDto.getLatitude().doubleValue(), searchDto.getLongitude().doubleValue(), searchDto, rankingEngine);
+
+        if (stores != null) {
+            log.debug("🗄️ Ближайшие магазины из кэша ячейки [{}, {}]: {} из {}",
+                    key.getLatIndex(), key.getLonIndex(), stores.size(), cell.getStores().size());
+        }
+        return stores;
+    }
+
+    private CompletableFuture<CellResult> loadCell(CellKey key) {
+        return productServiceClient.findNearbyStoresAsync(cellSearch(key))
+                .thenApply(response -> toCellResult(key, response));
+    }
+
+    private FindNearbyStoresDto cellSearch(CellKey key) {
+        return FindNearbyStoresDto.builder()
+                .latitude(BigDecimal.valueOf(grid.centerLat(key.getLatIndex())))
+                .longitude(BigDecimal.valueOf(grid.centerLon(key.getLatIndex(), key.getLonIndex())))
+                .radiusKm(key.getFetchRadiusKm())
+                .limit(locationConfig.getMaxResults())
+                .category(key.getCategory())
+                .minRating(key.getMinRating())
+                .onlyOpen(key.getOnlyOpen())
+                .sortBy(StoreRankingEngine.SORT_DISTANCE)
+                .build();
+    }
+
+    private CellResult toCellResult(CellKey key, List<NearbyStoreDto> response) {
+        double centerLat = grid.centerLat(key.getLatIndex());
+        double centerLon = grid.centerLon(key.getLatIndex(), key.getLonIndex());
+        int fetchLimit = locationConfig.getMaxResults();
+
+        List<NearbyStoreDto> stores = new ArrayList<>(response.size());
+        for (NearbyStoreDto store : response) {
+            if (store.getLatitude() != null && store.getLongitude() != null) {
+                stores.add(store);
+            }
+        }
+
+        return new CellResult(stores, centerLat, centerLon, response.size() >= fetchLimit);
+    }
+
+    private static String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return category.trim();
+    }
+
+    // === КЛЮЧ И ЗАПИСЬ КЭША ===
+
+    @Value
+    private static class CellKey {
+        long latIndex;
+        long lonIndex;
+        int fetchRadiusKm;
+        String category;
+        Double minRating;
+        Boolean onlyOpen;
+    }
+
+    private static class CellResult {
+        private final List<NearbyStoreDto> stores;
+        private final double centerLat;
+        private final double centerLon;
+        private final boolean truncated;
+
+        // Координаты в виде struct-of-arrays для пакетного расчета
+        private final double[] lats;
+        private final double[] lons;
+        private final double farthestFromCenterKm;
+        private final int bytes;
+
+        CellResult(List<NearbyStoreDto> stores, double centerLat, double centerLon, boolean truncated) {
+            this.stores = stores;
+            this.centerLat = centerLat;
+            this.centerLon = centerLon;
+            this.truncated = truncated;
+
+            int count = stores.size();
+            this.lats = new double[count];
+            this.lons = new double[count];
+            long size = ENTRY_BASE_BYTES;
+            for (int i = 0; i < count; i++) {
+                NearbyStoreDto store = stores.get(i);
+                lats[i] = store.getLatitude().doubleValue();
+                lons[i] = store.getLongitude().doubleValue();
+                size += estimateBytes(store);
+            }
+            this.bytes = (int) Math.min(Integer.MAX_VALUE, size);
+
+            double[] fromCenter = new double[count];
+            GeoDistanceUtil.distancesKm(centerLat, centerLon, lats, lons, fromCenter, count);
+            this.farthestFromCenterKm = Arrays.stream(fromCenter).max().orElse(0);
+        }
+
+        List<NearbyStoreDto> getStores() {
+            return stores;
+        }
+
+        int getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Магазины в радиусе от точки пользователя, отранжированные для него.
+         * Возвращает null, если обрезанный лимитом ответ не гарантирует полноты.
+         */
+        List<NearbyStoreDto> select(double lat, double lon, FindNearbyStoresDto searchDto,
+                                    StoreRankingEngine rankingEngine) {
+            int count = stores.size();
+            int limit = searchDto.getLimit();
+            String sortBy = searchDto.getSortBy();
+
+            GeoRadiusFilter radiusFilter = new GeoRadiusFilter(lat, lon, searchDto.getRadiusKm());
+            int[] inside = new int[count];
+            int found = radiusFilter.filter(lats, lons, count, inside);
+
+            double[] distances = new double[count];
+            GeoDistanceUtil.distancesKm(lat, lon, lats, lons, inside, found, distances);
+
+            // Ответ ячейки отсортирован по расстоянию от центра: если он обрезан лимитом,
+            // полон только круг до самого дальнего магазина минус смещение пользователя
+            double completeRadiusKm = truncated
+                    ? farthestFromCenterKm - GeoDistanceUtil.distanceKm(centerLat, centerLon, lat, lon)
+                    : Double.MAX_VALUE;
+
+            // В адаптивном режиме берутся limit ближайших, а по sortBy сортируются уже они
+            boolean adaptive = Boolean.TRUE.equals(searchDto.getAdaptiveRadius());
+            boolean nearestFirst = adaptive
+                    || !(StoreRankingEngine.SORT_RATING.equals(sortBy)
+                    || StoreRankingEngine.SORT_DELIVERY_TIME.equals(sortBy));
+
+            int[] order;
+            if (nearestFirst) {
+                order = rankingEngine.topK(inside, found, limit, StoreRankingEngine.SORT_DISTANCE,
+                        i -> distances[i], stores::get);
+                if (truncated && (found < limit
+                        || (order.length > 0 && distances[order[order.length - 1]] > completeRadiusKm))) {
+                    return null;
+                }
+                if (adaptive) {
+                    order = rankingEngine.topK(order, order.length, order.length, sortBy,
+                            i -> distances[i], stores::get);
+                }
+            } else {
+                // Другие сортировки могут выбрать любой магазин в радиусе: нужен весь круг
+                if (searchDto.getRadiusKm() > completeRadiusKm) {
+                    return null;
+                }
+                order = rankingEngine.topK(inside, found, limit, sortBy, i -> distances[i], stores::get);
+            }
+
+            List<NearbyStoreDto> result = new ArrayList<>(order.length);
+            for (int index : order) {
+                result.add(rankingEngine.withDelivery(stores.get(index), distances[index]));
+            }
+            return result;
+        }
+
+        private static long estimateBytes(NearbyStoreDto store) {
+            return STORE_BASE_BYTES + 16
+                    + stringBytes(store.getName())
+                    + stringBytes(store.getDescription())
+                    + stringBytes(store.getCategory())
+                    + stringBytes(store.getImageUrl())
+                    + stringBytes(store.getFullAddress())
+                    + stringBytes(store.getWorkingHours())
+                    + stringBytes(store.getDistanceText());
+        }
+
+        private static long stringBytes(String value) {
+            return value == null ? 0 : 40L + 2L * value.length();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.MapboxResponseReader;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.util.AddressNormalizer;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 🍕 Кэш поиска мест рядом с точкой
+ *
+ * Ключ - нормализованный запрос и ячейка сетки размером cellSizeMeters, в которую
+ * попала точка. Mapbox спрашивается с центром ячейки в качестве proximity и сразу
+ * на resultDepth мест, поэтому "пицца рядом" от соседей по району и следующие
+ * страницы того же поиска отвечаются из одного ответа.
+ * Пустой ответ Mapbox тоже кэшируется, ошибки - нет.
+ */
+@Component
+@Slf4j
+public class PlaceSearchCache {
+
+    // Mapbox Geocoding v5 возвращает не больше 10 результатов
+    private static final int MAPBOX_MAX_RESULTS = 10;
+
+    private final CacheConfigProperties.PlaceSearch config;
+    private final GeoGrid grid;
+    private final int resultDepth;
+    private final Cache<Key, List<MapboxResponseReader.Feature>> cache;
+
+    public PlaceSearchCache(CacheConfigProperties cacheConfig, MeterRegistry meterRegistry) {
+        this.config = cacheConfig.getPlaceSearch();
+        this.grid = new GeoGrid(config.getCellSizeMeters() / 1000.0);
+        this.resultDepth = Math.max(1, Math.min(config.getResultDepth(), MAPBOX_MAX_RESULTS));
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "placeSearch");
+
+        log.info("🍕 Кэш поиска мест: ячейка {} м, глубина {}, до {} записей, TTL {} сек",
+                config.getCellSizeMeters(), resultDepth, config.getMaxSize(), config.getTtlSeconds());
+    }
+
+    /**
+     * 🔍 Места для запроса около точки или null, если их нет в кэше
+     */
+    public List<MapboxResponseReader.Feature> get(String query, double lat, double lon) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return null;
+        }
+        return cache.getIfPresent(key(query, lat, lon));
+    }
+
+    /**
+     * 💾 Сохранить ответ Mapbox (запрошенный с {@link #proximity})
+     */
+    public void put(String query, double lat, double lon, List<MapboxResponseReader.Feature> places) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return;
+        }
+        cache.put(key(query, lat, lon), List.copyOf(places));
+    }
+
+    /**
+     * 📍 Точка для proximity в запросе к Mapbox: центр ячейки, чтобы ответ
+     * подходил любой точке ячейки (без кэша - сама точка) [lat, lon]
+     */
+    public double[] proximity(double lat, double lon) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return new double[]{lat, lon};
+        }
+        long latIndex = grid.latIndex(lat);
+        long lonIndex = grid.lonIndex(latIndex, lon);
+        return new double[]{grid.centerLat(latIndex), grid.centerLon(latIndex, lonIndex)};
+    }
+
+    /**
+     * Сколько мест запрашивать у Mapbox за один поиск
+     */
+    public int resultDepth() {
+        return resultDepth;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Key key(String query, double lat, double lon) {
+        return new Key(AddressNormalizer.normalize(query), grid.cellId(lat, lon));
+    }
+
+    private record Key(String query, long cellId) {
+    }
+}
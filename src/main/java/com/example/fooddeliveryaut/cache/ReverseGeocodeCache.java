@@ -0,0 +1,208 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🔄 Кэш обратного геокодирования по квантованным координатам
+ *
+ * Координаты округляются до ячейки сетки размером cellSizeMeters (10-20 м),
+ * поэтому отметки из одного здания делят один ответ Mapbox. Если своя ячейка
+ * пуста, проверяются 8 соседних: точка у границы ячейки получит адрес,
+ * сохраненный для соседней, если исходная точка того ответа не дальше cellSizeMeters.
+ * Вытеснение по размеру (Caffeine) и TTL.
+ *
+ * Под памятью лежит файл {@link MappedGeocodeStore}: после перезапуска ячейки
+ * читаются из него без обращения к Mapbox и без загрузки при старте.
+ */
+@Component
+@Slf4j
+public class ReverseGeocodeCache {
+
+    private final CacheConfigProperties.ReverseGeocode config;
+    private final CacheConfigProperties.GeocodeFile fileConfig;
+    private final MappedGeocodeStore fileStore;
+    private final GeoGrid grid;
+    private final double neighborDistanceKm;
+    private final Cache<Long, Entry> cache;
+
+    private final Counter cellHitCounter;
+    private final Counter neighborHitCounter;
+    private final Counter missCounter;
+
+    public ReverseGeocodeCache(CacheConfigProperties cacheConfig, MeterRegistry meterRegistry) {
+        this.config = cacheConfig.getReverseGeocode();
+        this.grid = new GeoGrid(config.getCellSizeMeters() / 1000.0);
+        this.neighborDistanceKm = config.getCellSizeMeters() / 1000.0;
+        this.fileConfig = cacheConfig.getGeocodeFile();
+        // Размер ячейки входит в имя файла: при его смене старые ключи не подходят
+        this.fileStore = Boolean.TRUE.equals(config.getEnabled()) && Boolean.TRUE.equals(fileConfig.getEnabled())
+                ? MappedGeocodeStore.tryOpen(
+                        Path.of(fileConfig.getDirectory(), "reverse-" + config.getCellSizeMeters() + "m.bin"),
+                        fileConfig.getMaxEntries(), fileConfig.getMaxBytes())
+                : null;
+
+        // Запись из файла живет до своего срока, а не полный TTL заново
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.writing((Long cellId, Entry entry) -> entry.remaining()))
+                .recordStats()
+                .build();
+
+        // Статистика Caffeine учитывает только свою ячейку, итог по запросам - в счетчиках ниже
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reverseGeocode");
+        this.cellHitCounter = lookupCounter(meterRegistry, "cell");
+        this.neighborHitCounter = lookupCounter(meterRegistry, "neighbor");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+
+        log.info("🔄 Кэш обратного геокодирования: ячейка {} м, до {} записей, TTL {} сек",
+                config.getCellSizeMeters(), config.getMaxSize(), config.getTtlSeconds());
+    }
+
+    /**
+     * 🔍 Адрес для точки или null, если его нет в кэше
+     */
+    public String get(double lat, double lon) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return null;
+        }
+
+        long latIndex = grid.latIndex(lat);
+        long lonIndex = grid.lonIndex(latIndex, lon);
+
+        Entry own = lookup(GeoGrid.cellId(latIndex, lonIndex), false);
+        if (own != null) {
+            cellHitCounter.increment();
+            return own.address;
+        }
+
+        if (Boolean.TRUE.equals(config.getNeighborLookup())) {
+            Entry neighbor = findNeighbor(latIndex, lat, lon);
+            if (neighbor != null) {
+                neighborHitCounter.increment();
+                return neighbor.address;
+            }
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 💾 Сохранить адрес, полученный для точки
+     */
+    public void put(double lat, double lon, String address) {
+        if (!Boolean.TRUE.equals(config.getEnabled()) || address == null) {
+            return;
+        }
+        long cellId = grid.cellId(lat, lon);
+        long expiresAtEpochSecond = System.currentTimeMillis() / 1000 + config.getTtlSeconds();
+        cache.put(cellId, new Entry(lat, lon, address, expiresAtEpochSecond));
+        if (fileStore != null) {
+            try {
+                fileStore.put(cellId, new MappedGeocodeStore.Record(lat, lon, expiresAtEpochSecond, address));
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Не удалось записать файловый кэш обратного геокодирования: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 🧹 Уплотнение файла кэша
+     */
+    @Scheduled(fixedDelayString = "${app.cache.geocode-file.compact-interval-seconds:600}",
+            initialDelayString = "${app.cache.geocode-file.compact-interval-seconds:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void compactFile() {
+        if (fileStore != null) {
+            fileStore.compactIfNeeded(fileConfig.getCompactGarbagePercent());
+        }
+    }
+
+    @PreDestroy
+    public void closeFile() throws IOException {
+        if (fileStore != null) {
+            fileStore.close();
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Entry findNeighbor(long latIndex, double lat, double lon) {
+        Entry nearest = null;
+        double nearestKm = neighborDistanceKm;
+
+        for (long row = latIndex - 1; row <= latIndex + 1; row++) {
+            // Шаг по долготе зависит от строки, поэтому столбец считается для каждой строки
+            long column = grid.lonIndex(row, lon);
+            for (long col = column - 1; col <= column + 1; col++) {
+                Entry entry = lookup(GeoGrid.cellId(row, col), true);
+                if (entry == null) {
+                    continue;
+                }
+                double distanceKm = GeoDistanceUtil.distanceKm(lat, lon, entry.lat, entry.lon);
+                if (distanceKm <= nearestKm) {
+                    nearest = entry;
+                    nearestKm = distanceKm;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Запись ячейки из памяти или из файла (найденная в файле поднимается в память)
+     *
+     * @param quiet не учитывать обращение в статистике Caffeine (соседние ячейки)
+     */
+    private Entry lookup(long cellId, boolean quiet) {
+        Entry entry = quiet ? cache.policy().getIfPresentQuietly(cellId) : cache.getIfPresent(cellId);
+        if (entry != null || fileStore == null) {
+            return entry;
+        }
+
+        MappedGeocodeStore.Record record = fileStore.get(cellId);
+        if (record == null) {
+            return null;
+        }
+        entry = new Entry(record.latitude(), record.longitude(), record.value(), record.expiresAtEpochSecond());
+        cache.put(cellId, entry);
+        return entry;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.reverseGeocode.lookups")
+                .description("Запросы к кэшу обратного геокодирования по результату")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Адрес и точка, для которой он был получен
+     */
+    private record Entry(double lat, double lon, String address, long expiresAtEpochSecond) {
+
+        Duration remaining() {
+            long seconds = expiresAtEpochSecond - System.currentTimeMillis() / 1000;
+            return Duration.ofSeconds(Math.max(seconds, 0));
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import com.example.fooddeliveryaut.util.GeoRadiusFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 🗂️ Неизменяемый индекс каталога магазинов
+ *
+ * Магазины разложены по ячейкам сетки {@link GeoGrid}: отдельно все магазины
+ * и отдельно по каждой категории, так что поиск с категорией не просматривает
+ * магазины других категорий. Изменения применяются построением нового индекса,
+ * поэтому читатели работают без блокировок.
+ */
+public final class StoreCatalogIndex {
+
+    private final long version;
+    private final GeoGrid grid;
+
+    private final NearbyStoreDto[] stores;
+    private final double[] lats;
+    private final double[] lons;
+    private final Map<Long, Integer> positions;
+
+    private final Map<Long, int[]> cells;
+    private final Map<String, Map<Long, int[]>> categoryCells;
+
+    private StoreCatalogIndex(long version, GeoGrid grid, List<NearbyStoreDto> stores) {
+        this.version = version;
+        this.grid = grid;
+
+        int count = stores.size();
+        this.stores = stores.toArray(new NearbyStoreDto[0]);
+        this.lats = new double[count];
+        this.lons = new double[count];
+        this.positions = new HashMap<>(count * 2);
+
+        Map<Long, List<Integer>> allCells = new HashMap<>();
+        Map<String, Map<Long, List<Integer>>> byCategory = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            NearbyStoreDto store = this.stores[i];
+            lats[i] = store.getLatitude().doubleValue();
+            lons[i] = store.getLongitude().doubleValue();
+            positions.put(store.getStoreId(), i);
+
+            long cellId = grid.cellId(lats[i], lons[i]);
+            allCells.computeIfAbsent(cellId, id -> new ArrayList<>()).add(i);
+
+            String category = normalizeCategory(store.getCategory());
+            if (category != null) {
+                byCategory.computeIfAbsent(category, c -> new HashMap<>())
+                        .computeIfAbsent(cellId, id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        this.cells = toArrays(allCells);
+        this.categoryCells = new HashMap<>(byCategory.size() * 2);
+        byCategory.forEach((category, categoryIndex) -> categoryCells.put(category, toArrays(categoryIndex)));
+    }
+
+    /**
+     * 🏗️ Индекс по снимку каталога (магазины без координат пропускаются)
+     */
+    public static StoreCatalogIndex build(long version, Collection<NearbyStoreDto> stores, GeoGrid grid) {
+        List<NearbyStoreDto> located = new ArrayList<>(stores.size());
+        for (NearbyStoreDto store : stores) {
+            if (store.getStoreId() != null && store.getLatitude() != null && store.getLongitude() != null) {
+                located.add(store);
+            }
+        }
+        return new StoreCatalogIndex(version, grid, located);
+    }
+
+    /**
+     * 🔄 Новый индекс с примененными изменениями (текущий не меняется)
+     */
+    public StoreCatalogIndex withChanges(StoreCatalogChangesDto changes) {
+        Map<Long, NearbyStoreDto> merged = new LinkedHashMap<>(stores.length * 2);
+        for (NearbyStoreDto store : stores) {
+            merged.put(store.getStoreId(), store);
+        }
+        if (changes.getRemovedStoreIds() != null) {
+            changes.getRemovedStoreIds().forEach(merged::remove);
+        }
+        if (changes.getUpdated() != null) {
+            for (NearbyStoreDto store : changes.getUpdated()) {
+                merged.put(store.getStoreId(), store);
+            }
+        }
+        return build(changes.getVersion(), merged.values(), grid);
+    }
+
+    /**
+     * 🔍 Магазины в радиусе, подходящие под фильтры, с расстояниями до точки
+     *
+     * @param category категория (без учета регистра); null или пустая - без фильтра
+     * @param minRating минимальный рейтинг или null
+     */
+    public Candidates query(double lat, double lon, double radiusKm,
+                            String category, Double minRating, boolean onlyOpen) {
+        String normalizedCategory = normalizeCategory(category);
+        Map<Long, int[]> index = normalizedCategory == null
+                ? cells
+                : categoryCells.getOrDefault(normalizedCategory, Map.of());
+        if (index.isEmpty()) {
+            return new Candidates(new int[0], new double[0], 0);
+        }
+
+        GeoRadiusFilter filter = new GeoRadiusFilter(lat, lon, radiusKm);
+        Collector collector = new Collector(filter, minRating, onlyOpen);
+
+        long minRow = grid.latIndex(filter.getMinLatitude());
+        long maxRow = grid.latIndex(filter.getMaxLatitude());
+        double[][] lonRanges = filter.getLongitudeRanges();
+
+        if (estimateCells(minRow, maxRow, lonRanges) > index.size()) {
+            // Круг больше заполненной части сетки: дешевле пройти по непустым ячейкам
+            index.values().forEach(collector::addAll);
+        } else {
+            for (long row = minRow; row <= maxRow; row++) {
+                for (double[] range : lonRanges) {
+                    long fromColumn = grid.lonIndex(row, range[0]);
+                    long toColumn = grid.lonIndex(row, range[1]);
+                    for (long column = fromColumn; column <= toColumn; column++) {
+                        int[] bucket = index.get(GeoGrid.cellId(row, column));
+                        if (bucket != null) {
+                            collector.addAll(bucket);
+                        }
+                    }
+                }
+            }
+        }
+
+        int count = collector.count;
+        double[] candidateLats = new double[count];
+        double[] candidateLons = new double[count];
+        for (int i = 0; i < count; i++) {
+            candidateLats[i] = lats[collector.found[i]];
+            candidateLons[i] = lons[collector.found[i]];
+        }
+        double[] distances = new double[count];
+        GeoDistanceUtil.distancesKm(lat, lon, candidateLats, candidateLons, distances, count);
+
+        return new Candidates(collector.found, distances, count);
+    }
+
+    public NearbyStoreDto get(Long storeId) {
+        Integer position = positions.get(storeId);
+        return position == null ? null : stores[position];
+    }
+
+    public NearbyStoreDto store(int position) {
+        return stores[position];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return stores.length;
+    }
+
+    public static String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private long estimateCells(long minRow, long maxRow, double[][] lonRanges) {
+        long total = 0;
+        long middleRow = (minRow + maxRow) / 2;
+        for (double[] range : lonRanges) {
+            total += grid.lonIndex(middleRow, range[1]) - grid.lonIndex(middleRow, range[0]) + 1;
+        }
+        return total * (maxRow - minRow + 1);
+    }
+
+    private static Map<Long, int[]> toArrays(Map<Long, List<Integer>> source) {
+        Map<Long, int[]> result = new HashMap<>(source.size() * 2);
+        source.forEach((cellId, list) -> result.put(cellId, list.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    /**
+     * 📋 Результат запроса: позиции магазинов в индексе и расстояния до них
+     */
+    public static final class Candidates {
+        private final int[] positions;
+        private final double[] distancesKm;
+        private final int count;
+
+        Candidates(int[] positions, double[] distancesKm, int count) {
+            this.positions = positions;
+            this.distancesKm = distancesKm;
+            this.count = count;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public int position(int i) {
+            return positions[i];
+        }
+
+        public double distanceKm(int i) {
+            return distancesKm[i];
+        }
+    }
+
+    private final class Collector {
+        private final GeoRadiusFilter filter;
+        private final Double minRating;
+        private final boolean onlyOpen;
+        private int[] found = new int[16];
+        private int count;
+
+        Collector(GeoRadiusFilter filter, Double minRating, boolean onlyOpen) {
+            this.filter = filter;
+            this.minRating = minRating;
+            this.onlyOpen = onlyOpen;
+        }
+
+        void addAll(int[] bucket) {
+            for (int position : bucket) {
+                if (matches(stores[position]) && filter.contains(lats[position], lons[position])) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = position;
+                }
+            }
+        }
+
+        private boolean matches(NearbyStoreDto store) {
+            if (onlyOpen && !Boolean.TRUE.equals(store.getIsOpen())) {
+                return false;
+            }
+            return minRating == null || (store.getRating() != null && store.getRating() >= minRating);
+        }
+    }
+}
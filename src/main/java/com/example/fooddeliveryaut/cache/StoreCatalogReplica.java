@@ -0,0 +1,234 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.StoreCatalogFeed;
+import com.example.fooddeliveryaut.config.StoreCatalogProperties;
+import com.example.fooddeliveryaut.dto.FindNearbyStoresDto;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogSnapshotDto;
+import com.example.fooddeliveryaut.service.StoreRankingEngine;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 📚 Локальная реплика каталога магазинов (только чтение)
+ *
+ * Загружается полным снимком из PRODUCT-SERVICE, затем раз в syncIntervalSeconds
+ * догружает изменения после своей версии. Если изменения с этой версии уже
+ * недоступны, загружается новый снимок. Поиск ближайших магазинов идет
+ * по индексу в памяти, без сетевого вызова.
+ *
+ * Если реплика не обновлялась дольше maxStalenessSeconds, она считается
+ * неготовой и поиск снова идет в PRODUCT-SERVICE.
+ */
+@Component
+@Slf4j
+public class StoreCatalogReplica {
+
+    private final StoreCatalogFeed feed;
+    private final StoreCatalogProperties config;
+    private final StoreRankingEngine rankingEngine;
+    private final GeoGrid grid;
+    private final long maxStalenessNanos;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile StoreCatalogIndex index;
+    private volatile long lastSyncNanos;
+
+    private final Counter snapshotCounter;
+    private final Counter syncFailureCounter;
+
+    public StoreCatalogReplica(StoreCatalogFeed feed,
+                               StoreCatalogProperties config,
+                               StoreRankingEngine rankingEngine,
+                               MeterRegistry meterRegistry) {
+        this.feed = feed;
+        this.config = config;
+        this.rankingEngine = rankingEngine;
+        this.grid = new GeoGrid(config.getCellSizeKm());
+        this.maxStalenessNanos = Duration.ofSeconds(config.getMaxStalenessSeconds()).toNanos();
+
+        this.snapshotCounter = Counter.builder("store.catalog.snapshots")
+                .description("Загрузки полного снимка каталога магазинов")
+                .register(meterRegistry);
+        this.syncFailureCounter = Counter.builder("store.catalog.sync.failures")
+                .description("Неудачные обновления реплики каталога магазинов")
+                .register(meterRegistry);
+        Gauge.builder("store.catalog.size", this, StoreCatalogReplica::size)
+                .description("Магазинов в локальной реплике каталога")
+                .register(meterRegistry);
+        Gauge.builder("store.catalog.staleness", this,
+                        replica -> replica.index == null ? -1 : (System.nanoTime() - replica.lastSyncNanos) / 1e9)
+                .description("Секунд с последнего успешного обновления реплики")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * ⏰ Плановое обновление (первое - сразу после старта)
+     */
+    @Scheduled(fixedDelayString = "${app.store-catalog.sync-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void scheduledSync() {
+        if (Boolean.TRUE.equals(config.getEnabled())) {
+            sync();
+        }
+    }
+
+    /**
+     * 🔄 Загрузить снимок (если реплика пуста) или изменения после текущей версии
+     *
+     * @return true, если реплика обновлена
+     */
+    public boolean sync() {
+        syncLock.lock();
+        try {
+            StoreCatalogIndex current = index;
+            if (current == null) {
+                loadSnapshot();
+                return true;
+            }
+
+            StoreCatalogChangesDto changes = feed.fetchChanges(current.getVersion());
+            if (Boolean.TRUE.equals(changes.getSnapshotRequired())) {
+                log.info("📚 Изменения каталога с версии {} недоступны, загружаем снимок", current.getVersion());
+                loadSnapshot();
+                return true;
+            }
+
+            int updated = changes.getUpdated() == null ? 0 : changes.getUpdated().size();
+            int removed = changes.getRemovedStoreIds() == null ? 0 : changes.getRemovedStoreIds().size();
+            if (updated > 0 || removed > 0) {
+                index = current.withChanges(changes);
+                log.info("🔄 Реплика каталога: версия {} -> {}, изменено {}, удалено {}",
+                        current.getVersion(), changes.getVersion(), updated, removed);
+            }
+            lastSyncNanos = System.nanoTime();
+            return true;
+
+        } catch (Exception e) {
+            syncFailureCounter.increment();
+            log.warn("⚠️ Не удалось обновить реплику каталога магазинов: {}", e.getMessage());
+            return false;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * ✅ Можно ли отвечать из реплики
+     */
+    public boolean isReady() {
+        return Boolean.TRUE.equals(config.getEnabled())
+                && index != null
+                && System.nanoTime() - lastSyncNanos <= maxStalenessNanos;
+    }
+
+    /**
+     * 🔍 Ближайшие магазины из реплики (координаты в запросе должны быть заполнены)
+     *
+     * В адаптивном режиме радиус растет кольцами от initialRingKm (удваивается),
+     * пока не найдено limit магазинов или не достигнут radiusKm: в плотном центре
+     * просматривается маленький круг, а не весь радиус.
+     * Порядок и время/стоимость доставки считает {@link StoreRankingEngine}.
+     *
+     * @throws IllegalStateException если реплика еще не загружена
+     */
+    public List<NearbyStoreDto> findNearby(FindNearbyStoresDto searchDto) {
+        StoreCatalogIndex current = requireIndex();
+        int limit = searchDto.getLimit();
+        String sortBy = searchDto.getSortBy();
+
+        StoreCatalogIndex.Candidates candidates;
+        int[] selected;
+        if (Boolean.TRUE.equals(searchDto.getAdaptiveRadius())) {
+            candidates = queryInRings(current, searchDto);
+            // limit ближайших, затем порядок по sortBy
+            selected = rankingEngine.topK(candidates.count(), limit, StoreRankingEngine.SORT_DISTANCE,
+                    candidates::distanceKm, i -> current.store(candidates.position(i)));
+            selected = rankingEngine.topK(selected, selected.length, selected.length, sortBy,
+                    candidates::distanceKm, i -> current.store(candidates.position(i)));
+        } else {
+            candidates = query(current, searchDto, searchDto.getRadiusKm());
+            selected = rankingEngine.topK(candidates.count(), limit, sortBy,
+                    candidates::distanceKm, i -> current.store(candidates.position(i)));
+        }
+
+        List<NearbyStoreDto> result = new ArrayList<>(selected.length);
+        for (int candidate : selected) {
+            result.add(rankingEngine.withDelivery(
+                    current.store(candidates.position(candidate)), candidates.distanceKm(candidate)));
+        }
+        return result;
+    }
+
+    /**
+     * 🏪 Магазин из реплики или null
+     */
+    public NearbyStoreDto get(Long storeId) {
+        StoreCatalogIndex current = index;
+        return current == null ? null : current.get(storeId);
+    }
+
+    public long getVersion() {
+        StoreCatalogIndex current = index;
+        return current == null ? -1 : current.getVersion();
+    }
+
+    public int size() {
+        StoreCatalogIndex current = index;
+        return current == null ? 0 : current.size();
+    }
+
+    private void loadSnapshot() {
+        StoreCatalogSnapshotDto snapshot = feed.fetchSnapshot();
+        List<NearbyStoreDto> stores = snapshot.getStores() == null ? List.of() : snapshot.getStores();
+
+        index = StoreCatalogIndex.build(snapshot.getVersion(), stores, grid);
+        lastSyncNanos = System.nanoTime();
+        snapshotCounter.increment();
+
+        log.info("📚 Загружен снимок каталога магазинов: версия {}, {} магазинов",
+                snapshot.getVersion(), index.size());
+    }
+
+    private StoreCatalogIndex requireIndex() {
+        StoreCatalogIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Реплика каталога магазинов еще не загружена");
+        }
+        return current;
+    }
+
+    private StoreCatalogIndex.Candidates queryInRings(StoreCatalogIndex current, FindNearbyStoresDto searchDto) {
+        double maxRadiusKm = searchDto.getRadiusKm();
+        double radiusKm = Math.min(config.getInitialRingKm(), maxRadiusKm);
+
+        // Круг каждого кольца вдвое шире: суммарная работа ~4/3 от последнего круга
+        while (true) {
+            StoreCatalogIndex.Candidates candidates = query(current, searchDto, radiusKm);
+            if (candidates.count() >= searchDto.getLimit() || radiusKm >= maxRadiusKm) {
+                return candidates;
+            }
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+    }
+
+    private static StoreCatalogIndex.Candidates query(StoreCatalogIndex current, FindNearbyStoresDto searchDto,
+                                                      double radiusKm) {
+        return current.query(
+                searchDto.getLatitude().doubleValue(), searchDto.getLongitude().doubleValue(),
+                radiusKm, searchDto.getCategory(), searchDto.getMinRating(),
+                Boolean.TRUE.equals(searchDto.getOnlyOpen()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.ProductServiceClient;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.dto.StoreLocationDto;
+import com.example.fooddeliveryaut.util.FutureUtil;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 🏪 Кэш локаций магазинов
+ *
+ * Координаты магазинов почти не меняются, поэтому расчет расстояния
+ * в большинстве случаев не требует вызова PRODUCT-SERVICE:
+ * - ограниченный размер и TTL
+ * - обновление в фоне до истечения TTL (refresh-ahead), пока отдается текущее значение
+ * - параллельные промахи по одному магазину ждут одну загрузку
+ * - явная инвалидация при изменении магазина
+ *
+ * Загрузка идет вне блокировок кэша: одиночные промахи - через WebClient,
+ * пакетные - на applicationTaskExecutor (виртуальные потоки при
+ * spring.threads.virtual.enabled=true). Поток, ждущий загрузку, не закрепляется
+ * за потоком ОС, как это было бы при загрузке внутри синхронного кэша.
+ */
+@Component
+@Slf4j
+public class StoreLocationCache {
+
+    private final AsyncLoadingCache<Long, StoreLocationDto> cache;
+
+    public StoreLocationCache(ProductServiceClient productServiceClient,
+                              CacheConfigProperties cacheConfig,
+                              @Qualifier("applicationTaskExecutor") Executor loadExecutor,
+                              MeterRegistry meterRegistry) {
+        CacheConfigProperties.StoreLocation config = cacheConfig.getStoreLocation();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .refreshAfterWrite(Duration.ofSeconds(config.getRefreshAheadSeconds()))
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<StoreLocationDto> asyncLoad(Long storeId, Executor executor) {
+                        return productServiceClient.getStoreLocationAsync(storeId);
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<Long, StoreLocationDto>> asyncLoadAll(
+                            Set<? extends Long> storeIds, Executor executor) {
+                        return CompletableFuture.supplyAsync(() -> {
+                            Map<Long, StoreLocationDto> locations = new HashMap<>();
+                            for (StoreLocationDto location : productServiceClient.getStoreLocations(storeIds)) {
+                                locations.put(location.getStoreId(), location);
+                            }
+                            return locations;
+                        }, executor);
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "storeLocations");
+
+        log.info("🗄️ Кэш локаций магазинов: до {} записей, TTL {} сек, обновление через {} сек",
+                config.getMaxSize(), config.getTtlSeconds(), config.getRefreshAheadSeconds());
+    }
+
+    /**
+     * 📍 Локация магазина из кэша или PRODUCT-SERVICE
+     *
+     * @throws RuntimeException если магазин не удалось загрузить
+     */
+    public StoreLocationDto get(Long storeId) {
+        return FutureUtil.join(cache.get(storeId));
+    }
+
+    /**
+     * ⚡ Локация магазина без блокировки потока
+     */
+    public CompletableFuture<StoreLocationDto> getAsync(Long storeId) {
+        return cache.get(storeId);
+    }
+
+    /**
+     * 📦 Локации нескольких магазинов: промахи загружаются одним пакетным запросом
+     *
+     * @return найденные локации (магазинов, которых нет в ответе, в результате нет)
+     */
+    public Map<Long, StoreLocationDto> getAll(Collection<Long> storeIds) {
+        return FutureUtil.join(cache.getAll(storeIds));
+    }
+
+    /**
+     * 🧹 Инвалидация локации магазина (например, после изменения адреса)
+     */
+    public void invalidate(Long storeId) {
+        cache.synchronous().invalidate(storeId);
+        log.info("🧹 Локация магазина {} удалена из кэша", storeId);
+    }
+
+    /**
+     * 🧹 Полная очистка кэша
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+        log.info("🧹 Кэш локаций магазинов очищен");
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.model.User;
+import com.example.fooddeliveryaut.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 📌 Кэш сохраненной геолокации пользователя
+ *
+ * Автодополнение адреса без координат в запросе ранжирует подсказки от сохраненной
+ * точки пользователя; запрос идет на каждое нажатие клавиши, поэтому точка читается
+ * из базы один раз и дальше берется из памяти.
+ * Запись удаляется при изменении координат или адреса пользователя. Отсутствие
+ * координат тоже кэшируется, но на negativeTtlSeconds: их может дописать фоновое
+ * геокодирование, которое кэш не инвалидирует.
+ */
+@Component
+@Slf4j
+public class UserOriginCache {
+
+    private static final Origin NONE = new Origin(Double.NaN, Double.NaN);
+
+    private final CacheConfigProperties.UserOrigin config;
+    private final UserRepository userRepository;
+    private final Cache<Long, Origin> cache;
+
+    public UserOriginCache(CacheConfigProperties cacheConfig, UserRepository userRepository,
+                           MeterRegistry meterRegistry) {
+        this.config = cacheConfig.getUserOrigin();
+        this.userRepository = userRepository;
+
+        Duration ttl = Duration.ofSeconds(config.getTtlSeconds());
+        Duration negativeTtl = Duration.ofSeconds(config.getNegativeTtlSeconds());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfter(Expiry.writing((Long userId, Origin origin) -> origin == NONE ? negativeTtl : ttl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userOrigin");
+
+        log.info("📌 Кэш геолокации пользователей: до {} записей, TTL {} сек (без координат - {} сек)",
+                config.getMaxSize(), config.getTtlSeconds(), config.getNegativeTtlSeconds());
+    }
+
+    /**
+     * 📍 Сохраненная точка пользователя [lat, lon] или null, если координат нет
+     */
+    public double[] get(Long userId) {
+        Origin origin = Boolean.TRUE.equals(config.getEnabled())
+                ? cache.get(userId, this::load)
+                : load(userId);
+        return origin == NONE ? null : new double[]{origin.latitude(), origin.longitude()};
+    }
+
+    /**
+     * 🗑️ Забыть точку пользователя (координаты или адрес изменились)
+     */
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private Origin load(Long userId) {
+        return userRepository.findById(userId)
+                .filter(User::hasLocation)
+                .map(user -> new Origin(user.getLatitude().doubleValue(), user.getLongitude().doubleValue()))
+                .orElse(NONE);
+    }
+
+    private record Origin(double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.ProductServiceProperties;
+import com.example.fooddeliveryaut.config.loadbalancer.InstanceLatencyStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.web.client.HttpClientErrorException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 🏁 Дублирующие (hedged) запросы к разным экземплярам сервиса
+ *
+ * Основной экземпляр выбирает балансировщик сервиса. Если он не ответил за
+ * заданный перцентиль задержки, такой же запрос отправляется на другой экземпляр;
+ * используется первый успешный ответ, второй запрос отменяется. Задержки обоих
+ * запросов попадают в {@link InstanceLatencyStats}, как у обычных балансируемых вызовов. Доля дублирующих запросов
+ * ограничена бюджетом: каждый запрос пополняет его на budgetPercent / 100,
+ * каждый дублирующий запрос тратит единицу.
+ *
+ * Только для идемпотентных запросов (чтение).
+ */
+@Slf4j
+public class HedgedRequestExecutor {
+
+    // Бюджет хранится в тысячных долях запроса
+    private static final long BUDGET_SCALE = 1000;
+
+    // Перцентиль пересчитывается раз в столько измерений
+    private static final int RECOMPUTE_EVERY = 50;
+
+    private final String serviceId;
+    private final DiscoveryClient discoveryClient;
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+    private final InstanceLatencyStats latencyStats;
+    private final boolean enabled;
+
+    private final double delayPercentile;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final int minSamples;
+
+    private final long[] latencies;
+    private final AtomicInteger samples = new AtomicInteger();
+    private volatile long hedgeDelayMs;
+
+    private final long budgetDeposit;
+    private final long budgetCapacity;
+    private final AtomicLong budget = new AtomicLong();
+
+    private final Counter hedgedCounter;
+    private final Counter hedgeWonCounter;
+    private final Counter throttledCounter;
+
+    public HedgedRequestExecutor(String serviceId,
+                                 DiscoveryClient discoveryClient,
+                                 ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                                 InstanceLatencyStats latencyStats,
+                                 ProductServiceProperties.Hedging config,
+                                 MeterRegistry meterRegistry) {
+        this.serviceId = serviceId;
+        this.discoveryClient = discoveryClient;
+        this.loadBalancerFactory = loadBalancerFactory;
+        this.latencyStats = latencyStats;
+        this.enabled = Boolean.TRUE.equals(config.getEnabled());
+
+        this.delayPercentile = config.getDelayPercentile();
+        this.initialDelayMs = config.getInitialDelayMs();
+        this.minDelayMs = config.getMinDelayMs();
+        this.minSamples = config.getMinSamples();
+        this.latencies = new long[config.getWindowSize()];
+        this.hedgeDelayMs = initialDelayMs;
+
+        this.budgetDeposit = Math.round(config.getBudgetPercent() / 100.0 * BUDGET_SCALE);
+        this.budgetCapacity = config.getBudgetBurst() * BUDGET_SCALE;
+
+        this.hedgedCounter = Counter.builder("http.client.hedging.hedged")
+                .description("Отправленные дублирующие запросы")
+                .tag("client", serviceId)
+                .register(meterRegistry);
+        this.hedgeWonCounter = Counter.builder("http.client.hedging.won")
+                .description("Дублирующие запросы, ответившие раньше основного")
+                .tag("client", serviceId)
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("http.client.hedging.throttled")
+                .description("Дублирующие запросы, не отправленные из-за исчерпания бюджета")
+                .tag("client", serviceId)
+                .register(meterRegistry);
+        Gauge.builder("http.client.hedging.delay", this, executor -> executor.hedgeDelayMs)
+                .description("Текущая задержка перед дублирующим запросом")
+                .tag("client", serviceId)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * ▶️ Выполнить запрос с дублированием
+     *
+     * @param attempt запрос к конкретному экземпляру (аргумент - базовый URL экземпляра)
+     * @param unhedged обычный запрос через балансировщик, если дублировать некуда
+     */
+    public <T> Mono<T> execute(Function<String, Mono<T>> attempt, Supplier<Mono<T>> unhedged) {
+        if (!enabled) {
+            return unhedged.get();
+        }
+
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = loadBalancerFactory.getInstance(serviceId);
+        if (instances.size() < 2 || loadBalancer == null) {
+            return unhedged.get();
+        }
+
+        depositBudget();
+
+        // Основной экземпляр выбирает балансировщик, как для обычного запроса
+        return Mono.from(loadBalancer.choose()).flatMap(response -> {
+            if (!response.hasServer()) {
+                return unhedged.get();
+            }
+            ServiceInstance primaryInstance = response.getServer();
+            ServiceInstance hedgeInstance = chooseHedgeInstance(instances, primaryInstance);
+            if (hedgeInstance == null) {
+                return unhedged.get();
+            }
+            return hedged(attempt, primaryInstance, hedgeInstance);
+        });
+    }
+
+    private <T> Mono<T> hedged(Function<String, Mono<T>> attempt,
+                               ServiceInstance primaryInstance, ServiceInstance hedgeInstance) {
+        AtomicReference<Throwable> primaryError = new AtomicReference<>();
+        Sinks.One<Boolean> primaryFailed = Sinks.one();
+
+        Mono<T> primary = tracked(primaryInstance, attempt)
+                .doOnError(e -> {
+                    primaryError.set(e);
+                    primaryFailed.tryEmitValue(true);
+                });
+
+        // Если основной запрос уже завершился ошибкой, дублировать нечего (это был бы повтор)
+        Mono<T> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs))
+                .takeUntilOther(primaryFailed.asMono())
+                .flatMap(tick -> {
+                    if (!tryAcquireBudget()) {
+                        throttledCounter.increment();
+                        return Mono.<T>empty();
+                    }
+                    hedgedCounter.increment();
+                    log.debug("🏁 {} не ответил за {} мс, дублируем запрос на {}",
+                            primaryInstance.getUri(), hedgeDelayMs, hedgeInstance.getUri());
+                    return tracked(hedgeInstance, attempt)
+                            .doOnSuccess(result -> hedgeWonCounter.increment())
+                            .doOnError(e -> log.debug("⚠️ Дублирующий запрос на {} завершился ошибкой: {}",
+                                    hedgeInstance.getUri(), e.getMessage()));
+                });
+
+        // Первый успешный ответ побеждает, второй запрос отменяется; ошибка одного
+        // из запросов не отменяет другой. Если успешного ответа нет - ошибка основного
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorMap(NoSuchElementException.class,
+                        e -> primaryError.get() != null ? primaryError.get() : e);
+    }
+
+    /**
+     * Запрос к экземпляру с записью задержки и запросов в полете в {@link InstanceLatencyStats}
+     * (этот запрос идет мимо балансировщика и его LoadBalancerLifecycle)
+     */
+    private <T> Mono<T> tracked(ServiceInstance instance, Function<String, Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // Отмена может прийти и после ответа: завершение засчитывается один раз
+            AtomicBoolean completed = new AtomicBoolean();
+            latencyStats.onStart(instance);
+            return attempt.apply(instance.getUri().toString())
+                    .doOnSuccess(result -> {
+                        if (completed.compareAndSet(false, true)) {
+                            long latencyNanos = System.nanoTime() - start;
+                            latencyStats.onComplete(instance, latencyNanos, false);
+                            recordLatency(latencyNanos / 1_000_000);
+                        }
+                    })
+                    .doOnError(e -> {
+                        // 4xx - ответ экземпляра, а не его неисправность
+                        if (completed.compareAndSet(false, true)) {
+                            latencyStats.onComplete(instance, System.nanoTime() - start,
+                                    !(e instanceof HttpClientErrorException));
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // Проигравший запрос отменяется: он был медленнее как минимум на столько
+                        if (completed.compareAndSet(false, true)) {
+                            latencyStats.onComplete(instance, System.nanoTime() - start, false);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 🎯 Экземпляр для дублирующего запроса: не основной, из двух случайных - с меньшей оценкой
+     */
+    private ServiceInstance chooseHedgeInstance(List<ServiceInstance> instances, ServiceInstance primary) {
+        List<ServiceInstance> others = new ArrayList<>(instances.size() - 1);
+        for (ServiceInstance instance : instances) {
+            if (!(instance.getHost().equals(primary.getHost()) && instance.getPort() == primary.getPort())) {
+                others.add(instance);
+            }
+        }
+        if (others.isEmpty()) {
+            return null;
+        }
+        if (others.size() == 1) {
+            return others.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = others.size();
+        int first = random.nextInt(size);
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+        ServiceInstance a = others.get(first);
+        ServiceInstance b = others.get(second);
+        return latencyStats.score(a) <= latencyStats.score(b) ? a : b;
+    }
+
+    private void recordLatency(long latencyMs) {
+        int sample = samples.getAndIncrement();
+        latencies[Math.floorMod(sample, latencies.length)] = latencyMs;
+
+        if (sample + 1 >= minSamples && (sample + 1) % RECOMPUTE_EVERY == 0) {
+            int count = Math.min(sample + 1, latencies.length);
+            long[] window = Arrays.copyOf(latencies, count);
+            Arrays.sort(window);
+            int index = (int) Math.min(count - 1, Math.ceil(delayPercentile / 100.0 * count) - 1);
+            hedgeDelayMs = Math.max(minDelayMs, window[Math.max(0, index)]);
+        }
+    }
+
+    private void depositBudget() {
+        budget.getAndUpdate(current -> Math.min(budgetCapacity, current + budgetDeposit));
+    }
+
+    private boolean tryAcquireBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < BUDGET_SCALE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - BUDGET_SCALE));
+        return true;
+    }
+}
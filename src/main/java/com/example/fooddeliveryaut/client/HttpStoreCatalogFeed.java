@@ -0,0 +1,26 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogSnapshotDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 📡 Каталог магазинов из PRODUCT-SERVICE
+ */
+@Component
+@RequiredArgsConstructor
+public class HttpStoreCatalogFeed implements StoreCatalogFeed {
+
+    private final ProductServiceClient productServiceClient;
+
+    @Override
+    public StoreCatalogSnapshotDto fetchSnapshot() {
+        return productServiceClient.getCatalogSnapshot();
+    }
+
+    @Override
+    public StoreCatalogChangesDto fetchChanges(long sinceVersion) {
+        return productServiceClient.getCatalogChanges(sinceVersion);
+    }
+}
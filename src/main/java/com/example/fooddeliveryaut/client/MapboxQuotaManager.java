@@ -0,0 +1,236 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🚦 Общая квота запросов к Mapbox API
+ *
+ * Корзина токенов емкостью burst пополняется со скоростью текущего лимита.
+ * Фоновые запросы не берут токены из резерва interactiveReservePercent,
+ * поэтому пакетное геокодирование не вытесняет запросы пользователей.
+ * Запрос, не получивший токен за время ожидания своего класса, не отправляется:
+ * вызывающий код отвечает из кэша или офлайн-справочника.
+ *
+ * Ответ 429 (AIMD): лимит уменьшается вдвое (не ниже minRequestsPerSecond),
+ * выдача токенов приостанавливается на Retry-After или на паузу, удваивающуюся
+ * при повторных 429. Каждый успешный ответ возвращает лимиту recoveryStep.
+ *
+ * Время и ожидание берутся из {@link NanoClock}: в тестах часы двигает сам тест.
+ */
+@Component
+@Slf4j
+public class MapboxQuotaManager {
+
+    private final MapboxConfigProperties.Quota config;
+    private final NanoClock clock;
+    private final double maxRate;
+    private final double minRate;
+    private final double capacity;
+    private final double backgroundFloor;
+
+    // Состояние корзины, защищено this
+    private double tokens;
+    private double rate;
+    private long refilledAtNanos;
+    private long pausedUntilNanos;
+    private long backoffMs;
+
+    private final Map<GeocodingPriority, Counter> grantedCounters = new EnumMap<>(GeocodingPriority.class);
+    private final Map<GeocodingPriority, Counter> shedCounters = new EnumMap<>(GeocodingPriority.class);
+    private final Counter throttledCounter;
+
+    @Autowired
+    public MapboxQuotaManager(MapboxConfigProperties mapboxConfig, MeterRegistry meterRegistry) {
+        this(mapboxConfig, meterRegistry, NanoClock.SYSTEM);
+    }
+
+    MapboxQuotaManager(MapboxConfigProperties mapboxConfig, MeterRegistry meterRegistry, NanoClock clock) {
+        this.config = mapboxConfig.getQuota();
+        this.clock = clock;
+        this.maxRate = config.getRequestsPerSecond();
+        this.minRate = Math.min(config.getMinRequestsPerSecond(), maxRate);
+        this.capacity = config.getBurst();
+        // Хотя бы один токен корзины остается доступен фоновым запросам
+        this.backgroundFloor = Math.min(capacity - 1, capacity * config.getInteractiveReservePercent() / 100.0);
+
+        this.tokens = capacity;
+        this.rate = maxRate;
+        this.refilledAtNanos = clock.nanoTime();
+        this.backoffMs = config.getBackoffInitialMs();
+
+        for (GeocodingPriority priority : GeocodingPriority.values()) {
+            grantedCounters.put(priority, requestsCounter(meterRegistry, priority, "granted"));
+            shedCounters.put(priority, requestsCounter(meterRegistry, priority, "shed"));
+        }
+        this.throttledCounter = Counter.builder("mapbox.quota.throttled")
+                .description("Ответы Mapbox 429 Too Many Requests")
+                .register(meterRegistry);
+        Gauge.builder("mapbox.quota.rate", this, MapboxQuotaManager::currentRate)
+                .description("Текущий лимит запросов к Mapbox в секунду")
+                .register(meterRegistry);
+        Gauge.builder("mapbox.quota.tokens", this, MapboxQuotaManager::availableTokens)
+                .description("Свободные токены в корзине квоты Mapbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🎟️ Получить разрешение на запрос, ожидая не дольше времени своего класса
+     *
+     * @return false - квота исчерпана, запрос отправлять нельзя
+     */
+    public boolean tryAcquire(GeocodingPriority priority) {
+        long maxWaitMs = priority == GeocodingPriority.INTERACTIVE
+                ? config.getInteractiveMaxWaitMs()
+                : config.getBackgroundMaxWaitMs();
+        double floor = priority == GeocodingPriority.INTERACTIVE ? 0 : backgroundFloor;
+        long deadline = clock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+        while (true) {
+            long waitNanos = tryTake(floor);
+            if (waitNanos == 0) {
+                grantedCounters.get(priority).increment();
+                return true;
+            }
+
+            long remaining = deadline - clock.nanoTime();
+            if (waitNanos > remaining) {
+                shedCounters.get(priority).increment();
+                return false;
+            }
+            try {
+                clock.sleepNanos(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shedCounters.get(priority).increment();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 🎟️ Взять токен только если он свободен сейчас, без ожидания
+     *
+     * Для служебных запросов (проверка токена): отказ не считается сброшенным запросом,
+     * вызывающий код просто пропускает действие до следующего раза.
+     */
+    public boolean tryAcquireNow(GeocodingPriority priority) {
+        double floor = priority == GeocodingPriority.INTERACTIVE ? 0 : backgroundFloor;
+        if (tryTake(floor) != 0) {
+            return false;
+        }
+        grantedCounters.get(priority).increment();
+        return true;
+    }
+
+    /**
+     * ✅ Успешный ответ Mapbox: лимит постепенно возвращается к requestsPerSecond
+     */
+    public synchronized void onSuccess() {
+        backoffMs = config.getBackoffInitialMs();
+        if (rate < maxRate) {
+            refill(clock.nanoTime());
+            rate = Math.min(maxRate, rate + config.getRecoveryStep());
+        }
+    }
+
+    /**
+     * 🛑 Ответ 429: снизить лимит и приостановить запросы
+     *
+     * @param retryAfter пауза из заголовка Retry-After или null
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        throttledCounter.increment();
+        long now = clock.nanoTime();
+        refill(now);
+
+        long pauseMs = retryAfter != null
+                ? Math.min(retryAfter.toMillis(), config.getBackoffMaxMs())
+                : backoffMs;
+        backoffMs = Math.min(backoffMs * 2, config.getBackoffMaxMs());
+
+        rate = Math.max(minRate, rate / 2);
+        tokens = 0;
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(pauseMs));
+
+        log.warn("🛑 Mapbox 429: лимит снижен до {} запросов/сек, пауза {} мс",
+                String.format("%.2f", rate), pauseMs);
+    }
+
+    public synchronized double currentRate() {
+        return rate;
+    }
+
+    public synchronized double availableTokens() {
+        refill(clock.nanoTime());
+        return tokens;
+    }
+
+    /**
+     * Взять токен, если после этого в корзине останется не меньше floor
+     *
+     * @return 0 - токен взят, иначе сколько ждать до следующей попытки (нс)
+     */
+    private synchronized long tryTake(double floor) {
+        long now = clock.nanoTime();
+        if (now < pausedUntilNanos) {
+            return pausedUntilNanos - now;
+        }
+
+        refill(now);
+        if (tokens - 1 >= floor) {
+            tokens -= 1;
+            return 0;
+        }
+        double missing = floor + 1 - tokens;
+        return Math.max(1, (long) (missing / rate * 1e9));
+    }
+
+    private void refill(long now) {
+        long from = Math.max(refilledAtNanos, pausedUntilNanos);
+        if (now > from) {
+            tokens = Math.min(capacity, tokens + (now - from) / 1e9 * rate);
+        }
+        refilledAtNanos = now;
+    }
+
+    /**
+     * Источник времени квоты: монотонные наносекунды и ожидание
+     */
+    interface NanoClock {
+        NanoClock SYSTEM = new NanoClock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void sleepNanos(long nanos) throws InterruptedException {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        };
+
+        long nanoTime();
+
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, GeocodingPriority priority, String result) {
+        return Counter.builder("mapbox.quota.requests")
+                .description("Запросы к Mapbox по классу и решению квоты")
+                .tag("priority", priority.getTag())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.fooddeliveryaut.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 📥 Потоковое чтение ответа Mapbox Geocoding API
+ *
+ * Из FeatureCollection берутся только text, place_name и geometry.coordinates
+ * первых maxFeatures объектов, остальные поля пропускаются без создания объектов.
+ * После нужного числа объектов чтение прекращается: остаток тела дочитывает
+ * и возвращает соединение в пул сам RestTemplate при закрытии ответа.
+ */
+@Component
+public class MapboxResponseReader {
+
+    private final JsonFactory jsonFactory;
+
+    public MapboxResponseReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 📍 Объект ответа: название, полный адрес и координаты
+     */
+    public record Feature(String text, String placeName, double longitude, double latitude) {
+    }
+
+    /**
+     * Читает до maxFeatures объектов из тела ответа
+     *
+     * @return пустой список, если в ответе нет features
+     */
+    public List<Feature> read(InputStream body, int maxFeatures) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Invalid response from Mapbox API");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("features".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    return readFeatures(parser, maxFeatures);
+                }
+                parser.skipChildren();
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    private List<Feature> readFeatures(JsonParser parser, int maxFeatures) throws IOException {
+        List<Feature> features = new ArrayList<>(Math.min(maxFeatures, 10));
+        while (features.size() < maxFeatures && parser.nextToken() == JsonToken.START_OBJECT) {
+            Feature feature = readFeature(parser);
+            if (feature != null) {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Один объект features, парсер стоит на его START_OBJECT
+     *
+     * @return null, если у объекта нет координат
+     */
+    private Feature readFeature(JsonParser parser) throws IOException {
+        String text = null;
+        String placeName = null;
+        double[] coordinates = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "text" -> text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "place_name" -> placeName = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "geometry" -> coordinates = value == JsonToken.START_OBJECT ? readCoordinates(parser) : null;
+                default -> parser.skipChildren();
+            }
+        }
+        // Mapbox возвращает [longitude, latitude]
+        return coordinates == null ? null : new Feature(text, placeName, coordinates[0], coordinates[1]);
+    }
+
+    private double[] readCoordinates(JsonParser parser) throws IOException {
+        double[] coordinates = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("coordinates".equals(field) && value == JsonToken.START_ARRAY) {
+                double[] point = new double[2];
+                int count = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (count < 2 && parser.currentToken().isNumeric()) {
+                        point[count] = parser.getDoubleValue();
+                    }
+                    count++;
+                    parser.skipChildren();
+                }
+                coordinates = count >= 2 ? point : null;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return coordinates;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+
+import java.math.BigDecimal;
+import java.net.URI;
+
+/**
+ * 🔗 Шаблоны URL запросов к Mapbox Geocoding API
+ *
+ * Постоянные части (адрес API, токен, фильтры) собираются один раз при создании,
+ * на каждый запрос - один StringBuilder нужного размера и готовый {@link URI}.
+ * Текст запроса кодируется как сегмент пути: байты UTF-8 в %XX, пробел - %20
+ * (URLEncoder дает '+', что в пути означает сам плюс). Готовый URI RestTemplate
+ * не кодирует повторно.
+ */
+public class MapboxUrlTemplate {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final String prefix;
+    private final String forwardSuffix;
+    private final String reverseSuffix;
+    private final String placesTokenParam;
+    private final String placesSuffix;
+
+    public MapboxUrlTemplate(MapboxConfigProperties mapboxConfig) {
+        MapboxConfigProperties.Geocoding geocoding = mapboxConfig.getGeocoding();
+        String token = encodeParam(mapboxConfig.getAccess().getToken());
+        String country = geocoding.getCountry() != null && !geocoding.getCountry().isEmpty()
+                ? "&country=" + encodeParam(geocoding.getCountry())
+                : "";
+
+        this.prefix = mapboxConfig.getGeocodingUrl() + "/";
+        this.forwardSuffix = ".json?access_token=" + token
+                + "&limit=" + geocoding.getLimit()
+                + "&types=" + encodeParam(geocoding.getTypes())
+                + country;
+        this.reverseSuffix = ".json?access_token=" + token + "&types=address" + country;
+        this.placesTokenParam = ".json?access_token=" + token + "&proximity=";
+        this.placesSuffix = "&types=poi" + country;
+    }
+
+    /**
+     * 📍 Прямое геокодирование адреса
+     */
+    public URI forward(String query) {
+        StringBuilder url = new StringBuilder(prefix.length() + query.length() * 3 + forwardSuffix.length());
+        url.append(prefix);
+        appendEncoded(url, query);
+        return URI.create(url.append(forwardSuffix).toString());
+    }
+
+    /**
+     * 🔄 Обратное геокодирование точки
+     */
+    public URI reverse(BigDecimal longitude, BigDecimal latitude) {
+        return URI.create(prefix + longitude.toPlainString() + "," + latitude.toPlainString() + reverseSuffix);
+    }
+
+    /**
+     * 🔍 Поиск мест рядом с точкой
+     */
+    public URI places(String query, BigDecimal longitude, BigDecimal latitude, int limit) {
+        StringBuilder url = new StringBuilder(prefix.length() + query.length() * 3
+                + placesTokenParam.length() + placesSuffix.length() + 48);
+        url.append(prefix);
+        appendEncoded(url, query);
+        url.append(placesTokenParam)
+                .append(longitude.toPlainString()).append(',').append(latitude.toPlainString())
+                .append("&limit=").append(limit)
+                .append(placesSuffix);
+        return URI.create(url.toString());
+    }
+
+    /**
+     * Кодирует строку в UTF-8 с процентным экранированием всего, кроме unreserved (RFC 3986),
+     * без промежуточного массива байтов. Одиночный суррогат заменяется на U+FFFD
+     */
+    static void appendEncoded(StringBuilder out, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                out.append(c);
+                continue;
+            }
+
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, value.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                codePoint = 0xFFFD;
+            }
+
+            if (codePoint < 0x80) {
+                appendByte(out, codePoint);
+            } else if (codePoint < 0x800) {
+                appendByte(out, 0xC0 | (codePoint >> 6));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                appendByte(out, 0xE0 | (codePoint >> 12));
+                appendByte(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
+            } else {
+                appendByte(out, 0xF0 | (codePoint >> 18));
+                appendByte(out, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(out, 0x80 | (codePoint & 0x3F));
+            }
+        }
+    }
+
+    private static String encodeParam(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        appendEncoded(out, value);
+        return out.toString();
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static void appendByte(StringBuilder out, int b) {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.ProductServiceProperties;
+import com.example.fooddeliveryaut.config.ServiceNamesProperties;
+import com.example.fooddeliveryaut.config.loadbalancer.InstanceLatencyStats;
+import com.example.fooddeliveryaut.dto.FindNearbyStoresDto;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogSnapshotDto;
+import com.example.fooddeliveryaut.dto.StoreLocationDto;
+import com.example.fooddeliveryaut.util.FutureUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * 🏪 Клиент сервиса магазинов (PRODUCT-SERVICE) через Eureka
+ *
+ * Только сетевые вызовы: при ошибке бросает исключение,
+ * fallback-логика остается на стороне вызывающего сервиса.
+ * Одинаковые одновременные запросы объединяются в один вызов.
+ *
+ * Каждый вызов проходит через bulkhead (ограничение одновременных вызовов)
+ * и circuit breaker (см. resilience4j.*.instances.productService). Если сервис
+ * недоступен, возвращается последний успешный ответ на такой же запрос.
+ *
+ * Методы *Async выполняют те же вызовы через WebClient, не занимая поток
+ * на время ожидания ответа; ошибки 4xx приводятся к HttpClientErrorException,
+ * как у RestTemplate. Чтение одного магазина и поиск ближайших дублируются
+ * на второй экземпляр при медленном ответе (см. {@link HedgedRequestExecutor}).
+ */
+@Component
+@Slf4j
+public class ProductServiceClient {
+
+    /**
+     * Имя bulkhead и circuit breaker в конфигурации resilience4j
+     */
+    public static final String RESILIENCE_INSTANCE = "productService";
+
+    private final RestTemplate restTemplate; // Должен быть @LoadBalanced
+    private final WebClient webClient;       // С фильтром балансировки
+    private final WebClient directWebClient; // Без балансировки, для запросов к конкретному экземпляру
+    private final ServiceNamesProperties serviceNames;
+    private final RequestCoalescer coalescer;
+    private final HedgedRequestExecutor hedging;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final boolean lastGoodEnabled;
+    private final Cache<ResponseKey, Object> lastGoodResponses;
+    private final Counter lastGoodFallbackCounter;
+
+    public ProductServiceClient(RestTemplate restTemplate,
+                                @Qualifier("internalWebClient") WebClient webClient,
+                                @Qualifier("directWebClient") WebClient directWebClient,
+                                DiscoveryClient discoveryClient,
+                                ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                                InstanceLatencyStats instanceLatencyStats,
+                                ServiceNamesProperties serviceNames,
+                                ProductServiceProperties productServiceProperties,
+                                BulkheadRegistry bulkheadRegistry,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.directWebClient = directWebClient;
+        this.serviceNames = serviceNames;
+
+        ProductServiceProperties.Coalescing coalescing = productServiceProperties.getCoalescing();
+        this.coalescer = new RequestCoalescer(serviceNames.getProductService(),
+                Boolean.TRUE.equals(coalescing.getEnabled()),
+                coalescing.getMaxWaiters(),
+                coalescing.getWaitTimeoutMs(),
+                meterRegistry);
+
+        this.hedging = new HedgedRequestExecutor(serviceNames.getProductService(), discoveryClient,
+                loadBalancerFactory, instanceLatencyStats,
+                productServiceProperties.getHedging(), meterRegistry);
+
+        this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+
+        ProductServiceProperties.Fallback fallback = productServiceProperties.getFallback();
+        this.lastGoodEnabled = Boolean.TRUE.equals(fallback.getLastGoodEnabled());
+        this.lastGoodResponses = Caffeine.newBuilder()
+                .maximumSize(fallback.getLastGoodMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(fallback.getLastGoodTtlSeconds()))
+                .build();
+        this.lastGoodFallbackCounter = Counter.builder("http.client.fallback.last-good")
+                .description("Ответы из последнего успешного результата вместо вызова сервиса")
+                .tag("client", serviceNames.getProductService())
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔍 Поиск ближайших магазинов
+     */
+    public List<NearbyStoreDto> findNearbyStores(FindNearbyStoresDto searchDto) {
+        String url = baseUrl() + "/api/stores/nearby";
+
+        log.debug("🔗 Вызов сервиса магазинов: {}", url);
+
+        NearbyStoreDto[] response = call("POST", url, searchDto,
+                () -> restTemplate.postForObject(url, searchDto, NearbyStoreDto[].class));
+
+        if (response == null) {
+            log.warn("⚠️ Пустой ответ от сервиса магазинов");
+            return List.of();
+        }
+
+        log.info("✅ Получено {} магазинов от сервиса {}", response.length, serviceNames.getProductService());
+        return List.of(response);
+    }
+
+    /**
+     * 📍 Локация одного магазина
+     */
+    public StoreLocationDto getStoreLocation(Long storeId) {
+        String url = baseUrl() + "/api/stores/" + storeId + "/location";
+
+        log.debug("🔗 Получение локации магазина: {}", url);
+
+        StoreLocationDto storeLocation = call("GET", url, null,
+                () -> restTemplate.getForObject(url, StoreLocationDto.class));
+
+        if (storeLocation == null) {
+            throw new RuntimeException("Пустой ответ от сервиса магазинов");
+        }
+
+        log.info("✅ Получена локация магазина {} от сервиса {}", storeId, serviceNames.getProductService());
+        return storeLocation;
+    }
+
+    /**
+     * 📦 Локации нескольких магазинов одним запросом
+     */
+    public List<StoreLocationDto> getStoreLocations(Collection<? extends Long> storeIds) {
+        String url = baseUrl() + "/api/stores/locations";
+
+        log.debug("🔗 Пакетное получение локаций {} магазинов: {}", storeIds.size(), url);
+
+        StoreLocationDto[] response = call("POST", url, storeIds,
+                () -> restTemplate.postForObject(url, storeIds, StoreLocationDto[].class));
+
+        if (response == null) {
+            throw new RuntimeException("Пустой ответ от сервиса магазинов");
+        }
+
+        log.info("✅ Получено {} локаций магазинов от сервиса {}", response.length, serviceNames.getProductService());
+        return List.of(response);
+    }
+
+    /**
+     * 📦 Полный снимок каталога магазинов для локальной реплики
+     *
+     * Фоновый вызов: без circuit breaker и bulkhead (большой ответ не должен
+     * засчитываться как медленный вызов пользовательских запросов) и без fallback.
+     */
+    public StoreCatalogSnapshotDto getCatalogSnapshot() {
+        String url = baseUrl() + "/api/stores/catalog/snapshot";
+
+        log.debug("🔗 Получение снимка каталога магазинов: {}", url);
+
+        StoreCatalogSnapshotDto snapshot = restTemplate.getForObject(url, StoreCatalogSnapshotDto.class);
+        if (snapshot == null || snapshot.getVersion() == null) {
+            throw new RuntimeException("Пустой снимок каталога от сервиса магазинов");
+        }
+        return snapshot;
+    }
+
+    /**
+     * 🔄 Изменения каталога магазинов после указанной версии (фоновый вызов, как снимок)
+     */
+    public StoreCatalogChangesDto getCatalogChanges(long sinceVersion) {
+        String url = baseUrl() + "/api/stores/catalog/changes?since=" + sinceVersion;
+
+        log.debug("🔗 Получение изменений каталога магазинов: {}", url);
+
+        StoreCatalogChangesDto changes = restTemplate.getForObject(url, StoreCatalogChangesDto.class);
+        if (changes == null || changes.getVersion() == null) {
+            throw new RuntimeException("Пустой ответ с изменениями каталога от сервиса магазинов");
+        }
+        return changes;
+    }
+
+    /**
+     * ⚡ Поиск ближайших магазинов без блокировки потока
+     */
+    public CompletableFuture<List<NearbyStoreDto>> findNearbyStoresAsync(FindNearbyStoresDto searchDto) {
+        String path = "/api/stores/nearby";
+        String url = baseUrl() + path;
+
+        log.debug("🔗 Асинхронный вызов сервиса магазинов: {}", url);
+
+        return callAsync("POST", url, searchDto, () -> hedging.execute(
+                instanceUrl -> retrieve(directWebClient.post().uri(instanceUrl + path).bodyValue(searchDto),
+                        NearbyStoreDto[].class),
+                () -> retrieve(webClient.post().uri(url).bodyValue(searchDto), NearbyStoreDto[].class)
+        ).toFuture())
+                .thenApply(response -> {
+                    if (response == null) {
+                        log.warn("⚠️ Пустой ответ от сервиса магазинов");
+                        return List.<NearbyStoreDto>of();
+                    }
+                    log.info("✅ Получено {} магазинов от сервиса {}", response.length, serviceNames.getProductService());
+                    return List.of(response);
+                });
+    }
+
+    /**
+     * ⚡ Локация одного магазина без блокировки потока
+     */
+    public CompletableFuture<StoreLocationDto> getStoreLocationAsync(Long storeId) {
+        String path = "/api/stores/" + storeId + "/location";
+        String url = baseUrl() + path;
+
+        log.debug("🔗 Асинхронное получение локации магазина: {}", url);
+
+        return callAsync("GET", url, null, () -> hedging.execute(
+                instanceUrl -> retrieve(directWebClient.get().uri(instanceUrl + path), StoreLocationDto.class),
+                () -> retrieve(webClient.get().uri(url), StoreLocationDto.class)
+        ).toFuture())
+                .thenApply(storeLocation -> {
+                    if (storeLocation == null) {
+                        throw new RuntimeException("Пустой ответ от сервиса магазинов");
+                    }
+                    log.info("✅ Получена локация магазина {} от сервиса {}", storeId, serviceNames.getProductService());
+                    return storeLocation;
+                });
+    }
+
+    /**
+     * ▶️ Вызов через coalescer → bulkhead → circuit breaker с fallback на последний успешный ответ
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T call(String method, String url, Object body, Supplier<T> request) {
+        ResponseKey key = new ResponseKey(method, url, String.valueOf(body));
+
+        try {
+            T result = coalescer.execute(method, url, body,
+                    () -> bulkhead.executeSupplier(() -> circuitBreaker.executeSupplier(request)));
+
+            if (lastGoodEnabled && result != null) {
+                lastGoodResponses.put(key, result);
+            }
+            return result;
+
+        } catch (RuntimeException e) {
+            // 4xx - ответ сервиса по существу (например, магазин не найден), а не сбой
+            Object lastGood = lastGoodEnabled && !(e instanceof HttpClientErrorException)
+                    ? lastGoodResponses.getIfPresent(key)
+                    : null;
+
+            if (lastGood == null) {
+                throw e;
+            }
+
+            lastGoodFallbackCounter.increment();
+            log.warn("⚠️ {} недоступен ({}), возвращаем последний успешный ответ на {} {}",
+                    serviceNames.getProductService(), e.getMessage(), method, url);
+            return (T) lastGood;
+        }
+    }
+
+    /**
+     * ▶️ Неблокирующий вариант {@link #call}: те же coalescer, bulkhead, circuit breaker и fallback
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> callAsync(String method, String url, Object body,
+                                               Supplier<CompletionStage<T>> request) {
+        ResponseKey key = new ResponseKey(method, url, String.valueOf(body));
+        Supplier<CompletionStage<T>> guarded = Bulkhead.decorateCompletionStage(bulkhead,
+                CircuitBreaker.decorateCompletionStage(circuitBreaker, request));
+
+        return coalescer.executeAsync(method, url, body, guarded)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        if (lastGoodEnabled && result != null) {
+                            lastGoodResponses.put(key, result);
+                        }
+                        return result;
+                    }
+
+                    Throwable cause = FutureUtil.unwrap(error);
+                    Object lastGood = lastGoodEnabled && !(cause instanceof HttpClientErrorException)
+                            ? lastGoodResponses.getIfPresent(key)
+                            : null;
+
+                    if (lastGood == null) {
+                        throw cause instanceof RuntimeException runtimeException
+                                ? runtimeException
+                                : new CompletionException(cause);
+                    }
+
+                    lastGoodFallbackCounter.increment();
+                    log.warn("⚠️ {} недоступен ({}), возвращаем последний успешный ответ на {} {}",
+                            serviceNames.getProductService(), cause.getMessage(), method, url);
+                    return (T) lastGood;
+                });
+    }
+
+    /**
+     * 📨 Выполнение запроса WebClient, 4xx - как HttpClientErrorException у RestTemplate
+     */
+    private static <T> Mono<T> retrieve(WebClient.RequestHeadersSpec<?> request, Class<T> type) {
+        return request.retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> response.createException()
+                        .map(e -> HttpClientErrorException.create(e.getStatusCode(), e.getStatusText(),
+                                e.getHeaders(), e.getResponseBodyAsByteArray(), null)))
+                .bodyToMono(type);
+    }
+
+    private String baseUrl() {
+        // 🌐 Используем Eureka для обращения к сервису магазинов
+        return "http://" + serviceNames.getProductService();
+    }
+
+    @Value
+    private static class ResponseKey {
+        String method;
+        String url;
+        String body;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.util.FutureUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 🔀 Объединение одинаковых одновременных запросов (single-flight)
+ *
+ * Первый запрос с данным ключом выполняет вызов, остальные, пришедшие
+ * пока он в полете, получают тот же результат или ту же ошибку.
+ * Число ожидающих на ключ ограничено: сверх лимита запрос сразу завершается ошибкой.
+ */
+@Slf4j
+public class RequestCoalescer {
+
+    private final String name;
+    private final boolean enabled;
+    private final int maxWaiters;
+    private final long waitTimeoutMs;
+
+    private final ConcurrentMap<RequestKey, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+
+    public RequestCoalescer(String name, boolean enabled, int maxWaiters, long waitTimeoutMs,
+                            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.maxWaiters = maxWaiters;
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        this.leaderCounter = Counter.builder("http.client.coalescing.calls")
+                .description("Вызовы, реально отправленные в сервис")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("http.client.coalescing.coalesced")
+                .description("Запросы, получившие результат чужого вызова")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("http.client.coalescing.rejected")
+                .description("Запросы, отклоненные из-за лимита ожидающих")
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("http.client.coalescing.in-flight", inFlight, ConcurrentMap::size)
+                .description("Уникальные запросы в полете")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * ▶️ Выполнить вызов или присоединиться к такому же, уже выполняющемуся
+     *
+     * @param method HTTP метод
+     * @param url URL запроса
+     * @param body тело запроса (сравнивается через equals), null для GET
+     * @param call сам вызов
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, String url, Object body, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+
+        RequestKey key = new RequestKey(method, url, body);
+        InFlight created = new InFlight();
+        InFlight existing = inFlight.putIfAbsent(key, created);
+
+        if (existing == null) {
+            leaderCounter.increment();
+            try {
+                T result = call.get();
+                created.future.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                created.future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, created);
+            }
+        }
+
+        if (existing.waiters.incrementAndGet() > maxWaiters) {
+            existing.waiters.decrementAndGet();
+            rejectedCounter.increment();
+            throw new RuntimeException("Слишком много ожидающих запросов к " + name + ": " + method + " " + url);
+        }
+
+        coalescedCounter.increment();
+        log.debug("🔀 Запрос {} {} присоединен к уже выполняющемуся", method, url);
+
+        try {
+            return (T) existing.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Истекло ожидание ответа " + name + ": " + method + " " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ожидание ответа " + name + " прервано", e);
+        } finally {
+            existing.waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * ⚡ Неблокирующий вариант {@link #execute}: ожидающие получают future
+     * общего вызова, поток при этом не занят
+     *
+     * @param call сам вызов, возвращающий CompletionStage
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String method, String url, Object body,
+                                                 Supplier<? extends CompletionStage<T>> call) {
+        if (!enabled) {
+            return call.get().toCompletableFuture();
+        }
+
+        RequestKey key = new RequestKey(method, url, body);
+        InFlight created = new InFlight();
+        InFlight existing = inFlight.putIfAbsent(key, created);
+
+        if (existing == null) {
+            leaderCounter.increment();
+            CompletionStage<T> stage;
+            try {
+                stage = call.get();
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(key, created);
+                created.future.completeExceptionally(e);
+                throw e;
+            }
+
+            stage.whenComplete((result, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.future.completeExceptionally(FutureUtil.unwrap(error));
+                } else {
+                    created.future.complete(result);
+                }
+            });
+            // Копия: отмена у одного вызывающего не должна влиять на остальных
+            return (CompletableFuture<T>) created.future.copy();
+        }
+
+        if (existing.waiters.incrementAndGet() > maxWaiters) {
+            existing.waiters.decrementAndGet();
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Слишком много ожидающих запросов к " + name + ": " + method + " " + url));
+        }
+
+        coalescedCounter.increment();
+        log.debug("🔀 Запрос {} {} присоединен к уже выполняющемуся", method, url);
+
+        return existing.future.copy()
+                .orTimeout(waitTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    existing.waiters.decrementAndGet();
+                    if (error == null) {
+                        return (T) result;
+                    }
+                    Throwable cause = FutureUtil.unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        throw new RuntimeException("Истекло ожидание ответа " + name + ": " + method + " " + url, cause);
+                    }
+                    throw cause instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new CompletionException(cause);
+                });
+    }
+
+    @Value
+    private static class RequestKey {
+        String method;
+        String url;
+        Object body;
+    }
+
+    private static class InFlight {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
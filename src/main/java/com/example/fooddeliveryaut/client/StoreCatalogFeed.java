@@ -0,0 +1,20 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogSnapshotDto;
+
+/**
+ * 📡 Источник каталога магазинов для локальной реплики
+ */
+public interface StoreCatalogFeed {
+
+    /**
+     * 📦 Полный снимок каталога
+     */
+    StoreCatalogSnapshotDto fetchSnapshot();
+
+    /**
+     * 🔄 Изменения после указанной версии
+     */
+    StoreCatalogChangesDto fetchChanges(long sinceVersion);
+}
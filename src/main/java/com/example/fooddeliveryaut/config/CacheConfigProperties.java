@@ -0,0 +1,238 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🗄️ Конфигурация локальных кэшей
+ * Читает настройки из application.properties с префиксом app.cache
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheConfigProperties {
+
+    /**
+     * 🏪 Кэш локаций магазинов
+     */
+    private StoreLocation storeLocation = new StoreLocation();
+
+    /**
+     * 🔍 Кэш результатов поиска ближайших магазинов по ячейкам сетки
+     */
+    private NearbyStores nearbyStores = new NearbyStores();
+
+    /**
+     * 🗺️ Кэш прямого геокодирования (память + таблица geocode_cache)
+     */
+    private Geocode geocode = new Geocode();
+
+    /**
+     * 🔄 Кэш обратного геокодирования по квантованным координатам
+     */
+    private ReverseGeocode reverseGeocode = new ReverseGeocode();
+
+    /**
+     * 🍕 Кэш поиска мест (POI) по запросу и ячейке местоположения
+     */
+    private PlaceSearch placeSearch = new PlaceSearch();
+
+    /**
+     * 📌 Кэш сохраненной геолокации пользователя для автодополнения адреса
+     */
+    private UserOrigin userOrigin = new UserOrigin();
+
+    /**
+     * 💽 Файлы (mmap) под кэшами геокодирования: кэш остается теплым после перезапуска
+     */
+    private GeocodeFile geocodeFile = new GeocodeFile();
+
+    @Data
+    public static class StoreLocation {
+        /**
+         * Максимальное количество магазинов в кэше
+         */
+        private Integer maxSize = 10000;
+
+        /**
+         * Время жизни записи (сек)
+         */
+        private Integer ttlSeconds = 3600;
+
+        /**
+         * Через сколько секунд запись обновляется в фоне при следующем обращении
+         * (должно быть меньше ttlSeconds, чтобы обновление успело до истечения)
+         */
+        private Integer refreshAheadSeconds = 2700;
+    }
+
+    @Data
+    public static class NearbyStores {
+        /**
+         * Включен ли кэш
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Размер ячейки сетки (км): пользователи в одной ячейке делят один ответ
+         */
+        private Double cellSizeKm = 1.0;
+
+        /**
+         * Время жизни записи (сек)
+         */
+        private Integer ttlSeconds = 300;
+
+        /**
+         * Через сколько секунд запись считается устаревшей: она еще отдается,
+         * но в фоне запрашивается свежий ответ (stale-while-revalidate)
+         */
+        private Integer staleAfterSeconds = 120;
+
+        /**
+         * Максимальный суммарный размер записей (байт, оценка)
+         */
+        private Long maxBytes = 64L * 1024 * 1024;
+    }
+
+    @Data
+    public static class Geocode {
+        /**
+         * Включен ли кэш
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Максимальное количество адресов в памяти
+         */
+        private Integer maxSize = 20000;
+
+        /**
+         * Время жизни найденных координат (сек)
+         */
+        private Integer ttlSeconds = 30 * 24 * 3600;
+
+        /**
+         * Время жизни отрицательного результата "адрес не найден" (сек)
+         */
+        private Integer negativeTtlSeconds = 24 * 3600;
+
+        /**
+         * Интервал удаления истекших записей из таблицы (сек)
+         */
+        private Integer purgeIntervalSeconds = 3600;
+    }
+
+    @Data
+    public static class ReverseGeocode {
+        /**
+         * Включен ли кэш
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Размер ячейки (м): точки в одной ячейке получают один адрес
+         */
+        private Integer cellSizeMeters = 15;
+
+        /**
+         * Искать адрес в соседних ячейках, если своя пуста
+         */
+        private Boolean neighborLookup = true;
+
+        /**
+         * Максимальное количество ячеек в кэше
+         */
+        private Integer maxSize = 50000;
+
+        /**
+         * Время жизни записи (сек)
+         */
+        private Integer ttlSeconds = 7 * 24 * 3600;
+    }
+
+    @Data
+    public static class PlaceSearch {
+        /**
+         * Включен ли кэш
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Размер ячейки (м): запросы из одной ячейки получают один ответ Mapbox
+         */
+        private Integer cellSizeMeters = 500;
+
+        /**
+         * Сколько мест запрашивать у Mapbox за раз (не больше 10): страницы берутся из этого списка
+         */
+        private Integer resultDepth = 10;
+
+        /**
+         * Максимальное количество пар "запрос + ячейка" в кэше
+         */
+        private Integer maxSize = 10000;
+
+        /**
+         * Время жизни записи (сек)
+         */
+        private Integer ttlSeconds = 3600;
+    }
+
+    @Data
+    public static class UserOrigin {
+        /**
+         * Включен ли кэш (без него геолокация читается из базы на каждый запрос)
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Максимальное количество пользователей в кэше
+         */
+        private Integer maxSize = 50000;
+
+        /**
+         * Время жизни записи с координатами (сек)
+         */
+        private Integer ttlSeconds = 1800;
+
+        /**
+         * Время жизни записи "координат нет" (сек): их может дописать фоновое геокодирование
+         */
+        private Integer negativeTtlSeconds = 60;
+    }
+
+    @Data
+    public static class GeocodeFile {
+        /**
+         * Включено ли хранение в файлах
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Каталог файлов кэша
+         */
+        private String directory = "data/geocode-cache";
+
+        /**
+         * Максимальное количество ключей в одном файле
+         */
+        private Integer maxEntries = 100000;
+
+        /**
+         * Размер области записей одного файла (байт)
+         */
+        private Integer maxBytes = 32 * 1024 * 1024;
+
+        /**
+         * Интервал проверки, нужно ли уплотнение (сек)
+         */
+        private Integer compactIntervalSeconds = 600;
+
+        /**
+         * Уплотнять, когда перезаписанные записи занимают больше (% области записей)
+         */
+        private Integer compactGarbagePercent = 30;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🧭 Настройки пакетного геокодирования пользователей без координат
+ * Читает настройки из application.properties с префиксом app.geocoding-backfill
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.geocoding-backfill")
+public class GeocodingBackfillProperties {
+
+    /**
+     * Пользователей в одной порции (страница по id и одна пакетная запись в БД)
+     */
+    private Integer chunkSize = 500;
+
+    /**
+     * Параллельных запросов геокодирования
+     */
+    private Integer workers = 4;
+
+    /**
+     * Максимум запросов геокодирования в секунду (квота Mapbox)
+     */
+    private Integer requestsPerSecond = 10;
+
+    /**
+     * Пауза перед повтором, если Mapbox недоступен или часть адресов порции не была
+     * проверена (квота, 429, ошибка сети) (сек)
+     */
+    private Integer retryDelaySeconds = 30;
+
+    /**
+     * Сколько ждать без продвижения, прежде чем остановить запуск со статусом STOPPED (сек)
+     */
+    private Integer outageMaxWaitSeconds = 600;
+
+    /**
+     * Продолжить прерванный запуск после рестарта сервиса
+     */
+    private Boolean resumeOnStartup = true;
+}
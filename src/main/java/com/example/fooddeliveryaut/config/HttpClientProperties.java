@@ -0,0 +1,79 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🌐 Настройки HTTP клиентов для исходящих вызовов
+ * Читает настройки из application.properties с префиксом app.http
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.http")
+public class HttpClientProperties {
+
+    /**
+     * 🔗 Вызовы внутренних сервисов через Eureka (PRODUCT-SERVICE и т.д.)
+     */
+    private Internal internal = new Internal();
+
+    /**
+     * 🗺️ Вызовы Mapbox API (тайм-ауты - в mapbox.geocoding.*)
+     */
+    private Mapbox mapbox = new Mapbox();
+
+    @Data
+    public static class Internal {
+        /**
+         * Тайм-аут установки соединения (мс)
+         */
+        private Integer connectTimeoutMs = 1000;
+
+        /**
+         * Тайм-аут ожидания ответа (мс)
+         */
+        private Integer readTimeoutMs = 3000;
+
+        /**
+         * Пул соединений
+         */
+        private Pool pool = new Pool();
+    }
+
+    @Data
+    public static class Mapbox {
+        /**
+         * Пул соединений
+         */
+        private Pool pool = new Pool();
+    }
+
+    @Data
+    public static class Pool {
+        /**
+         * Максимум соединений в пуле
+         */
+        private Integer maxConnections = 100;
+
+        /**
+         * Максимум соединений к одному хосту
+         */
+        private Integer maxConnectionsPerRoute = 20;
+
+        /**
+         * Сколько ждать свободное соединение из пула (мс)
+         */
+        private Integer connectionRequestTimeoutMs = 500;
+
+        /**
+         * Сколько держать keep-alive соединение, если сервер не указал (сек)
+         */
+        private Integer keepAliveSeconds = 30;
+
+        /**
+         * Через сколько секунд простоя соединение закрывается
+         */
+        private Integer idleTimeoutSeconds = 60;
+    }
+}
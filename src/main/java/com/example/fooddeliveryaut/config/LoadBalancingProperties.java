@@ -0,0 +1,36 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ⚖️ Настройки клиентской балансировки между экземплярами сервисов
+ * Читает настройки из application.properties с префиксом app.load-balancing
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.load-balancing")
+public class LoadBalancingProperties {
+
+    /**
+     * Выбор экземпляра по задержке и числу запросов в полете (power of two choices)
+     * вместо round-robin
+     */
+    private Boolean latencyAware = true;
+
+    /**
+     * Время затухания EWMA задержки (сек): за это время старые измерения теряют ~63% веса
+     */
+    private Integer decaySeconds = 10;
+
+    /**
+     * Задержка, засчитываемая экземпляру при ошибке соединения или ответе 5xx (мс)
+     */
+    private Integer failurePenaltyMs = 3000;
+
+    /**
+     * Через сколько минут без запросов статистика экземпляра удаляется
+     */
+    private Integer statsIdleMinutes = 10;
+}
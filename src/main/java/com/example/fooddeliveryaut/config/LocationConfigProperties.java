@@ -40,10 +40,20 @@ public class LocationConfigProperties {
      */
     private Delivery delivery = new Delivery();
 
+    /**
+     * 📖 Офлайн-справочник населенных пунктов
+     */
+    private Gazetteer gazetteer = new Gazetteer();
+
+    /**
+     * ⌨️ Автодополнение адреса
+     */
+    private Autocomplete autocomplete = new Autocomplete();
+
     @Data
     public static class Fallback {
         /**
-         * Широта по умолчанию (центр Европы)
+         * Широта, если адрес не найден ни в Mapbox, ни в справочнике (центр Европы)
          */
         private BigDecimal latitude = new BigDecimal("50.0000");
 
@@ -53,6 +63,57 @@ public class LocationConfigProperties {
         private BigDecimal longitude = new BigDecimal("20.0000");
     }
 
+    @Data
+    public static class Gazetteer {
+        /**
+         * Файл справочника (TSV): населенные пункты, страны, почтовые индексы
+         */
+        private String resource = "classpath:gazetteer/places.tsv";
+    }
+
+    @Data
+    public static class Autocomplete {
+        /**
+         * Минимальная длина введенного текста (после нормализации)
+         */
+        private Integer minPrefixLength = 2;
+
+        /**
+         * Подсказок по умолчанию
+         */
+        private Integer defaultLimit = 10;
+
+        /**
+         * Максимум подсказок в ответе
+         */
+        private Integer maxLimit = 20;
+
+        /**
+         * Лучших по частоте записей в узле индекса: из них выбираются ближайшие
+         */
+        private Integer candidatesPerNode = 50;
+
+        /**
+         * Интервал пересборки индекса из справочника и адресов пользователей (сек)
+         */
+        private Integer rebuildIntervalSeconds = 600;
+
+        /**
+         * Адрес попадает в подсказки, если он есть хотя бы у стольких пользователей
+         */
+        private Integer minUsersPerAddress = 2;
+
+        /**
+         * Максимум адресов пользователей в индексе (самые частые)
+         */
+        private Integer maxAddresses = 100000;
+
+        /**
+         * Расстояние, на котором близость весит как рост частоты в e раз (км)
+         */
+        private Integer proximityScaleKm = 10;
+    }
+
     @Data
     public static class Delivery {
         /**
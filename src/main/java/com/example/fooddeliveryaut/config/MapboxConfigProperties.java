@@ -22,6 +22,16 @@ public class MapboxConfigProperties {
      */
     private Geocoding geocoding = new Geocoding();
 
+    /**
+     * 🚦 Квота запросов к Mapbox API
+     */
+    private Quota quota = new Quota();
+
+    /**
+     * 🩺 Фоновая проверка доступности Mapbox
+     */
+    private Health health = new Health();
+
     @Data
     public static class Access {
         /**
@@ -63,6 +73,67 @@ public class MapboxConfigProperties {
         private Boolean enabled = true;
     }
 
+    @Data
+    public static class Quota {
+        /**
+         * Лимит запросов в секунду (лимит токена Mapbox)
+         */
+        private Double requestsPerSecond = 10.0;
+
+        /**
+         * Нижняя граница лимита после снижения из-за ответов 429
+         */
+        private Double minRequestsPerSecond = 1.0;
+
+        /**
+         * Емкость корзины токенов (допустимый всплеск запросов)
+         */
+        private Integer burst = 20;
+
+        /**
+         * Доля корзины (%), недоступная фоновым запросам
+         */
+        private Integer interactiveReservePercent = 30;
+
+        /**
+         * Сколько интерактивный запрос ждет токен (мс), затем - кэш или справочник
+         */
+        private Integer interactiveMaxWaitMs = 300;
+
+        /**
+         * Сколько фоновый запрос ждет токен (мс)
+         */
+        private Integer backgroundMaxWaitMs = 5000;
+
+        /**
+         * Пауза после первого ответа 429 без Retry-After (мс), удваивается при повторах
+         */
+        private Integer backoffInitialMs = 1000;
+
+        /**
+         * Максимальная пауза после ответов 429 (мс)
+         */
+        private Integer backoffMaxMs = 60000;
+
+        /**
+         * Прирост лимита (запросов/сек) за каждый успешный ответ после снижения
+         */
+        private Double recoveryStep = 0.05;
+    }
+
+    @Data
+    public static class Health {
+        /**
+         * Интервал проверки токена, пока Mapbox доступен (сек)
+         */
+        private Integer checkIntervalSeconds = 300;
+
+        /**
+         * Интервал повторной проверки, пока Mapbox недоступен (сек)
+         */
+        private Integer retryIntervalSeconds = 30;
+    }
+
     // === UTILITY МЕТОДЫ ===
 
     /**
@@ -0,0 +1,115 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 🏪 Настройки клиента сервиса магазинов (PRODUCT-SERVICE)
+ * Читает настройки из application.properties с префиксом app.product-service
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.product-service")
+public class ProductServiceProperties {
+
+    /**
+     * 🔀 Объединение одинаковых одновременных запросов
+     */
+    private Coalescing coalescing = new Coalescing();
+
+    /**
+     * 🛟 Поведение при недоступности сервиса
+     */
+    private Fallback fallback = new Fallback();
+
+    /**
+     * 🏁 Дублирующие запросы к другому экземпляру при медленном ответе
+     */
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Coalescing {
+        /**
+         * Включено ли объединение запросов
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Максимум запросов, ожидающих один общий вызов
+         */
+        private Integer maxWaiters = 200;
+
+        /**
+         * Сколько ожидающий запрос ждет общий вызов (мс)
+         */
+        private Integer waitTimeoutMs = 10000;
+    }
+
+    @Data
+    public static class Fallback {
+        /**
+         * Возвращать последний успешный ответ на такой же запрос, если сервис недоступен
+         */
+        private Boolean lastGoodEnabled = true;
+
+        /**
+         * Максимум запомненных успешных ответов
+         */
+        private Integer lastGoodMaxEntries = 5000;
+
+        /**
+         * Сколько хранится успешный ответ (сек)
+         */
+        private Integer lastGoodTtlSeconds = 3600;
+
+        /**
+         * Возвращать тестовые магазины, если нет ни ответа, ни сохраненного результата
+         * (только для локальной разработки)
+         */
+        private Boolean mockEnabled = false;
+    }
+
+    @Data
+    public static class Hedging {
+        /**
+         * Включены ли дублирующие запросы (нужно минимум 2 экземпляра в Eureka)
+         */
+        private Boolean enabled = true;
+
+        /**
+         * Перцентиль задержки, после которого отправляется дублирующий запрос
+         */
+        private Double delayPercentile = 95.0;
+
+        /**
+         * Задержка, пока не накоплено minSamples измерений (мс)
+         */
+        private Integer initialDelayMs = 200;
+
+        /**
+         * Минимальная задержка перед дублирующим запросом (мс)
+         */
+        private Integer minDelayMs = 20;
+
+        /**
+         * Сколько последних ответов учитывается при расчете перцентиля
+         */
+        private Integer windowSize = 1000;
+
+        /**
+         * Сколько измерений нужно до перехода на перцентиль
+         */
+        private Integer minSamples = 100;
+
+        /**
+         * Максимум дублирующих запросов в процентах от всех запросов
+         */
+        private Double budgetPercent = 10.0;
+
+        /**
+         * Сколько дублирующих запросов можно отправить подряд из накопленного бюджета
+         */
+        private Integer budgetBurst = 20;
+    }
+}
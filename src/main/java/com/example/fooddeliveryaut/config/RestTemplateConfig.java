@@ -1,16 +1,37 @@
 package com.example.fooddeliveryaut.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * 🌐 Конфигурация для интеграции с микросервисами через Eureka
+ *
+ * Для каждого направления (внутренние сервисы, Mapbox) свой пул соединений
+ * Apache HttpClient с keep-alive и тайм-аутами, чтобы не устанавливать
+ * TCP/TLS соединение на каждый запрос. Метрики пулов: httpcomponents.httpclient.pool.*
  */
 @Configuration
 public class RestTemplateConfig {
 
+    // Проверка соединения из пула перед использованием, если оно простаивало дольше
+    private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(2);
+
     /**
      * 🔗 RestTemplate с поддержкой Load Balancing через Eureka
      *
@@ -18,17 +39,79 @@ public class RestTemplateConfig {
      * Например: http://PRODUCT-SERVICE/api/stores/nearby
      */
     @Bean
+    @Primary
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Qualifier("internalHttpClient") CloseableHttpClient internalHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(internalHttpClient))
+                .build();
+    }
+
+    /**
+     * 📞 RestTemplate без Load Balancing для Mapbox API
+     * Имя plainRestTemplate оставлено для других внешних вызовов
+     */
+    @Bean({"mapboxRestTemplate", "plainRestTemplate"})
+    public RestTemplate mapboxRestTemplate(RestTemplateBuilder builder,
+                                           @Qualifier("mapboxHttpClient") CloseableHttpClient mapboxHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(mapboxHttpClient))
+                .build();
+    }
+
+    /**
+     * 🏊 HTTP клиент для внутренних сервисов (закрывается вместе с контекстом)
+     */
+    @Bean
+    public CloseableHttpClient internalHttpClient(HttpClientProperties httpClientProperties,
+                                                  MeterRegistry meterRegistry) {
+        HttpClientProperties.Internal internal = httpClientProperties.getInternal();
+        return createHttpClient("internal", internal.getPool(),
+                internal.getConnectTimeoutMs(), internal.getReadTimeoutMs(), meterRegistry);
     }
 
     /**
-     * 📞 Обычный RestTemplate без Load Balancing (для внешних API)
-     * Можно использовать для вызовов к внешним сервисам (Mapbox, Google Maps, etc.)
+     * 🗺️ HTTP клиент для Mapbox (тайм-ауты из mapbox.geocoding.*)
      */
-    @Bean("plainRestTemplate")
-    public RestTemplate plainRestTemplate() {
-        return new RestTemplate();
+    @Bean
+    public CloseableHttpClient mapboxHttpClient(HttpClientProperties httpClientProperties,
+                                                MapboxConfigProperties mapboxConfig,
+                                                MeterRegistry meterRegistry) {
+        MapboxConfigProperties.Geocoding geocoding = mapboxConfig.getGeocoding();
+        return createHttpClient("mapbox", httpClientProperties.getMapbox().getPool(),
+                geocoding.getConnectionTimeout(), geocoding.getReadTimeout(), meterRegistry);
+    }
+
+    private static CloseableHttpClient createHttpClient(String name,
+                                                        HttpClientProperties.Pool pool,
+                                                        int connectTimeoutMs,
+                                                        int readTimeoutMs,
+                                                        MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(pool.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                // Используется, если сервер не прислал заголовок Keep-Alive
+                .setConnectionKeepAlive(TimeValue.ofSeconds(pool.getKeepAliveSeconds()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(pool.getIdleTimeoutSeconds()))
+                .build();
     }
-}
\ No newline at end of file
+}
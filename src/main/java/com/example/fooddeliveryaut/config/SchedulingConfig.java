@@ -0,0 +1,12 @@
+package com.example.fooddeliveryaut.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * ⏰ Фоновые задачи по расписанию (обновление реплики каталога и т.д.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,7 @@ package com.example.fooddeliveryaut.config;
 import com.example.fooddeliveryaut.config.security.JwtAccessDeniedHandler;
 import com.example.fooddeliveryaut.config.security.JwtAuthenticationEntryPoint;
 import com.example.fooddeliveryaut.config.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +29,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // ⚡ Повторный dispatch асинхронных ответов: доступ уже проверен на исходном запросе
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // 🔓 Публичные endpoints
                         .requestMatchers("/api/registration/**").permitAll()
                         .requestMatchers("/api/auth/login").permitAll()
@@ -52,6 +56,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/users/me/address").authenticated()              // PUT address
                         .requestMatchers("/api/users/me/nearby-stores").authenticated()        // GET/POST stores
                         .requestMatchers("/api/users/me/distance-to-store/**").authenticated() // Distance calc
+                        .requestMatchers("/api/users/me/distance-to-stores").authenticated()   // Batch distance calc
 
                         // 📊 Статистика геолокации - только для админов
                         .requestMatchers("/api/users/location-stats").hasRole("ADMIN")
@@ -0,0 +1,40 @@
+package com.example.fooddeliveryaut.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 📚 Настройки локальной реплики каталога магазинов
+ * Читает настройки из application.properties с префиксом app.store-catalog
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.store-catalog")
+public class StoreCatalogProperties {
+
+    /**
+     * Включена ли реплика (поиск ближайших магазинов без вызова PRODUCT-SERVICE)
+     */
+    private Boolean enabled = false;
+
+    /**
+     * Интервал загрузки изменений (сек)
+     */
+    private Integer syncIntervalSeconds = 30;
+
+    /**
+     * Если реплика не обновлялась дольше (сек), поиск снова идет в PRODUCT-SERVICE
+     */
+    private Integer maxStalenessSeconds = 300;
+
+    /**
+     * Размер ячейки пространственного индекса (км)
+     */
+    private Double cellSizeKm = 2.0;
+
+    /**
+     * Радиус первого кольца адаптивного поиска (км), дальше радиус удваивается
+     */
+    private Double initialRingKm = 1.0;
+}
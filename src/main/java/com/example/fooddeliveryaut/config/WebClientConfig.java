@@ -0,0 +1,86 @@
+package com.example.fooddeliveryaut.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * ⚡ Неблокирующий HTTP клиент для вызовов микросервисов через Eureka
+ *
+ * Поток запроса не занят, пока ждем ответ: ответ обрабатывается на event loop
+ * Reactor Netty. Тайм-ауты и размер пула - те же app.http.internal.*, что и у RestTemplate.
+ */
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * 🏊 Пул соединений Reactor Netty (закрывается вместе с контекстом)
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider internalConnectionProvider(HttpClientProperties httpClientProperties) {
+        HttpClientProperties.Pool pool = httpClientProperties.getInternal().getPool();
+        Duration idleTimeout = Duration.ofSeconds(pool.getIdleTimeoutSeconds());
+
+        return ConnectionProvider.builder("internal")
+                // Лимит Reactor Netty задается на один адрес, как maxConnectionsPerRoute у HttpClient 5
+                .maxConnections(pool.getMaxConnectionsPerRoute())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getConnectionRequestTimeoutMs()))
+                .maxIdleTime(idleTimeout)
+                .evictInBackground(idleTimeout)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * 🔌 Коннектор Reactor Netty с тайм-аутами app.http.internal.*
+     */
+    @Bean
+    public ReactorClientHttpConnector internalHttpConnector(
+            @Qualifier("internalConnectionProvider") ConnectionProvider connectionProvider,
+            HttpClientProperties httpClientProperties) {
+        HttpClientProperties.Internal internal = httpClientProperties.getInternal();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, internal.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(internal.getReadTimeoutMs()));
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * 🔗 WebClient с балансировкой через Eureka
+     *
+     * Фильтр балансировки добавляется явно, чтобы builder оставался стандартным
+     * (кодеки и метрики http.client.requests от Spring Boot)
+     * Например: http://PRODUCT-SERVICE/api/stores/nearby
+     */
+    @Bean
+    public WebClient internalWebClient(WebClient.Builder builder,
+                                       LoadBalancedExchangeFilterFunction loadBalancerFunction,
+                                       @Qualifier("internalHttpConnector") ReactorClientHttpConnector connector) {
+        return builder
+                .clientConnector(connector)
+                .filter(loadBalancerFunction)
+                .build();
+    }
+
+    /**
+     * 🎯 WebClient без балансировки для запросов к конкретному экземпляру
+     * (экземпляр выбирается вызывающим кодом, например для дублирующих запросов)
+     */
+    @Bean
+    public WebClient directWebClient(WebClient.Builder builder,
+                                     @Qualifier("internalHttpConnector") ReactorClientHttpConnector connector) {
+        return builder
+                .clientConnector(connector)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fooddeliveryaut.config.loadbalancer;
+
+import com.example.fooddeliveryaut.config.LoadBalancingProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 📈 Статистика экземпляров сервисов для балансировки
+ *
+ * Для каждого экземпляра хранится EWMA задержки с затуханием по времени
+ * и число запросов в полете. Общая для всех клиентов балансировки
+ * (контекст приложения - родительский для их контекстов).
+ */
+@Component
+public class InstanceLatencyStats {
+
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final Cache<String, Stats> stats;
+
+    public InstanceLatencyStats(LoadBalancingProperties properties) {
+        this.decayNanos = Duration.ofSeconds(properties.getDecaySeconds()).toNanos();
+        this.failurePenaltyNanos = Duration.ofMillis(properties.getFailurePenaltyMs()).toNanos();
+        // Экземпляры, пропавшие из Eureka, со временем удаляются
+        this.stats = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(properties.getStatsIdleMinutes()))
+                .build();
+    }
+
+    /**
+     * ⚖️ Оценка нагрузки экземпляра: чем меньше, тем лучше
+     *
+     * У экземпляра без измерений задержка считается равной медиане измеренных
+     * экземпляров того же сервиса: новый экземпляр получает свою долю трафика,
+     * но не весь трафик сразу, пока не придут первые ответы.
+     */
+    public double score(ServiceInstance instance) {
+        long now = System.nanoTime();
+        Stats instanceStats = stats.getIfPresent(key(instance));
+        int inFlight = instanceStats != null ? instanceStats.inFlight.get() : 0;
+        double ewmaNanos = instanceStats != null && instanceStats.isInitialized()
+                ? instanceStats.decayedEwmaNanos(now)
+                : medianEwmaNanos(instance.getServiceId(), now);
+        return (ewmaNanos + 1.0) * (inFlight + 1);
+    }
+
+    public void onStart(ServiceInstance instance) {
+        stats(instance).inFlight.incrementAndGet();
+    }
+
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        Stats instanceStats = stats(instance);
+        instanceStats.inFlight.decrementAndGet();
+        instanceStats.observe(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, System.nanoTime());
+    }
+
+    private double medianEwmaNanos(String serviceId, long now) {
+        String prefix = serviceId + "/";
+        List<Double> ewmas = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : stats.asMap().entrySet()) {
+            if (entry.getKey().startsWith(prefix) && entry.getValue().isInitialized()) {
+                ewmas.add(entry.getValue().decayedEwmaNanos(now));
+            }
+        }
+        if (ewmas.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(ewmas);
+        return ewmas.get(ewmas.size() / 2);
+    }
+
+    private Stats stats(ServiceInstance instance) {
+        return stats.get(key(instance), k -> new Stats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private double ewmaNanos;
+        private long lastUpdateNanos;
+        private boolean initialized;
+
+        void observe(long latencyNanos, long now) {
+            lock.lock();
+            try {
+                if (!initialized) {
+                    ewmaNanos = latencyNanos;
+                    initialized = true;
+                } else {
+                    double weight = Math.exp(-(now - lastUpdateNanos) / decayNanos);
+                    ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+                }
+                lastUpdateNanos = now;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isInitialized() {
+            lock.lock();
+            try {
+                return initialized;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * EWMA, затухающая без новых измерений: экземпляр, который давно
+         * не выбирали из-за плохой задержки, со временем получает пробные запросы
+         */
+        double decayedEwmaNanos(long now) {
+            lock.lock();
+            try {
+                if (!initialized) {
+                    return 0;
+                }
+                return ewmaNanos * Math.exp(-(now - lastUpdateNanos) / decayNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
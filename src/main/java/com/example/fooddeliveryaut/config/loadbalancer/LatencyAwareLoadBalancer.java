@@ -0,0 +1,75 @@
+package com.example.fooddeliveryaut.config.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ⚖️ Балансировщик "power of two choices" по задержке и нагрузке
+ *
+ * Из списка экземпляров случайно берутся два, запрос уходит на тот,
+ * у которого меньше EWMA задержки, умноженная на число запросов в полете.
+ * Деградировавший экземпляр теряет трафик за секунды, не дожидаясь
+ * истечения аренды в Eureka; случайность не дает всем клиентам
+ * одновременно переключиться на один и тот же экземпляр.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceLatencyStats stats;
+
+    public LatencyAwareLoadBalancer(String serviceId,
+                                    ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InstanceLatencyStats stats) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.stats = stats;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = select(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("⚠️ Нет доступных экземпляров сервиса {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = instances.size();
+        int first = random.nextInt(size);
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(stats.score(a) <= stats.score(b) ? a : b);
+    }
+}
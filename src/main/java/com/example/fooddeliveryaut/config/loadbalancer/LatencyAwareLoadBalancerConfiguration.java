@@ -0,0 +1,52 @@
+package com.example.fooddeliveryaut.config.loadbalancer;
+
+import com.example.fooddeliveryaut.config.LoadBalancingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * ⚖️ Конфигурация балансировки для каждого клиента (PRODUCT-SERVICE и др.)
+ *
+ * Намеренно без @Configuration: класс подключается через
+ * {@link LoadBalancingConfig} в дочерний контекст каждого клиента
+ * и не должен попадать в основной контекст при сканировании.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier discoveryClientServiceInstanceListSupplier(
+            ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            LoadBalancingProperties loadBalancingProperties,
+            InstanceLatencyStats instanceLatencyStats) {
+        String serviceId = LoadBalancerClientFactory.getName(environment);
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider =
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+
+        if (!Boolean.TRUE.equals(loadBalancingProperties.getLatencyAware())) {
+            return new RoundRobinLoadBalancer(supplierProvider, serviceId);
+        }
+        return new LatencyAwareLoadBalancer(serviceId, supplierProvider, instanceLatencyStats);
+    }
+
+    @Bean
+    public LatencyTrackingLifecycle latencyTrackingLifecycle(InstanceLatencyStats instanceLatencyStats) {
+        return new LatencyTrackingLifecycle(instanceLatencyStats);
+    }
+}
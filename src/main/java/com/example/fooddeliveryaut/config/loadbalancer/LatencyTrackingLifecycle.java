@@ -0,0 +1,65 @@
+package com.example.fooddeliveryaut.config.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * ⏱️ Обратная связь для {@link LatencyAwareLoadBalancer}: задержка и запросы в полете
+ *
+ * Вызывается балансировкой RestTemplate и WebClient до и после каждого запроса.
+ * Ошибка соединения или ответ 5xx засчитываются как задержка не меньше штрафной.
+ */
+public class LatencyTrackingLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceLatencyStats stats;
+
+    public LatencyTrackingLifecycle(InstanceLatencyStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            stats.onStart(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+
+        long latencyNanos = 0;
+        if (completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() > 0) {
+            latencyNanos = System.nanoTime() - timedContext.getRequestStartTime();
+        }
+
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError());
+
+        stats.onComplete(lbResponse.getServer(), latencyNanos, failed);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.fooddeliveryaut.config.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * ⚖️ Балансировка по задержке для всех @LoadBalanced клиентов (RestTemplate и WebClient)
+ * Отключается app.load-balancing.latency-aware=false (тогда round-robin)
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {
+}
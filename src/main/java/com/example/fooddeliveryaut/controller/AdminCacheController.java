@@ -0,0 +1,58 @@
+package com.example.fooddeliveryaut.controller;
+
+import com.example.fooddeliveryaut.cache.NearbyStoresCache;
+import com.example.fooddeliveryaut.cache.StoreLocationCache;
+import com.example.fooddeliveryaut.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 🗄️ Управление локальными кэшами (только для админов, см. /api/admin/** в SecurityConfig)
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminCacheController {
+
+    private final StoreLocationCache storeLocationCache;
+    private final NearbyStoresCache nearbyStoresCache;
+
+    /**
+     * 🧹 Инвалидация локации магазина (вызывается при изменении адреса магазина)
+     */
+    @DeleteMapping("/store-locations/{storeId}")
+    public ResponseEntity<ApiResponse<Object>> invalidateStoreLocation(@PathVariable Long storeId) {
+        log.info("🧹 Запрос инвалидации локации магазина {}", storeId);
+
+        storeLocationCache.invalidate(storeId);
+
+        return ResponseEntity.ok(ApiResponse.success("Локация магазина " + storeId + " удалена из кэша"));
+    }
+
+    /**
+     * 🧹 Полная очистка кэша локаций магазинов
+     */
+    @DeleteMapping("/store-locations")
+    public ResponseEntity<ApiResponse<Object>> invalidateAllStoreLocations() {
+        log.info("🧹 Запрос полной очистки кэша локаций магазинов ({} записей)", storeLocationCache.size());
+
+        storeLocationCache.invalidateAll();
+
+        return ResponseEntity.ok(ApiResponse.success("Кэш локаций магазинов очищен"));
+    }
+
+    /**
+     * 🧹 Очистка кэша результатов поиска ближайших магазинов
+     */
+    @DeleteMapping("/nearby-stores")
+    public ResponseEntity<ApiResponse<Object>> invalidateNearbyStores() {
+        log.info("🧹 Запрос очистки кэша ближайших магазинов ({} ячеек)", nearbyStoresCache.size());
+
+        nearbyStoresCache.invalidateAll();
+
+        return ResponseEntity.ok(ApiResponse.success("Кэш ближайших магазинов очищен"));
+    }
+}
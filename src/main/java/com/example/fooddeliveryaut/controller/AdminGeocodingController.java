@@ -0,0 +1,61 @@
+package com.example.fooddeliveryaut.controller;
+
+import com.example.fooddeliveryaut.dto.ApiResponse;
+import com.example.fooddeliveryaut.dto.GeocodingBackfillStatusDto;
+import com.example.fooddeliveryaut.service.GeocodingBackfillService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 🧭 Пакетное геокодирование пользователей (только для админов, см. /api/admin/** в SecurityConfig)
+ */
+@RestController
+@RequestMapping("/api/admin/geocoding")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminGeocodingController {
+
+    private final GeocodingBackfillService backfillService;
+
+    /**
+     * ▶️ Запуск геокодирования пользователей без координат (продолжает с checkpoint)
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse<GeocodingBackfillStatusDto>> startBackfill(
+            @RequestParam(defaultValue = "false") boolean fromBeginning) {
+        log.info("🧭 Запрос запуска геокодирования пользователей (с начала: {})", fromBeginning);
+
+        if (!backfillService.start(fromBeginning)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Геокодирование пользователей уже выполняется"));
+        }
+
+        return ResponseEntity.accepted()
+                .body(ApiResponse.success(backfillService.getStatus(), "Геокодирование пользователей запущено"));
+    }
+
+    /**
+     * ⏹️ Остановка после текущей порции
+     */
+    @DeleteMapping("/backfill")
+    public ResponseEntity<ApiResponse<Object>> stopBackfill() {
+        log.info("🧭 Запрос остановки геокодирования пользователей");
+
+        if (!backfillService.stop()) {
+            return ResponseEntity.ok(ApiResponse.success("Геокодирование пользователей не выполняется"));
+        }
+
+        return ResponseEntity.ok(ApiResponse.success("Геокодирование пользователей остановится после текущей порции"));
+    }
+
+    /**
+     * 📊 Прогресс геокодирования
+     */
+    @GetMapping("/backfill")
+    public ResponseEntity<ApiResponse<GeocodingBackfillStatusDto>> getBackfillStatus() {
+        return ResponseEntity.ok(ApiResponse.success(backfillService.getStatus()));
+    }
+}
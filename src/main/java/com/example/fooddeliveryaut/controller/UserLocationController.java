@@ -1,17 +1,24 @@
 package com.example.fooddeliveryaut.controller;
 import com.example.fooddeliveryaut.dto.*;
+import com.example.fooddeliveryaut.service.AddressAutocompleteService;
 import com.example.fooddeliveryaut.service.UserLocationService;
+import com.example.fooddeliveryaut.util.FutureUtil;
 import com.example.fooddeliveryaut.util.JwtUtil;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -20,6 +27,7 @@ import java.util.List;
 public class UserLocationController {
 
     private final UserLocationService userLocationService;
+    private final AddressAutocompleteService addressAutocompleteService;
     private final JwtUtil jwtUtil;
 
 
@@ -106,6 +114,34 @@ public class UserLocationController {
     }
 
 
+    /**
+     * ⌨️ Подсказки адреса по мере ввода (локальный индекс, без вызова Mapbox)
+     * Ближе к точке lat/lon, а без нее - к сохраненной геолокации пользователя
+     */
+    @GetMapping("/me/address/autocomplete")
+    public ResponseEntity<ApiResponse<List<AddressSuggestionDto>>> autocompleteAddress(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            Long userId = getUserIdFromToken(authHeader);
+
+            List<AddressSuggestionDto> suggestions =
+                    addressAutocompleteService.suggest(userId, query, lat, lon, limit);
+
+            return ResponseEntity.ok(
+                    ApiResponse.success(suggestions, "Найдено подсказок: " + suggestions.size())
+            );
+
+        } catch (Exception e) {
+            log.error("❌ Ошибка автодополнения адреса: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Ошибка автодополнения адреса: " + e.getMessage()));
+        }
+    }
 
     /**
      * 🧹 Очистка геолокации пользователя
@@ -135,9 +171,10 @@ public class UserLocationController {
 
     /**
      * 🔍 Поиск ближайших магазинов к пользователю (с параметрами)
+     * Поток запроса освобождается на время вызова сервиса магазинов
      */
     @PostMapping("/me/nearby-stores")
-    public ResponseEntity<ApiResponse<List<NearbyStoreDto>>> findNearbyStores(
+    public CompletableFuture<ResponseEntity<ApiResponse<List<NearbyStoreDto>>>> findNearbyStores(
             @Valid @RequestBody FindNearbyStoresDto searchDto,
             @RequestHeader("Authorization") String authHeader) {
 
@@ -148,28 +185,28 @@ public class UserLocationController {
             log.info("🔍 Запрос поиска магазинов от пользователя {} в радиусе {} км",
                     userId, searchDto.getRadiusKm());
 
-            List<NearbyStoreDto> nearbyStores = userLocationService.findNearbyStores(userId, searchDto);
-
-            String message = String.format("Найдено %d магазинов в радиусе %d км",
-                    nearbyStores.size(), searchDto.getRadiusKm());
-
-            // 🌍 Создаем специальные метаданные для геолокационного поиска
-            ApiMetadata  metadata = ApiMetadata.nearbyStores(
-                    nearbyStores.size(),                    // количество найденных
-                    searchDto.getRadiusKm().doubleValue(),  // радиус поиска
-                    "Пользователь " + userId,              // центр поиска
-                    "distance",                            // сортировка по расстоянию
-                    buildFilterString(searchDto)           // строка фильтров
-            ).withExecutionTime(System.currentTimeMillis() - startTime);
-
-            return ResponseEntity.ok(
-                    ApiResponse.success(nearbyStores, message, metadata)
-            );
+            return userLocationService.findNearbyStoresAsync(userId, searchDto)
+                    .thenApply(nearbyStores -> {
+                        String message = String.format("Найдено %d магазинов в радиусе %d км",
+                                nearbyStores.size(), searchDto.getRadiusKm());
+
+                        // 🌍 Создаем специальные метаданные для геолокационного поиска
+                        ApiMetadata metadata = ApiMetadata.nearbyStores(
+                                nearbyStores.size(),                    // количество найденных
+                                searchDto.getRadiusKm().doubleValue(),  // радиус поиска
+                                "Пользователь " + userId,              // центр поиска
+                                "distance",                            // сортировка по расстоянию
+                                buildFilterString(searchDto)           // строка фильтров
+                        ).withExecutionTime(System.currentTimeMillis() - startTime);
+
+                        return ResponseEntity.ok(
+                                ApiResponse.success(nearbyStores, message, metadata)
+                        );
+                    })
+                    .exceptionally(e -> nearbyStoresError(FutureUtil.unwrap(e)));
 
         } catch (Exception e) {
-            log.error("❌ Ошибка поиска магазинов: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Ошибка поиска магазинов: " + e.getMessage()));
+            return CompletableFuture.completedFuture(nearbyStoresError(e));
         }
     }
 
@@ -177,9 +214,13 @@ public class UserLocationController {
      * 🔍 Упрощенный поиск ближайших магазинов (GET с query параметрами)
      */
     @GetMapping("/me/nearby-stores")
-    public ResponseEntity<ApiResponse<List<NearbyStoreDto>>> getNearbyStores(
-            @RequestParam(defaultValue = "10") Integer radiusKm,
-            @RequestParam(defaultValue = "20") Integer limit,
+    public CompletableFuture<ResponseEntity<ApiResponse<List<NearbyStoreDto>>>> getNearbyStores(
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Радиус должен быть не меньше 1 км")
+            @Max(value = 50, message = "Радиус должен быть не больше 50 км") Integer radiusKm,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "Лимит должен быть не меньше 1")
+            @Max(value = 100, message = "Лимит должен быть не больше 100") Integer limit,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) Double minRating,
             @RequestParam(defaultValue = "true") Boolean onlyOpen,
@@ -201,35 +242,36 @@ public class UserLocationController {
                     .onlyOpen(onlyOpen)
                     .build();
 
-            List<NearbyStoreDto> nearbyStores = userLocationService.findNearbyStores(userId, searchDto);
-
-            String message = String.format("Найдено %d магазинов в радиусе %d км",
-                    nearbyStores.size(), radiusKm);
-
-            // 🌍 Более простые метаданные для GET запроса
-            ApiMetadata metadata = ApiMetadata.geoSearch(
-                            nearbyStores.size(),
-                            radiusKm.doubleValue(),
-                            "Пользователь " + userId
-                    ).withExecutionTime(System.currentTimeMillis() - startTime)
-                    .withFilter(buildSimpleFilterString(category, minRating, onlyOpen));
-
-            return ResponseEntity.ok(
-                    ApiResponse.success(nearbyStores, message, metadata)
-            );
+            return userLocationService.findNearbyStoresAsync(userId, searchDto)
+                    .thenApply(nearbyStores -> {
+                        String message = String.format("Найдено %d магазинов в радиусе %d км",
+                                nearbyStores.size(), radiusKm);
+
+                        // 🌍 Более простые метаданные для GET запроса
+                        ApiMetadata metadata = ApiMetadata.geoSearch(
+                                        nearbyStores.size(),
+                                        radiusKm.doubleValue(),
+                                        "Пользователь " + userId
+                                ).withExecutionTime(System.currentTimeMillis() - startTime)
+                                .withFilter(buildSimpleFilterString(category, minRating, onlyOpen));
+
+                        return ResponseEntity.ok(
+                                ApiResponse.success(nearbyStores, message, metadata)
+                        );
+                    })
+                    .exceptionally(e -> nearbyStoresError(FutureUtil.unwrap(e)));
 
         } catch (Exception e) {
-            log.error("❌ Ошибка получения ближайших магазинов: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Ошибка получения магазинов: " + e.getMessage()));
+            return CompletableFuture.completedFuture(nearbyStoresError(e));
         }
     }
 
     /**
      * 📏 Расчет расстояния до конкретного магазина
+     * Поток запроса освобождается на время вызова сервиса магазинов
      */
     @GetMapping("/me/distance-to-store/{storeId}")
-    public ResponseEntity<ApiResponse<DistanceCalculationDto>> getDistanceToStore(
+    public CompletableFuture<ResponseEntity<ApiResponse<DistanceCalculationDto>>> getDistanceToStore(
             @PathVariable Long storeId,
             @RequestHeader("Authorization") String authHeader) {
 
@@ -239,27 +281,61 @@ public class UserLocationController {
 
             log.debug("📏 Запрос расчета расстояния от пользователя {} до магазина {}", userId, storeId);
 
-            DistanceCalculationDto distanceDto = userLocationService.calculateDistanceToStore(userId, storeId);
+            return userLocationService.calculateDistanceToStoreAsync(userId, storeId)
+                    .thenApply(distanceDto -> {
+                        String message = String.format("Расстояние до магазина '%s': %s",
+                                distanceDto.getStoreName(), distanceDto.getDistanceText());
 
-            String message = String.format("Расстояние до магазина '%s': %s",
-                    distanceDto.getStoreName(), distanceDto.getDistanceText());
+                        // 📏 Метаданные для расчета расстояния
+                        ApiMetadata metadata = ApiMetadata.withCount(1)
+                                .withExecutionTime(System.currentTimeMillis() - startTime);
 
-            // 📏 Метаданные для расчета расстояния
-            ApiMetadata  metadata = ApiMetadata.withCount(1)
+                        return ResponseEntity.ok(
+                                ApiResponse.success(distanceDto, message, metadata)
+                        );
+                    })
+                    .exceptionally(e -> distanceError(FutureUtil.unwrap(e)));
+
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(distanceError(e));
+        }
+    }
+
+
+    /**
+     * 📏 Пакетный расчет расстояний до нескольких магазинов (для списка карточек)
+     */
+    @PostMapping("/me/distance-to-stores")
+    public ResponseEntity<ApiResponse<List<DistanceCalculationDto>>> getDistancesToStores(
+            @Valid @RequestBody StoreDistanceBatchRequestDto requestDto,
+            @RequestHeader("Authorization") String authHeader) {
+
+        try {
+            Long userId = getUserIdFromToken(authHeader);
+            long startTime = System.currentTimeMillis();
+
+            log.debug("📏 Запрос пакетного расчета расстояний от пользователя {} до {} магазинов",
+                    userId, requestDto.getStoreIds().size());
+
+            List<DistanceCalculationDto> distances =
+                    userLocationService.calculateDistancesToStores(userId, requestDto.getStoreIds());
+
+            String message = String.format("Рассчитано расстояние до %d магазинов", distances.size());
+
+            ApiMetadata metadata = ApiMetadata.withCount(distances.size())
                     .withExecutionTime(System.currentTimeMillis() - startTime);
 
             return ResponseEntity.ok(
-                    ApiResponse.success(distanceDto, message, metadata)
+                    ApiResponse.success(distances, message, metadata)
             );
 
         } catch (Exception e) {
-            log.error("❌ Ошибка расчета расстояния: {}", e.getMessage());
+            log.error("❌ Ошибка пакетного расчета расстояний: {}", e.getMessage());
             return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Ошибка расчета расстояния: " + e.getMessage()));
+                    .body(ApiResponse.error("Ошибка расчета расстояний: " + e.getMessage()));
         }
     }
 
-
     /**
      * 📊 Статистика по геолокации пользователей (только для админов)
      */
@@ -357,6 +433,18 @@ public class UserLocationController {
 
 
 
+    private <T> ResponseEntity<ApiResponse<T>> nearbyStoresError(Throwable e) {
+        log.error("❌ Ошибка поиска магазинов: {}", e.getMessage());
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Ошибка поиска магазинов: " + e.getMessage()));
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> distanceError(Throwable e) {
+        log.error("❌ Ошибка расчета расстояния: {}", e.getMessage());
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Ошибка расчета расстояния: " + e.getMessage()));
+    }
+
     /**
      * 🔍 Создание строки фильтров для сложного поиска
      */
@@ -453,5 +541,19 @@ public class UserLocationController {
         return ResponseEntity.badRequest()
                 .body(ApiResponse.error("Ошибка валидации: " + errorMessage, "VALIDATION_ERROR"));
     }
-}
 
+    /**
+     * ❌ Обработчик ошибок валидации параметров запроса (@Min/@Max на @RequestParam)
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleMethodValidationException(HandlerMethodValidationException e) {
+
+        String errorMessage = e.getAllErrors()
+                .stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(java.util.stream.Collectors.joining(", "));
+
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Ошибка валидации: " + errorMessage, "VALIDATION_ERROR"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.fooddeliveryaut.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * ⌨️ DTO подсказки автодополнения адреса
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AddressSuggestionDto {
+    private String text;
+    private String type; // address, locality, country
+    private String countryCode;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private Double distanceKm;
+    private Integer userCount;
+}
@@ -25,12 +25,14 @@ public class FindNearbyStoresDto {
     private BigDecimal longitude;
 
     // 📏 Радиус поиска в километрах
+    @NotNull(message = "Радиус обязателен")
     @Min(value = 1, message = "Радиус должен быть не меньше 1 км")
     @Max(value = 50, message = "Радиус должен быть не больше 50 км")
     @Builder.Default
     private Integer radiusKm = 10;
 
     // 📊 Количество результатов
+    @NotNull(message = "Лимит обязателен")
     @Min(value = 1, message = "Лимит должен быть не меньше 1")
     @Max(value = 100, message = "Лимит должен быть не больше 100")
     @Builder.Default
@@ -47,6 +49,11 @@ public class FindNearbyStoresDto {
     @Builder.Default
     private Boolean onlyOpen = true;
 
+    // 🎯 Адаптивный радиус: поиск расширяется кольцами, пока не найдено limit магазинов
+    // (radiusKm - максимальный радиус); выбираются limit ближайших, затем сортируются по sortBy
+    @Builder.Default
+    private Boolean adaptiveRadius = false;
+
     // 🎯 Сортировка
     @Builder.Default
     private String sortBy = "distance"; // distance, rating, delivery_time
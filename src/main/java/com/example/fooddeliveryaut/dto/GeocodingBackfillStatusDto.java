@@ -0,0 +1,30 @@
+package com.example.fooddeliveryaut.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 🧭 DTO состояния пакетного геокодирования пользователей
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocodingBackfillStatusDto {
+    private Boolean running;
+    private String status;
+    private Long lastUserId;
+    private Long processedUsers;
+    private Long updatedUsers;
+    private Long unresolvedUsers;
+    private Long geocodedAddresses;
+    private Long usersWithoutLocation;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+    private String lastError;
+}
@@ -9,7 +9,7 @@ import java.math.BigDecimal;
 
 /// 🏪 DTO для результата поиска магазинов с расстоянием
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class NearbyStoreDto {
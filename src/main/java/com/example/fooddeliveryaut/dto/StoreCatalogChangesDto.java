@@ -0,0 +1,23 @@
+package com.example.fooddeliveryaut.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 🔄 Изменения каталога магазинов после указанной версии
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreCatalogChangesDto {
+    private Long version;                  // Версия каталога после применения изменений
+    private List<NearbyStoreDto> updated;  // Новые и измененные магазины (итоговое состояние)
+    private List<Long> removedStoreIds;    // Удаленные магазины (не пересекаются с updated)
+
+    // Изменения с запрошенной версии уже недоступны - нужен новый снимок
+    @Builder.Default
+    private Boolean snapshotRequired = false;
+}
@@ -0,0 +1,18 @@
+package com.example.fooddeliveryaut.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 📦 Полный снимок каталога магазинов (для локальной реплики)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreCatalogSnapshotDto {
+    private Long version;             // Версия каталога, с которой продолжаются изменения
+    private List<NearbyStoreDto> stores;
+}
@@ -0,0 +1,23 @@
+package com.example.fooddeliveryaut.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 📏 DTO для пакетного расчета расстояний до магазинов
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoreDistanceBatchRequestDto {
+
+    @NotEmpty(message = "Список магазинов не должен быть пустым")
+    @Size(max = 100, message = "Не больше 100 магазинов за один запрос")
+    private List<@NotNull(message = "ID магазина не может быть пустым") Long> storeIds;
+}
@@ -0,0 +1,29 @@
+package com.example.fooddeliveryaut.enums;
+
+import lombok.Getter;
+
+/**
+ * 🚦 Класс запроса к Mapbox для распределения квоты
+ */
+@Getter
+public enum GeocodingPriority {
+
+    /**
+     * Запрос пользователя: ждет ответа, имеет приоритет
+     */
+    INTERACTIVE("interactive"),
+
+    /**
+     * Фоновая задача (пакетное геокодирование): не расходует резерв интерактивных запросов
+     */
+    BACKGROUND("background");
+
+    /**
+     * 🏷️ Значение тега в метриках
+     */
+    private final String tag;
+
+    GeocodingPriority(String tag) {
+        this.tag = tag;
+    }
+}
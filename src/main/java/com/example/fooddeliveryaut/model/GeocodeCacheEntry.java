@@ -0,0 +1,44 @@
+package com.example.fooddeliveryaut.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 🗺️ Сохраненный результат прямого геокодирования Mapbox
+ * (ключ - нормализованный адрес, координаты null - адрес не найден)
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(name = "geocode_cache", indexes = @Index(name = "idx_geocode_cache_expires_at", columnList = "expires_at"))
+public class GeocodeCacheEntry {
+
+    @Id
+    @Column(name = "address_key", length = 500)
+    private String addressKey;
+
+    @Column(name = "latitude", precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 11, scale = 8)
+    private BigDecimal longitude;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Был ли адрес найден (иначе запись - отрицательный результат)
+     */
+    public boolean isFound() {
+        return latitude != null && longitude != null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.fooddeliveryaut.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 🧭 Прогресс пакетного геокодирования пользователей
+ * (последний обработанный id: прерванный запуск продолжается с него)
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+@Table(name = "geocoding_backfill_checkpoint")
+public class GeocodingBackfillCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "processed_users", nullable = false)
+    private Long processedUsers;
+
+    @Column(name = "updated_users", nullable = false)
+    private Long updatedUsers;
+
+    @Column(name = "unresolved_users", nullable = false)
+    private Long unresolvedUsers;
+
+    @Column(name = "geocoded_addresses", nullable = false)
+    private Long geocodedAddresses;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum Status {
+        RUNNING,
+        STOPPED,
+        FAILED,
+        COMPLETED
+    }
+}
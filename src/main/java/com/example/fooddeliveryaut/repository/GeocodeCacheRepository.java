@@ -0,0 +1,21 @@
+package com.example.fooddeliveryaut.repository;
+
+import com.example.fooddeliveryaut.model.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+
+    // 🧹 Удаление истекших записей одним запросом
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM GeocodeCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package com.example.fooddeliveryaut.repository;
+
+import com.example.fooddeliveryaut.model.GeocodingBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeocodingBackfillCheckpointRepository extends JpaRepository<GeocodingBackfillCheckpoint, String> {
+}
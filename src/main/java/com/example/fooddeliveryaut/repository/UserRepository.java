@@ -141,7 +141,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Поиск пользователей в определенном радиусе от точки
      * Использует формулу Haversine для расчета расстояния
+     *
+     * @deprecated PostgreSQL не разрешает алиас distance в HAVING,
+     * используйте {@link com.example.fooddeliveryaut.service.UserLocationService#findUsersWithinRadius(BigDecimal, BigDecimal, double)}
      */
+    @Deprecated
     @Query(value = """
         SELECT u.*, 
                (6371 * acos(cos(radians(:latitude)) * cos(radians(u.latitude)) * 
@@ -171,10 +175,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * 📊 Поиск пользователей без геолокации
+     *
+     * @deprecated загружает всех пользователей одним списком,
+     * для обхода используйте {@link #findUsersWithAddressWithoutLocationAfter(Long, Pageable)}
      */
+    @Deprecated
     @Query("SELECT u FROM User u WHERE u.latitude IS NULL OR u.longitude IS NULL")
     List<User> findUsersWithoutLocation();
 
+    /**
+     * 🧭 Следующая порция пользователей с адресом, но без координат (keyset-пагинация по id)
+     * Страница задается только размером: смещение не используется, порция начинается после afterId
+     */
+    @Query("""
+        SELECT u FROM User u
+        WHERE u.id > :afterId
+          AND (u.latitude IS NULL OR u.longitude IS NULL)
+          AND (u.fullAddress IS NOT NULL OR u.street IS NOT NULL OR u.city IS NOT NULL)
+        ORDER BY u.id
+        """)
+    List<User> findUsersWithAddressWithoutLocationAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * 📊 Поиск пользователей с устаревшей геолокацией
      */
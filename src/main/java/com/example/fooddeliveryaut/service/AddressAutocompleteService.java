@@ -0,0 +1,402 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.cache.UserOriginCache;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.dto.AddressSuggestionDto;
+import com.example.fooddeliveryaut.util.AddressNormalizer;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.RadixTrie;
+import com.example.fooddeliveryaut.util.TopK;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⌨️ Автодополнение адреса по локальному префиксному индексу
+ *
+ * Индекс ({@link RadixTrie}) собирается в фоне из офлайн-справочника и адресов
+ * из users.full_address и заменяется целиком: запрос читает неизменный снимок
+ * без блокировок и без обращения к Mapbox или базе.
+ *
+ * Адреса пользователей индексируются до уровня улицы: слова с цифрами (дом,
+ * индекс) удаляются, в подсказки попадают улицы не менее чем minUsersPerAddress
+ * пользователей. Адреса без улицы и города (заглушки по координатам) пропускаются.
+ *
+ * Ранжирование: ln(1 + пользователей) + ln(1 + население) / 4 - расстояние / proximityScaleKm.
+ * В узле индекса хранятся candidatesPerNode лучших по частоте записей, близость
+ * учитывается среди них. Сохраненная точка пользователя (если ее нет в запросе)
+ * берется из {@link UserOriginCache}, а не из базы на каждое нажатие клавиши.
+ */
+@Service
+@Slf4j
+public class AddressAutocompleteService {
+
+    // Город-миллионник весит как улица примерно 30 пользователей
+    private static final double POPULATION_WEIGHT = 0.25;
+
+    private static final String TYPE_ADDRESS = "address";
+
+    private static final String ADDRESS_QUERY = """
+            SELECT full_address, COUNT(*) AS users, COUNT(latitude) AS located,
+                   AVG(latitude) AS latitude, AVG(longitude) AS longitude
+            FROM users
+            WHERE full_address IS NOT NULL AND full_address <> ''
+            GROUP BY full_address
+            ORDER BY users DESC
+            LIMIT ?
+            """;
+
+    private static final String CITY_QUERY = """
+            SELECT city, COUNT(*) AS users
+            FROM users
+            WHERE city IS NOT NULL AND city <> ''
+            GROUP BY city
+            """;
+
+    private final OfflineGazetteer gazetteer;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserOriginCache userOriginCache;
+    private final LocationConfigProperties.Autocomplete config;
+    private final Timer suggestTimer;
+
+    private volatile Index index = Index.empty();
+
+    public AddressAutocompleteService(OfflineGazetteer gazetteer,
+                                      JdbcTemplate jdbcTemplate,
+                                      UserOriginCache userOriginCache,
+                                      LocationConfigProperties locationConfig,
+                                      MeterRegistry meterRegistry) {
+        this.gazetteer = gazetteer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.userOriginCache = userOriginCache;
+        this.config = locationConfig.getAutocomplete();
+        this.suggestTimer = Timer.builder("address.autocomplete")
+                .description("Время ответа автодополнения адреса")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔍 Подсказки для введенного начала адреса
+     *
+     * @param latitude  текущая точка пользователя; если не задана - сохраненная геолокация
+     * @param limit     число подсказок (по умолчанию defaultLimit, не больше maxLimit)
+     */
+    public List<AddressSuggestionDto> suggest(Long userId, String query,
+                                              Double latitude, Double longitude, Integer limit) {
+        long started = System.nanoTime();
+        try {
+            String prefix = AddressNormalizer.normalizePrefix(query);
+            if (prefix.strip().length() < config.getMinPrefixLength()) {
+                return List.of();
+            }
+
+            double[] origin = latitude != null && longitude != null
+                    ? new double[]{latitude, longitude}
+                    : userOriginCache.get(userId);
+            int size = limit == null
+                    ? config.getDefaultLimit()
+                    : Math.max(1, Math.min(limit, config.getMaxLimit()));
+
+            return index.suggest(prefix, origin, size, config.getProximityScaleKm());
+        } finally {
+            suggestTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 🔨 Пересборка индекса (первая - сразу после старта, в потоке планировщика)
+     */
+    @Scheduled(fixedDelayString = "${app.location.autocomplete.rebuild-interval-seconds:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            Index built = build();
+            index = built;
+            log.info("⌨️ Индекс автодополнения собран: {} записей ({} адресов), {} узлов за {} мс",
+                    built.size(), built.addressCount, built.trie.nodeCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("❌ Не удалось собрать индекс автодополнения, используется прежний: {}", e.getMessage());
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    // === СБОРКА ===
+
+    private Index build() {
+        IndexBuilder builder = new IndexBuilder();
+
+        // Населенные пункты и страны: частота - число пользователей с этим городом
+        Map<String, Integer> usersByCity = new HashMap<>();
+        jdbcTemplate.query(CITY_QUERY, rs -> {
+            usersByCity.merge(AddressNormalizer.normalize(rs.getString("city")), rs.getInt("users"), Integer::sum);
+        });
+
+        Map<OfflineGazetteer.Place, Integer> usersByPlace = new HashMap<>();
+        for (OfflineGazetteer.Name name : gazetteer.names()) {
+            Integer users = usersByCity.get(AddressNormalizer.normalize(name.name()));
+            if (users != null) {
+                usersByPlace.merge(name.place(), users, Integer::sum);
+            }
+        }
+
+        Map<OfflineGazetteer.Place, Integer> groups = new HashMap<>();
+        for (OfflineGazetteer.Name name : gazetteer.names()) {
+            OfflineGazetteer.Place place = name.place();
+            // Псевдонимы одного места - одна группа: в ответе место показывается один раз
+            int group = groups.computeIfAbsent(place, p -> groups.size());
+            int id = builder.add(name.name(), place.level().name().toLowerCase(Locale.ROOT), place.countryCode(),
+                    place.latitude(), place.longitude(), usersByPlace.getOrDefault(place, 0),
+                    place.population(), group);
+            builder.key(AddressNormalizer.normalize(name.name()), id);
+        }
+
+        // Адреса пользователей до уровня улицы
+        Map<String, StreetAddress> streets = new LinkedHashMap<>();
+        jdbcTemplate.query(ADDRESS_QUERY, rs -> {
+            String display = streetLevel(rs.getString("full_address"));
+            if (display == null) {
+                return;
+            }
+            StreetAddress street = streets.computeIfAbsent(AddressNormalizer.normalize(display), k -> new StreetAddress());
+            street.add(display, rs.getInt("users"), rs.getInt("located"),
+                    rs.getDouble("latitude"), rs.getDouble("longitude"));
+        }, config.getMaxAddresses());
+
+        int addresses = 0;
+        int group = groups.size();
+        for (Map.Entry<String, StreetAddress> entry : streets.entrySet()) {
+            StreetAddress street = entry.getValue();
+            if (street.users < config.getMinUsersPerAddress()) {
+                continue;
+            }
+            int id = builder.add(street.display, TYPE_ADDRESS, null,
+                    street.latitude(), street.longitude(), street.users, 0, group++);
+            String key = entry.getKey();
+            builder.key(key, id);
+            // "ул крещатик ..." находится и по "крещатик"
+            int space = key.indexOf(' ');
+            if (space > 0 && AddressNormalizer.isStreetTypeBeforeName(key.substring(0, space))) {
+                builder.key(key.substring(space + 1), id);
+            }
+            addresses++;
+        }
+
+        return builder.build(config.getCandidatesPerNode(), addresses);
+    }
+
+    /**
+     * Адрес без слов с цифрами: "ул. Крещатик 22, Киев" -> "ул. Крещатик, Киев"
+     *
+     * @return null, если после этого не осталось хотя бы улицы и города
+     */
+    static String streetLevel(String fullAddress) {
+        List<String> parts = new ArrayList<>();
+        for (String part : fullAddress.split(",")) {
+            StringBuilder words = new StringBuilder();
+            for (String word : part.trim().split("\\s+")) {
+                if (word.isEmpty() || word.chars().anyMatch(Character::isDigit)) {
+                    continue;
+                }
+                if (!words.isEmpty()) {
+                    words.append(' ');
+                }
+                words.append(word);
+            }
+            if (words.chars().anyMatch(Character::isLetter)) {
+                parts.add(words.toString());
+            }
+        }
+        return parts.size() < 2 ? null : String.join(", ", parts);
+    }
+
+    /**
+     * Улица, собранная из нескольких полных адресов (разные дома и написания)
+     */
+    private static final class StreetAddress {
+        private String display;
+        private int displayUsers;
+        private int users;
+        private int located;
+        private double latitudeSum;
+        private double longitudeSum;
+
+        private void add(String spelling, int rowUsers, int rowLocated, double rowLatitude, double rowLongitude) {
+            // Показывается самое частое написание
+            if (rowUsers > displayUsers) {
+                display = spelling;
+                displayUsers = rowUsers;
+            }
+            users += rowUsers;
+            if (rowLocated > 0) {
+                located += rowLocated;
+                latitudeSum += rowLatitude * rowLocated;
+                longitudeSum += rowLongitude * rowLocated;
+            }
+        }
+
+        private double latitude() {
+            return located > 0 ? latitudeSum / located : Double.NaN;
+        }
+
+        private double longitude() {
+            return located > 0 ? longitudeSum / located : Double.NaN;
+        }
+    }
+
+    private static final class IndexBuilder {
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> types = new ArrayList<>();
+        private final List<String> countryCodes = new ArrayList<>();
+        private final List<double[]> points = new ArrayList<>();
+        private final List<Integer> users = new ArrayList<>();
+        private final List<Double> priors = new ArrayList<>();
+        private final List<Integer> groups = new ArrayList<>();
+        private final RadixTrie.Builder trie = RadixTrie.builder();
+
+        private int add(String text, String type, String countryCode, double latitude, double longitude,
+                        int userCount, long population, int group) {
+            texts.add(text);
+            types.add(type);
+            countryCodes.add(countryCode);
+            points.add(new double[]{latitude, longitude});
+            users.add(userCount);
+            priors.add(Math.log1p(userCount) + Math.log1p(population) * POPULATION_WEIGHT);
+            groups.add(group);
+            return texts.size() - 1;
+        }
+
+        private void key(String key, int id) {
+            if (!key.isEmpty()) {
+                trie.add(key, id);
+            }
+        }
+
+        private Index build(int candidatesPerNode, int addressCount) {
+            int size = texts.size();
+            double[] prior = new double[size];
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            int[] userCounts = new int[size];
+            int[] groupIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                prior[i] = priors.get(i);
+                latitudes[i] = points.get(i)[0];
+                longitudes[i] = points.get(i)[1];
+                userCounts[i] = users.get(i);
+                groupIds[i] = groups.get(i);
+            }
+
+            TopK.IndexComparator byPrior = (a, b) -> Double.compare(prior[b], prior[a]);
+            RadixTrie built = trie.build(candidatesPerNode, byPrior.thenComparing(Integer::compare));
+            return new Index(built, texts.toArray(new String[0]), types.toArray(new String[0]),
+                    countryCodes.toArray(new String[0]), latitudes, longitudes, userCounts, prior, groupIds,
+                    addressCount);
+        }
+    }
+
+    /**
+     * Неизменный снимок индекса: дерево и записи в параллельных массивах
+     */
+    private static final class Index {
+        private final RadixTrie trie;
+        private final String[] texts;
+        private final String[] types;
+        private final String[] countryCodes;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final int[] users;
+        private final double[] prior;
+        private final int[] groups;
+        private final int addressCount;
+
+        private Index(RadixTrie trie, String[] texts, String[] types, String[] countryCodes,
+                      double[] latitudes, double[] longitudes, int[] users, double[] prior, int[] groups,
+                      int addressCount) {
+            this.trie = trie;
+            this.texts = texts;
+            this.types = types;
+            this.countryCodes = countryCodes;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.users = users;
+            this.prior = prior;
+            this.groups = groups;
+            this.addressCount = addressCount;
+        }
+
+        private static Index empty() {
+            return new IndexBuilder().build(1, 0);
+        }
+
+        private int size() {
+            return texts.length;
+        }
+
+        private List<AddressSuggestionDto> suggest(String prefix, double[] origin, int limit, int proximityScaleKm) {
+            int[] candidates = trie.candidates(prefix);
+            int count = candidates.length;
+            double[] scores = new double[count];
+            double[] distances = new double[count];
+
+            for (int i = 0; i < count; i++) {
+                int id = candidates[i];
+                distances[i] = Double.NaN;
+                scores[i] = prior[id];
+                if (origin != null && !Double.isNaN(latitudes[id])) {
+                    distances[i] = GeoDistanceUtil.distanceKm(origin[0], origin[1], latitudes[id], longitudes[id]);
+                    scores[i] -= distances[i] / proximityScaleKm;
+                }
+            }
+
+            // Все кандидаты по убыванию оценки: псевдонимы одного места отсеиваются ниже.
+            // При равной оценке - порядок дерева, чтобы показывалось основное название, а не псевдоним
+            TopK.IndexComparator byScore = (a, b) -> Double.compare(scores[b], scores[a]);
+            int[] ranked = TopK.select(count, count, byScore.thenComparing(Integer::compare));
+            List<AddressSuggestionDto> result = new ArrayList<>(Math.min(limit, count));
+            Set<Integer> seenGroups = new HashSet<>();
+            for (int position : ranked) {
+                int id = candidates[position];
+                if (!seenGroups.add(groups[id])) {
+                    continue;
+                }
+                result.add(toDto(id, distances[position]));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private AddressSuggestionDto toDto(int id, double distanceKm) {
+            boolean located = !Double.isNaN(latitudes[id]);
+            return AddressSuggestionDto.builder()
+                    .text(texts[id])
+                    .type(types[id])
+                    .countryCode(countryCodes[id])
+                    .latitude(located ? BigDecimal.valueOf(latitudes[id]).setScale(6, RoundingMode.HALF_UP) : null)
+                    .longitude(located ? BigDecimal.valueOf(longitudes[id]).setScale(6, RoundingMode.HALF_UP) : null)
+                    .distanceKm(Double.isNaN(distanceKm) ? null : Math.round(distanceKm * 10) / 10.0)
+                    .userCount(users[id])
+                    .build();
+        }
+    }
+}
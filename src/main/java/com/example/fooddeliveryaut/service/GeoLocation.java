@@ -0,0 +1,66 @@
+package com.example.fooddeliveryaut.service;
+
+import java.math.BigDecimal;
+
+/**
+ * 📍 Класс для хранения географических координат
+ *
+ * approximate = true: точного результата нет, координаты взяты из офлайн-справочника
+ * (центр города или страны) или из app.location.fallback.*
+ * deferred = true: приблизительные координаты потому, что Mapbox не спрашивали или
+ * он не ответил, а не потому, что адрес не найден
+ */
+public class GeoLocation {
+    private final BigDecimal latitude;
+    private final BigDecimal longitude;
+    private final boolean approximate;
+    private final boolean deferred;
+
+    public GeoLocation(BigDecimal latitude, BigDecimal longitude) {
+        this(latitude, longitude, false);
+    }
+
+    public GeoLocation(BigDecimal latitude, BigDecimal longitude, boolean approximate) {
+        this(latitude, longitude, approximate, false);
+    }
+
+    private GeoLocation(BigDecimal latitude, BigDecimal longitude, boolean approximate, boolean deferred) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.approximate = approximate;
+        this.deferred = deferred;
+    }
+
+    /**
+     * Те же приблизительные координаты, но адрес в Mapbox не проверялся
+     * (сервис недоступен, нет квоты, 429 или ошибка сети) - стоит повторить позже
+     */
+    public GeoLocation asDeferred() {
+        return new GeoLocation(latitude, longitude, true, true);
+    }
+
+    public BigDecimal getLatitude() {
+        return latitude;
+    }
+
+    public BigDecimal getLongitude() {
+        return longitude;
+    }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * Mapbox не ответил на этот адрес: в отличие от "не найдено", результат не окончательный
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GeoLocation{latitude=%s, longitude=%s, approximate=%s, deferred=%s}",
+                latitude, longitude, approximate, deferred);
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.GeocodingBackfillProperties;
+import com.example.fooddeliveryaut.dto.GeocodingBackfillStatusDto;
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+import com.example.fooddeliveryaut.model.GeocodingBackfillCheckpoint;
+import com.example.fooddeliveryaut.model.User;
+import com.example.fooddeliveryaut.repository.GeocodingBackfillCheckpointRepository;
+import com.example.fooddeliveryaut.repository.UserRepository;
+import com.example.fooddeliveryaut.util.AddressNormalizer;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 🧭 Пакетное геокодирование пользователей с адресом, но без координат
+ *
+ * Пользователи читаются порциями по chunkSize с keyset-пагинацией по id.
+ * Одинаковые (после {@link AddressNormalizer}) адреса порции геокодируются
+ * один раз пулом из workers потоков, не чаще requestsPerSecond запросов в секунду
+ * и с фоновым приоритетом в общей квоте Mapbox.
+ * Координаты записываются одним JDBC-пакетом на порцию, после чего сохраняется
+ * checkpoint (последний id): прерванный или остановленный запуск продолжается с него.
+ *
+ * Приблизительные координаты (центр города из справочника, точка по умолчанию)
+ * не записываются: такие пользователи остаются без координат до следующего запуска.
+ * Адреса, которые Mapbox не проверил (недоступен, квота, 429, ошибка сети), не считаются
+ * ненайденными: checkpoint останавливается перед первым таким пользователем, запуск
+ * повторяет порцию через retryDelaySeconds, а без продвижения дольше outageMaxWaitSeconds
+ * завершается со статусом STOPPED.
+ */
+@Service
+@Slf4j
+public class GeocodingBackfillService {
+
+    static final String JOB_NAME = "user-addresses";
+
+    // Координаты могли появиться, пока порция геокодировалась: их не перезаписываем
+    private static final String UPDATE_LOCATION_SQL = """
+            UPDATE users SET latitude = ?, longitude = ?, location_updated_at = ?, updated_at = ?
+            WHERE id = ? AND (latitude IS NULL OR longitude IS NULL)
+            """;
+
+    private final UserRepository userRepository;
+    private final GeocodingBackfillCheckpointRepository checkpointRepository;
+    private final GeocodingService geocodingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GeocodingBackfillProperties config;
+    private final Executor jobExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopRequested;
+
+    private final Counter updatedCounter;
+    private final Counter unresolvedCounter;
+    private final Counter deferredCounter;
+    private final Counter addressCounter;
+
+    public GeocodingBackfillService(UserRepository userRepository,
+                                    GeocodingBackfillCheckpointRepository checkpointRepository,
+                                    GeocodingService geocodingService,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    GeocodingBackfillProperties config,
+                                    @Qualifier("applicationTaskExecutor") Executor jobExecutor,
+                                    MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.geocodingService = geocodingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+        this.jobExecutor = jobExecutor;
+
+        this.updatedCounter = usersCounter(meterRegistry, "updated");
+        this.unresolvedCounter = usersCounter(meterRegistry, "unresolved");
+        this.deferredCounter = usersCounter(meterRegistry, "deferred");
+        this.addressCounter = Counter.builder("geocoding.backfill.addresses")
+                .description("Уникальные адреса, отправленные на геокодирование")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 🔁 Продолжить запуск, прерванный рестартом сервиса
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!Boolean.TRUE.equals(config.getResumeOnStartup())) {
+            return;
+        }
+        try {
+            checkpointRepository.findById(JOB_NAME)
+                    .filter(checkpoint -> checkpoint.getStatus() == GeocodingBackfillCheckpoint.Status.RUNNING)
+                    .ifPresent(checkpoint -> {
+                        log.info("🧭 Продолжаем прерванное геокодирование пользователей после id {}",
+                                checkpoint.getLastUserId());
+                        start(false);
+                    });
+        } catch (Exception e) {
+            log.warn("⚠️ Не удалось прочитать checkpoint геокодирования пользователей: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * ▶️ Запустить в фоне
+     *
+     * @param fromBeginning начать с первого пользователя, а не с checkpoint
+     * @return false, если запуск уже идет
+     */
+    public boolean start(boolean fromBeginning) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested = false;
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    run(fromBeginning);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * ⏹️ Остановить после текущей порции (checkpoint сохраняется)
+     *
+     * @return false, если запуск не идет
+     */
+    public boolean stop() {
+        if (!running.get()) {
+            return false;
+        }
+        stopRequested = true;
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 📊 Текущее состояние по checkpoint
+     */
+    public GeocodingBackfillStatusDto getStatus() {
+        GeocodingBackfillStatusDto.GeocodingBackfillStatusDtoBuilder status = GeocodingBackfillStatusDto.builder()
+                .running(running.get())
+                .usersWithoutLocation(userRepository.countUsersWithoutLocation());
+
+        checkpointRepository.findById(JOB_NAME).ifPresent(checkpoint -> status
+                .status(checkpoint.getStatus().name())
+                .lastUserId(checkpoint.getLastUserId())
+                .processedUsers(checkpoint.getProcessedUsers())
+                .updatedUsers(checkpoint.getUpdatedUsers())
+                .unresolvedUsers(checkpoint.getUnresolvedUsers())
+                .geocodedAddresses(checkpoint.getGeocodedAddresses())
+                .startedAt(checkpoint.getStartedAt())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .finishedAt(checkpoint.getFinishedAt())
+                .lastError(checkpoint.getLastError()));
+
+        return status.build();
+    }
+
+    private void run(boolean fromBeginning) {
+        GeocodingBackfillCheckpoint checkpoint = openCheckpoint(fromBeginning);
+        log.info("🧭 Геокодирование пользователей без координат: после id {}, порции по {}, {} потоков, {} запросов/сек",
+                checkpoint.getLastUserId(), config.getChunkSize(), config.getWorkers(), config.getRequestsPerSecond());
+
+        RateLimiter rateLimiter = RateLimiter.of("geocodingBackfill", RateLimiterConfig.custom()
+                .limitForPeriod(config.getRequestsPerSecond())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+        ExecutorService workers = Executors.newFixedThreadPool(config.getWorkers());
+
+        try {
+            long stalledSinceNanos = 0;
+            while (!stopRequested) {
+                boolean progressed = false;
+                boolean complete = true;
+
+                // Без Mapbox порция дала бы только приблизительные координаты: ждем, не двигая checkpoint
+                if (geocodingService.isGeocodingAvailable()) {
+                    List<User> chunk = userRepository.findUsersWithAddressWithoutLocationAfter(
+                            checkpoint.getLastUserId(), PageRequest.of(0, config.getChunkSize()));
+                    if (chunk.isEmpty()) {
+                        finish(checkpoint, GeocodingBackfillCheckpoint.Status.COMPLETED, null);
+                        return;
+                    }
+
+                    ChunkResult result = processChunk(chunk, workers, rateLimiter);
+                    progressed = advance(checkpoint, chunk, result);
+                    complete = result.deferredFromId() == null;
+                    checkpoint = checkpointRepository.save(checkpoint);
+
+                    log.info("🧭 Порция до id {}: {} пользователей, {} адресов, обновлено {}, отложено {}",
+                            checkpoint.getLastUserId(), chunk.size(), result.addresses(), result.updated(),
+                            result.deferredUsers());
+                } else {
+                    complete = false;
+                    log.info("⏸️ Mapbox недоступен, геокодирование пользователей ждет (checkpoint id {})",
+                            checkpoint.getLastUserId());
+                }
+
+                if (complete || progressed) {
+                    stalledSinceNanos = 0;
+                } else {
+                    long now = System.nanoTime();
+                    stalledSinceNanos = stalledSinceNanos == 0 ? now : stalledSinceNanos;
+                    if (now - stalledSinceNanos >= TimeUnit.SECONDS.toNanos(config.getOutageMaxWaitSeconds())) {
+                        finish(checkpoint, GeocodingBackfillCheckpoint.Status.STOPPED,
+                                "Mapbox недоступен или не отвечает дольше " + config.getOutageMaxWaitSeconds()
+                                        + " сек: запуск продолжится после id " + checkpoint.getLastUserId());
+                        return;
+                    }
+                }
+                if (!complete) {
+                    pause(config.getRetryDelaySeconds());
+                }
+            }
+            finish(checkpoint, GeocodingBackfillCheckpoint.Status.STOPPED, null);
+
+        } catch (Exception e) {
+            log.error("❌ Геокодирование пользователей остановлено на id {}", checkpoint.getLastUserId(), e);
+            finish(checkpoint, GeocodingBackfillCheckpoint.Status.FAILED, e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private ChunkResult processChunk(List<User> chunk, ExecutorService workers, RateLimiter rateLimiter) {
+        // Один запрос на адрес: соседи по дому и повторные регистрации делят результат
+        Map<String, List<User>> usersByAddress = new LinkedHashMap<>();
+        for (User user : chunk) {
+            String addressKey = AddressNormalizer.normalize(user.getFormattedAddress());
+            if (!addressKey.isEmpty()) {
+                usersByAddress.computeIfAbsent(addressKey, key -> new ArrayList<>()).add(user);
+            }
+        }
+
+        List<List<User>> groups = new ArrayList<>(usersByAddress.values());
+        List<CompletableFuture<GeoLocation>> locations = new ArrayList<>(groups.size());
+        for (List<User> group : groups) {
+            String address = group.get(0).getFormattedAddress();
+            Supplier<GeoLocation> geocode = RateLimiter.decorateSupplier(rateLimiter,
+                    () -> geocodingService.geocodeAddress(address, GeocodingPriority.BACKGROUND));
+            locations.add(CompletableFuture.supplyAsync(geocode, workers)
+                    .exceptionally(e -> {
+                        log.warn("⚠️ Не удалось геокодировать '{}': {}", address, e.getMessage());
+                        return null;
+                    }));
+        }
+        addressCounter.increment(groups.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>(chunk.size());
+        Set<Long> writtenIds = new HashSet<>();
+        Long deferredFromId = null;
+        int deferredUsers = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            GeoLocation location = locations.get(i).join();
+            if (location == null || location.isDeferred()) {
+                // Адрес не проверен в Mapbox (недоступен, квота, 429, ошибка): повторить в следующий раз
+                for (User user : groups.get(i)) {
+                    deferredFromId = deferredFromId == null ? user.getId() : Math.min(deferredFromId, user.getId());
+                }
+                deferredUsers += groups.get(i).size();
+                continue;
+            }
+            if (location.isApproximate()) {
+                continue;
+            }
+            for (User user : groups.get(i)) {
+                updates.add(new Object[]{location.getLatitude(), location.getLongitude(), now, now, user.getId()});
+                writtenIds.add(user.getId());
+            }
+        }
+
+        int updated = updates.isEmpty() ? 0 : writeLocations(updates);
+        updatedCounter.increment(updated);
+        deferredCounter.increment(deferredUsers);
+        unresolvedCounter.increment(chunk.size() - updated - deferredUsers);
+        return new ChunkResult(groups.size(), updated, writtenIds, deferredFromId, deferredUsers);
+    }
+
+    /**
+     * Сдвинуть checkpoint на конец порции или до первого пользователя с непроверенным адресом
+     *
+     * Пользователи после него с уже записанными координатами в выборку больше не попадут,
+     * остальные будут прочитаны снова.
+     *
+     * @return true, если запуск продвинулся (checkpoint или записанные координаты)
+     */
+    private boolean advance(GeocodingBackfillCheckpoint checkpoint, List<User> chunk, ChunkResult result) {
+        long previousUserId = checkpoint.getLastUserId();
+        long lastUserId = previousUserId;
+        int processed = 0;
+        int unresolved = 0;
+        // Порция упорядочена по id
+        for (User user : chunk) {
+            boolean written = result.writtenIds().contains(user.getId());
+            if (result.deferredFromId() != null && user.getId() >= result.deferredFromId()) {
+                processed += written ? 1 : 0;
+                continue;
+            }
+            lastUserId = user.getId();
+            processed++;
+            unresolved += written ? 0 : 1;
+        }
+
+        checkpoint.setLastUserId(lastUserId);
+        checkpoint.setProcessedUsers(checkpoint.getProcessedUsers() + processed);
+        checkpoint.setUpdatedUsers(checkpoint.getUpdatedUsers() + result.updated());
+        checkpoint.setUnresolvedUsers(checkpoint.getUnresolvedUsers() + unresolved);
+        checkpoint.setGeocodedAddresses(checkpoint.getGeocodedAddresses() + result.addresses());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return lastUserId != previousUserId || !result.writtenIds().isEmpty();
+    }
+
+    /**
+     * Пауза перед повтором; stop() прерывает ее
+     */
+    private void pause(int seconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try {
+            while (!stopRequested && System.nanoTime() < deadline) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(TimeUnit.SECONDS.toNanos(1), deadline - System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopRequested = true;
+        }
+    }
+
+    /**
+     * Одна транзакция и один JDBC-пакет на порцию
+     */
+    private int writeLocations(List<Object[]> updates) {
+        int[] rows = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_LOCATION_SQL, updates));
+        int updated = 0;
+        for (int count : rows) {
+            // Драйвер может не сообщать число строк для элементов пакета
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private GeocodingBackfillCheckpoint openCheckpoint(boolean fromBeginning) {
+        LocalDateTime now = LocalDateTime.now();
+        GeocodingBackfillCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .filter(existing -> !fromBeginning
+                        && existing.getStatus() != GeocodingBackfillCheckpoint.Status.COMPLETED)
+                .orElseGet(() -> GeocodingBackfillCheckpoint.builder()
+                        .jobName(JOB_NAME)
+                        .lastUserId(0L)
+                        .processedUsers(0L)
+                        .updatedUsers(0L)
+                        .unresolvedUsers(0L)
+                        .geocodedAddresses(0L)
+                        .startedAt(now)
+                        .build());
+
+        checkpoint.setStatus(GeocodingBackfillCheckpoint.Status.RUNNING);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(null);
+        checkpoint.setLastError(null);
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private void finish(GeocodingBackfillCheckpoint checkpoint, GeocodingBackfillCheckpoint.Status status,
+                        String error) {
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setStatus(status);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(now);
+        checkpoint.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+        try {
+            checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            log.warn("⚠️ Не удалось сохранить checkpoint геокодирования пользователей: {}", e.getMessage());
+        }
+
+        log.info("🧭 Геокодирование пользователей: {} (обработано {}, обновлено {}, без координат {})",
+                status, checkpoint.getProcessedUsers(), checkpoint.getUpdatedUsers(), checkpoint.getUnresolvedUsers());
+    }
+
+    private static Counter usersCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("geocoding.backfill.users")
+                .description("Пользователи, обработанные пакетным геокодированием, по результату")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param deferredFromId наименьший id пользователя с непроверенным адресом или null
+     */
+    private record ChunkResult(int addresses, int updated, Set<Long> writtenIds, Long deferredFromId,
+                               int deferredUsers) {
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.fooddeliveryaut.service;
 
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -20,7 +22,18 @@ public interface GeocodingService {
      * @return объект с координатами (широта, долгота)
      * @throws RuntimeException если адрес не найден или сервис недоступен
      */
-    GeoLocation geocodeAddress(String address);
+    default GeoLocation geocodeAddress(String address) {
+        return geocodeAddress(address, GeocodingPriority.INTERACTIVE);
+    }
+
+    /**
+     * 📍 Прямое геокодирование с классом запроса для квоты Mapbox
+     *
+     * @param address строка адреса для геокодирования
+     * @param priority интерактивный запрос или фоновая задача
+     * @return объект с координатами (широта, долгота)
+     */
+    GeoLocation geocodeAddress(String address, GeocodingPriority priority);
 
     /**
      * 🔄 Обратное геокодирование - преобразование координат в адрес
@@ -41,7 +54,18 @@ public interface GeocodingService {
      * @param limit максимальное количество результатов
      * @return список найденных мест
      */
-    List<MapboxPlace> searchNearbyPlaces(BigDecimal longitude, BigDecimal latitude, String query, int limit);
+    default List<MapboxPlace> searchNearbyPlaces(BigDecimal longitude, BigDecimal latitude, String query, int limit) {
+        return searchNearbyPlaces(longitude, latitude, query, 0, limit);
+    }
+
+    /**
+     * 🔍 Страница результатов поиска ближайших мест
+     *
+     * @param offset сколько мест пропустить (от ближайших по версии Mapbox)
+     * @param limit размер страницы
+     * @return места страницы (пустой список за пределами результатов)
+     */
+    List<MapboxPlace> searchNearbyPlaces(BigDecimal longitude, BigDecimal latitude, String query, int offset, int limit);
 
     /**
      * ✅ Проверка доступности сервиса геокодирования
@@ -59,32 +83,6 @@ public interface GeocodingService {
     Address createAddressWithCoordinates(CreateAddressRequest request);
 }
 
-/**
- * 📍 Класс для хранения географических координат
- */
-class GeoLocation {
-    private final BigDecimal latitude;
-    private final BigDecimal longitude;
-
-    public GeoLocation(BigDecimal latitude, BigDecimal longitude) {
-        this.latitude = latitude;
-        this.longitude = longitude;
-    }
-
-    public BigDecimal getLatitude() {
-        return latitude;
-    }
-
-    public BigDecimal getLongitude() {
-        return longitude;
-    }
-
-    @Override
-    public String toString() {
-        return String.format("GeoLocation{latitude=%s, longitude=%s}", latitude, longitude);
-    }
-}
-
 /**
  * 🏪 Класс для описания найденного места
  */
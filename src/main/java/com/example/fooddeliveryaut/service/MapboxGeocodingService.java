@@ -1,31 +1,81 @@
 package com.example.fooddeliveryaut.service;
 
+import com.example.fooddeliveryaut.cache.GeocodeCache;
+import com.example.fooddeliveryaut.cache.PlaceSearchCache;
+import com.example.fooddeliveryaut.cache.ReverseGeocodeCache;
+import com.example.fooddeliveryaut.client.MapboxQuotaManager;
+import com.example.fooddeliveryaut.client.MapboxResponseReader;
+import com.example.fooddeliveryaut.client.MapboxUrlTemplate;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
 import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+import com.example.fooddeliveryaut.util.AddressNormalizer;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class MapboxGeocodingService implements GeocodingService {
 
     private final MapboxConfigProperties mapboxConfig;
     private final RestTemplate restTemplate;
+    private final GeocodeCache geocodeCache;
+    private final ReverseGeocodeCache reverseGeocodeCache;
+    private final PlaceSearchCache placeSearchCache;
+    private final OfflineGazetteer gazetteer;
+    private final LocationConfigProperties locationConfig;
+    private final MapboxQuotaManager quotaManager;
+    private final MapboxResponseReader responseReader;
+    private final MapboxUrlTemplate urlTemplate;
+
+    // Доступность геокодирования: меняется фоновой проверкой и ответами Mapbox
+    private volatile boolean geocodingAvailable = false;
+    private volatile Instant lastCheckedAt;
+    private volatile String lastCheckError;
+    private volatile long lastVerifiedNanos;
+
+    public MapboxGeocodingService(MapboxConfigProperties mapboxConfig,
+                                  @Qualifier("mapboxRestTemplate") RestTemplate restTemplate,
+                                  GeocodeCache geocodeCache,
+                                  ReverseGeocodeCache reverseGeocodeCache,
+                                  PlaceSearchCache placeSearchCache,
+                                  OfflineGazetteer gazetteer,
+                                  LocationConfigProperties locationConfig,
+                                  MapboxQuotaManager quotaManager,
+                                  MapboxResponseReader responseReader) {
+        this.mapboxConfig = mapboxConfig;
+        this.restTemplate = restTemplate;
+        this.geocodeCache = geocodeCache;
+        this.reverseGeocodeCache = reverseGeocodeCache;
+        this.placeSearchCache = placeSearchCache;
+        this.gazetteer = gazetteer;
+        this.locationConfig = locationConfig;
+        this.quotaManager = quotaManager;
+        this.responseReader = responseReader;
+        this.urlTemplate = new MapboxUrlTemplate(mapboxConfig);
+    }
 
-    // Флаг для определения доступности геокодирования
-    private boolean geocodingAvailable = false;
-
+    /**
+     * 🗺️ Проверка конфигурации без обращения к сети
+     * Токен проверяется в фоне ({@link #checkAvailability()}), до первой проверки
+     * сервис считается доступным, если токен задан
+     */
     @PostConstruct
     public void initializeMapboxService() {
         log.info("🗺️ Initializing Mapbox Geocoding Service...");
@@ -40,19 +90,8 @@ public class MapboxGeocodingService implements GeocodingService {
         } else {
             // Маскируем токен для безопасности в логах
             String maskedToken = maskToken(mapboxConfig.getAccess().getToken());
-            log.info("🔑 Mapbox token loaded: {}", maskedToken);
-
-            // Проверяем валидность токена
-            try {
-                validateToken();
-                geocodingAvailable = true;
-                log.info("✅ Mapbox Geocoding Service initialized successfully");
-                log.info("🌍 Geocoding is ENABLED");
-            } catch (Exception e) {
-                log.error("❌ Mapbox token validation failed: {}", e.getMessage());
-                log.warn("⚠️ Geocoding will use fallback coordinates");
-                geocodingAvailable = false;
-            }
+            log.info("🔑 Mapbox token loaded: {} (validation runs in background)", maskedToken);
+            geocodingAvailable = true;
         }
 
         // Выводим статус сервиса
@@ -64,77 +103,171 @@ public class MapboxGeocodingService implements GeocodingService {
         log.info("   • Results limit: {}", mapboxConfig.getGeocoding().getLimit());
     }
 
+    /**
+     * 🩺 Фоновая проверка токена (первая - сразу после старта)
+     *
+     * Пока Mapbox недоступен, проверка повторяется каждые retryIntervalSeconds.
+     * Когда доступен - не чаще checkIntervalSeconds и только если за это время
+     * не было успешных ответов Mapbox на обычные запросы.
+     * Проверка не ждет квоту: без свободного токена она откладывается, чтобы не держать
+     * поток планировщика, общий с синхронизацией каталога и обслуживанием кэшей.
+     */
+    @Scheduled(fixedDelayString = "${mapbox.health.retry-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void checkAvailability() {
+        if (!mapboxConfig.hasValidToken()) {
+            return;
+        }
+        long checkIntervalNanos = TimeUnit.SECONDS.toNanos(mapboxConfig.getHealth().getCheckIntervalSeconds());
+        if (geocodingAvailable && lastCheckedAt != null && System.nanoTime() - lastVerifiedNanos < checkIntervalNanos) {
+            return;
+        }
+        if (!quotaManager.tryAcquireNow(GeocodingPriority.BACKGROUND)) {
+            log.debug("🚦 No free Mapbox quota token, token check postponed");
+            return;
+        }
+
+        boolean wasAvailable = geocodingAvailable;
+        try {
+            validateToken();
+            onMapboxSuccess();
+            lastCheckError = null;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            // Лимит запросов - токен рабочий, просто нужна пауза
+            onThrottled(e);
+            lastVerifiedNanos = System.nanoTime();
+            geocodingAvailable = true;
+            lastCheckError = null;
+        } catch (Exception e) {
+            geocodingAvailable = false;
+            lastCheckError = e.getMessage();
+            if (wasAvailable || lastCheckedAt == null) {
+                log.error("❌ Mapbox token validation failed: {}", e.getMessage());
+                log.warn("⚠️ Geocoding will use fallback coordinates");
+            }
+        }
+        lastCheckedAt = Instant.now();
+
+        if (geocodingAvailable && !wasAvailable) {
+            log.info("🌍 Geocoding is ENABLED");
+        }
+    }
+
+    public Instant getLastCheckedAt() {
+        return lastCheckedAt;
+    }
+
+    public String getLastCheckError() {
+        return lastCheckError;
+    }
+
     /**
      * 📍 Реализация прямого геокодирования из интерфейса
+     * Повторные адреса (после нормализации) берутся из кэша без вызова Mapbox,
+     * адрес из одного названия города - из офлайн-справочника.
+     * Без кэша и при недоступном Mapbox или без свободной квоты ответ берется из офлайн-справочника
      */
     @Override
-    public GeoLocation geocodeAddress(String address) {
+    public GeoLocation geocodeAddress(String address, GeocodingPriority priority) {
+        OfflineGazetteer.Match local = gazetteer.resolveAddress(address, mapboxConfig.getGeocoding().getCountry());
+        if (local != null && local.exact()) {
+            log.debug("📖 '{}' resolved by gazetteer to {}", address, local.place().name());
+            return toGeoLocation(local.place(), false);
+        }
+
+        // Кэш отвечает и при недоступном Mapbox, и без квоты
+        String addressKey = AddressNormalizer.normalize(address);
+        GeocodeCache.Result cached = geocodeCache.get(addressKey);
+        if (cached != null) {
+            if (cached.isFound()) {
+                log.debug("🗄️ Geocoding cache hit for '{}'", address);
+                return new GeoLocation(cached.getLatitude(), cached.getLongitude());
+            }
+            log.debug("🗄️ Geocoding cache: no results for '{}', using fallback", address);
+            return getFallbackCoordinatesForAddress(address, local);
+        }
+
         if (!geocodingAvailable) {
             log.warn("⚠️ Geocoding service unavailable, using fallback for address: {}", address);
-            return getFallbackCoordinatesForAddress(address);
+            return getFallbackCoordinatesForAddress(address, local).asDeferred();
         }
 
-        try {
-            String encodedAddress = URLEncoder.encode(address, StandardCharsets.UTF_8);
-            String url = String.format("%s/%s.json?%s",
-                    mapboxConfig.getGeocodingUrl(),
-                    encodedAddress,
-                    mapboxConfig.getDefaultParams());
-
-            log.debug("🔍 Geocoding request URL: {}", url.replace(mapboxConfig.getAccess().getToken(), "***"));
+        if (!quotaManager.tryAcquire(priority)) {
+            log.warn("🚦 Mapbox quota exhausted ({}), using fallback for address: {}", priority.getTag(), address);
+            return getFallbackCoordinatesForAddress(address, local).asDeferred();
+        }
 
-            MapboxGeocodingResponse response = restTemplate.getForObject(url, MapboxGeocodingResponse.class);
+        try {
+            log.debug("🔍 Geocoding request for address: {}", address);
 
-            if (response != null && response.getFeatures() != null && !response.getFeatures().isEmpty()) {
-                MapboxFeature feature = response.getFeatures().get(0);
-                double[] coordinates = feature.getGeometry().getCoordinates();
+            List<MapboxResponseReader.Feature> features = fetchFeatures(urlTemplate.forward(address), 1);
+            onMapboxSuccess();
 
-                // Mapbox возвращает [longitude, latitude]
-                BigDecimal longitude = BigDecimal.valueOf(coordinates[0]).setScale(8, RoundingMode.HALF_UP);
-                BigDecimal latitude = BigDecimal.valueOf(coordinates[1]).setScale(8, RoundingMode.HALF_UP);
+            if (!features.isEmpty()) {
+                MapboxResponseReader.Feature feature = features.get(0);
+                BigDecimal longitude = BigDecimal.valueOf(feature.longitude()).setScale(8, RoundingMode.HALF_UP);
+                BigDecimal latitude = BigDecimal.valueOf(feature.latitude()).setScale(8, RoundingMode.HALF_UP);
 
                 log.info("✅ Successfully geocoded '{}' to [{}, {}]", address, latitude, longitude);
+                geocodeCache.putFound(addressKey, latitude, longitude);
                 return new GeoLocation(latitude, longitude);
             } else {
                 log.warn("⚠️ No results found for address: {}, using fallback", address);
-                return getFallbackCoordinatesForAddress(address);
+                geocodeCache.putNotFound(addressKey);
+                return getFallbackCoordinatesForAddress(address, local);
             }
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            onThrottled(e);
+            log.warn("🛑 Mapbox rate limit exceeded, using fallback for address: {}", address);
+            return getFallbackCoordinatesForAddress(address, local).asDeferred();
         } catch (Exception e) {
             log.error("❌ Error during Mapbox geocoding for address: {}, using fallback", address, e);
-            return getFallbackCoordinatesForAddress(address);
+            return getFallbackCoordinatesForAddress(address, local).asDeferred();
         }
     }
 
     /**
      * 🔄 Реализация обратного геокодирования из интерфейса
+     * Точки в радиусе ~app.cache.reverse-geocode.cell-size-meters берутся из кэша
+     * до проверок доступности Mapbox и квоты
      */
     @Override
     public String reverseGeocode(BigDecimal longitude, BigDecimal latitude) {
+        // Кэш отвечает и при недоступном Mapbox, и без квоты
+        String cached = reverseGeocodeCache.get(latitude.doubleValue(), longitude.doubleValue());
+        if (cached != null) {
+            log.debug("🗄️ Reverse geocoding cache hit for [{}, {}]", latitude, longitude);
+            return cached;
+        }
+
         if (!geocodingAvailable) {
             log.warn("⚠️ Geocoding service unavailable for reverse geocoding");
             return String.format("Координаты: %s, %s", latitude, longitude);
         }
 
-        try {
-            String url = String.format("%s/%s,%s.json?access_token=%s&types=address&country=%s",
-                    mapboxConfig.getGeocodingUrl(),
-                    longitude,
-                    latitude,
-                    mapboxConfig.getAccess().getToken(),
-                    mapboxConfig.getGeocoding().getCountry());
+        if (!quotaManager.tryAcquire(GeocodingPriority.INTERACTIVE)) {
+            log.warn("🚦 Mapbox quota exhausted, skipping reverse geocoding for [{}, {}]", latitude, longitude);
+            return String.format("Координаты: %s, %s", latitude, longitude);
+        }
 
+        try {
             log.debug("🔄 Reverse geocoding request for coordinates: [{}, {}]", latitude, longitude);
 
-            MapboxGeocodingResponse response = restTemplate.getForObject(url, MapboxGeocodingResponse.class);
+            List<MapboxResponseReader.Feature> features = fetchFeatures(urlTemplate.reverse(longitude, latitude), 1);
+            onMapboxSuccess();
 
-            if (response != null && response.getFeatures() != null && !response.getFeatures().isEmpty()) {
-                String address = response.getFeatures().get(0).getPlace_name();
+            if (!features.isEmpty() && features.get(0).placeName() != null) {
+                String address = features.get(0).placeName();
                 log.info("✅ Successfully reverse geocoded [{}, {}] to '{}'", latitude, longitude, address);
+                reverseGeocodeCache.put(latitude.doubleValue(), longitude.doubleValue(), address);
                 return address;
             } else {
                 log.warn("⚠️ No address found for coordinates [{}, {}]", latitude, longitude);
                 return String.format("Координаты: %s, %s", latitude, longitude);
             }
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            onThrottled(e);
+            log.warn("🛑 Mapbox rate limit exceeded for reverse geocoding [{}, {}]", latitude, longitude);
+            return String.format("Координаты: %s, %s", latitude, longitude);
         } catch (Exception e) {
             log.error("❌ Error during reverse geocoding for coordinates [{}, {}]", latitude, longitude, e);
             return String.format("Координаты: %s, %s", latitude, longitude);
@@ -143,41 +276,57 @@ public class MapboxGeocodingService implements GeocodingService {
 
     /**
      * 🔍 Реализация поиска ближайших мест из интерфейса
+     * Один запрос к Mapbox на resultDepth мест кэшируется по запросу и ячейке точки,
+     * страницы и повторные поиски рядом отвечаются из кэша (в том числе без квоты)
      */
     @Override
-    public List<MapboxPlace> searchNearbyPlaces(BigDecimal longitude, BigDecimal latitude, String query, int limit) {
+    public List<MapboxPlace> searchNearbyPlaces(BigDecimal longitude, BigDecimal latitude,
+                                                String query, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        List<MapboxResponseReader.Feature> cached = placeSearchCache.get(query, lat, lon);
+        if (cached != null) {
+            log.debug("🗄️ Nearby places cache hit for query: '{}' near [{}, {}]", query, latitude, longitude);
+            return page(cached, offset, limit);
+        }
+
         if (!geocodingAvailable) {
             log.warn("⚠️ Geocoding service unavailable for nearby places search");
             return Collections.emptyList();
         }
 
+        if (!quotaManager.tryAcquire(GeocodingPriority.INTERACTIVE)) {
+            log.warn("🚦 Mapbox quota exhausted, skipping nearby places search for query: '{}'", query);
+            return Collections.emptyList();
+        }
+
         try {
-            String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
-            String url = String.format("%s/%s.json?access_token=%s&proximity=%s,%s&limit=%d&types=poi&country=%s",
-                    mapboxConfig.getGeocodingUrl(),
-                    encodedQuery,
-                    mapboxConfig.getAccess().getToken(),
-                    longitude,
-                    latitude,
-                    Math.min(limit, mapboxConfig.getGeocoding().getLimit()),
-                    mapboxConfig.getGeocoding().getCountry());
+            int depth = placeSearchCache.resultDepth();
+            double[] proximity = placeSearchCache.proximity(lat, lon);
+            URI uri = urlTemplate.places(query, BigDecimal.valueOf(proximity[1]), BigDecimal.valueOf(proximity[0]), depth);
 
             log.debug("🔍 Searching nearby places for query: '{}' near [{}, {}]", query, latitude, longitude);
 
-            MapboxGeocodingResponse response = restTemplate.getForObject(url, MapboxGeocodingResponse.class);
-
-            if (response != null && response.getFeatures() != null) {
-                List<MapboxPlace> places = response.getFeatures().stream()
-                        .map(this::convertFeatureToPlace)
-                        .collect(Collectors.toList());
+            List<MapboxResponseReader.Feature> features = fetchFeatures(uri, depth);
+            onMapboxSuccess();
+            placeSearchCache.put(query, lat, lon, features);
 
-                log.info("✅ Found {} nearby places for query: '{}'", places.size(), query);
-                return places;
+            if (features.isEmpty()) {
+                log.warn("⚠️ No nearby places found for query: '{}'", query);
+                return Collections.emptyList();
             }
 
-            log.warn("⚠️ No nearby places found for query: '{}'", query);
-            return Collections.emptyList();
+            log.info("✅ Found {} nearby places for query: '{}'", features.size(), query);
+            return page(features, offset, limit);
 
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            onThrottled(e);
+            log.warn("🛑 Mapbox rate limit exceeded for nearby places search: '{}'", query);
+            return Collections.emptyList();
         } catch (Exception e) {
             log.error("❌ Error searching nearby places for query: '{}'", query, e);
             return Collections.emptyList();
@@ -249,32 +398,58 @@ public class MapboxGeocodingService implements GeocodingService {
     // === PRIVATE UTILITY МЕТОДЫ ===
 
     /**
-     * Проверяет валидность токена делая тестовый запрос
+     * Проверяет валидность токена делая тестовый запрос (только из фоновой проверки)
      */
     private void validateToken() {
         try {
             log.debug("🔍 Validating Mapbox token...");
 
-            String testAddress = "Moscow";
-            String encodedAddress = URLEncoder.encode(testAddress, StandardCharsets.UTF_8);
-            String url = String.format("%s/%s.json?%s",
-                    mapboxConfig.getGeocodingUrl(),
-                    encodedAddress,
-                    mapboxConfig.getDefaultParams());
-
-            MapboxGeocodingResponse response = restTemplate.getForObject(url, MapboxGeocodingResponse.class);
-
-            if (response != null && response.getFeatures() != null) {
-                log.info("✅ Mapbox token is valid - test geocoding successful");
-            } else {
-                throw new RuntimeException("Invalid response from Mapbox API");
-            }
+            fetchFeatures(urlTemplate.forward("Moscow"), 1);
+            log.debug("✅ Mapbox token is valid - test geocoding successful");
 
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Token validation failed: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * GET к Mapbox с потоковым чтением первых maxFeatures объектов ответа
+     * (ошибки HTTP - исключения RestTemplate, как и раньше)
+     */
+    private List<MapboxResponseReader.Feature> fetchFeatures(URI uri, int maxFeatures) {
+        List<MapboxResponseReader.Feature> features = restTemplate.execute(uri, HttpMethod.GET, null,
+                response -> responseReader.read(response.getBody(), maxFeatures));
+        return features != null ? features : Collections.emptyList();
+    }
+
+    /**
+     * Успешный ответ Mapbox: токен рабочий, квота может восстанавливать лимит
+     */
+    private void onMapboxSuccess() {
+        quotaManager.onSuccess();
+        lastVerifiedNanos = System.nanoTime();
+        geocodingAvailable = true;
+    }
+
+    /**
+     * Сообщает квоте об ответе 429 с паузой из Retry-After (в секундах), если она есть
+     */
+    private void onThrottled(HttpClientErrorException.TooManyRequests e) {
+        Duration retryAfter = null;
+        HttpHeaders headers = e.getResponseHeaders();
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value != null) {
+            try {
+                retryAfter = Duration.ofSeconds(Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignored) {
+                // Retry-After в формате даты: используется собственная пауза квоты
+            }
+        }
+        quotaManager.onThrottled(retryAfter);
+    }
+
     /**
      * Маскирует токен для безопасного логирования
      */
@@ -288,90 +463,59 @@ public class MapboxGeocodingService implements GeocodingService {
     }
 
     /**
-     * Преобразует MapboxFeature в MapboxPlace
+     * Страница мест из полного ответа Mapbox
      */
-    private MapboxPlace convertFeatureToPlace(MapboxFeature feature) {
-        double[] coordinates = feature.getGeometry().getCoordinates();
+    private List<MapboxPlace> page(List<MapboxResponseReader.Feature> features, int offset, int limit) {
+        if (offset >= features.size()) {
+            return Collections.emptyList();
+        }
+        return features.subList(offset, offset + Math.min(limit, features.size() - offset)).stream()
+                .map(this::convertFeatureToPlace)
+                .toList();
+    }
+
+    /**
+     * Преобразует объект ответа Mapbox в MapboxPlace
+     */
+    private MapboxPlace convertFeatureToPlace(MapboxResponseReader.Feature feature) {
         return MapboxPlace.builder()
-                .name(feature.getText())
-                .fullName(feature.getPlace_name())
-                .longitude(BigDecimal.valueOf(coordinates[0]))
-                .latitude(BigDecimal.valueOf(coordinates[1]))
+                .name(feature.text())
+                .fullName(feature.placeName())
+                .longitude(BigDecimal.valueOf(feature.longitude()))
+                .latitude(BigDecimal.valueOf(feature.latitude()))
                 .build();
     }
 
     /**
-     * Получает fallback координаты для адреса
+     * Получает fallback координаты для адреса из офлайн-справочника
+     * (населенный пункт, почтовый индекс или страна)
      */
-    private GeoLocation getFallbackCoordinatesForAddress(String address) {
-        // Простая логика определения города из адреса
-        String lowerAddress = address.toLowerCase();
-
-        if (lowerAddress.contains("харьков") || lowerAddress.contains("kharkiv")) {
-            return new GeoLocation(new BigDecimal("49.9935"), new BigDecimal("36.2304"));
-        }
-        if (lowerAddress.contains("киев") || lowerAddress.contains("kiev") || lowerAddress.contains("kyiv")) {
-            return new GeoLocation(new BigDecimal("50.4501"), new BigDecimal("30.5234"));
-        }
-        if (lowerAddress.contains("одесса") || lowerAddress.contains("odesa")) {
-            return new GeoLocation(new BigDecimal("46.4825"), new BigDecimal("30.7233"));
-        }
-        if (lowerAddress.contains("москва") || lowerAddress.contains("moscow")) {
-            return new GeoLocation(new BigDecimal("55.7558"), new BigDecimal("37.6176"));
-        }
-        if (lowerAddress.contains("петербург") || lowerAddress.contains("spb")) {
-            return new GeoLocation(new BigDecimal("59.9311"), new BigDecimal("30.3609"));
+    private GeoLocation getFallbackCoordinatesForAddress(String address, OfflineGazetteer.Match local) {
+        if (local != null) {
+            log.debug("📖 Fallback for '{}': {} ({})", address, local.place().name(), local.place().level());
+            return toGeoLocation(local.place(), true);
         }
 
-        // По умолчанию - центр Европы
-        log.debug("🌍 Using default European coordinates for unknown address: {}", address);
-        return new GeoLocation(new BigDecimal("50.0000"), new BigDecimal("20.0000"));
+        log.warn("🌍 Address '{}' not found in gazetteer, using default coordinates", address);
+        return new GeoLocation(locationConfig.getFallback().getLatitude(), locationConfig.getFallback().getLongitude(), true);
     }
 
     /**
-     * Получает примерные координаты по названию города
+     * Получает примерные координаты по названию города из офлайн-справочника
      */
     private BigDecimal[] getFallbackCoordinatesByCity(String city, String country) {
-        if (city == null) city = "";
-        if (country == null) country = "";
-
-        String key = (city + ", " + country).toLowerCase();
-
-        // Украина
-        if (key.contains("харьков") || key.contains("kharkiv") || key.contains("kharkov")) {
-            return new BigDecimal[]{new BigDecimal("49.9935"), new BigDecimal("36.2304")};
-        }
-        if (key.contains("киев") || key.contains("kiev") || key.contains("kyiv")) {
-            return new BigDecimal[]{new BigDecimal("50.4501"), new BigDecimal("30.5234")};
-        }
-        if (key.contains("одесса") || key.contains("odesa") || key.contains("odessa")) {
-            return new BigDecimal[]{new BigDecimal("46.4825"), new BigDecimal("30.7233")};
-        }
-
-        // Россия
-        if (key.contains("москва") || key.contains("moscow")) {
-            return new BigDecimal[]{new BigDecimal("55.7558"), new BigDecimal("37.6176")};
-        }
-        if (key.contains("петербург") || key.contains("spb") || key.contains("petersburg")) {
-            return new BigDecimal[]{new BigDecimal("59.9311"), new BigDecimal("30.3609")};
+        OfflineGazetteer.Place place = gazetteer.resolveCity(city, country);
+        if (place != null) {
+            GeoLocation location = toGeoLocation(place, true);
+            return new BigDecimal[]{location.getLatitude(), location.getLongitude()};
         }
 
-        // США
-        if (key.contains("new york")) {
-            return new BigDecimal[]{new BigDecimal("40.7128"), new BigDecimal("-74.0060")};
-        }
-        if (key.contains("los angeles")) {
-            return new BigDecimal[]{new BigDecimal("34.0522"), new BigDecimal("-118.2437")};
-        }
-
-        // Германия
-        if (key.contains("berlin")) {
-            return new BigDecimal[]{new BigDecimal("52.5200"), new BigDecimal("13.4050")};
-        }
+        log.warn("🌍 City '{}, {}' not found in gazetteer, using default coordinates", city, country);
+        return new BigDecimal[]{locationConfig.getFallback().getLatitude(), locationConfig.getFallback().getLongitude()};
+    }
 
-        // По умолчанию - центр Европы
-        log.debug("🌍 Using default European coordinates for unknown city: {}", city);
-        return new BigDecimal[]{new BigDecimal("50.0000"), new BigDecimal("20.0000")};
+    private static GeoLocation toGeoLocation(OfflineGazetteer.Place place, boolean approximate) {
+        return new GeoLocation(BigDecimal.valueOf(place.latitude()), BigDecimal.valueOf(place.longitude()), approximate);
     }
 
     /**
@@ -386,78 +530,3 @@ public class MapboxGeocodingService implements GeocodingService {
         );
     }
 }
-
-// === DTO КЛАССЫ ДЛЯ MAPBOX API ===
-
-/**
- * Ответ от Mapbox Geocoding API
- */
-class MapboxGeocodingResponse {
-    private String type;
-    private String[] query;
-    private List<MapboxFeature> features;
-    private String attribution;
-
-    // Getters and Setters
-    public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
-
-    public String[] getQuery() { return query; }
-    public void setQuery(String[] query) { this.query = query; }
-
-    public List<MapboxFeature> getFeatures() { return features; }
-    public void setFeatures(List<MapboxFeature> features) { this.features = features; }
-
-    public String getAttribution() { return attribution; }
-    public void setAttribution(String attribution) { this.attribution = attribution; }
-}
-
-/**
- * Feature из ответа Mapbox
- */
-class MapboxFeature {
-    private String id;
-    private String type;
-    private String place_name;
-    private String[] place_type;
-    private double relevance;
-    private String text;
-    private MapboxGeometry geometry;
-
-    // Getters and Setters
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
-
-    public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
-
-    public String getPlace_name() { return place_name; }
-    public void setPlace_name(String place_name) { this.place_name = place_name; }
-
-    public String[] getPlace_type() { return place_type; }
-    public void setPlace_type(String[] place_type) { this.place_type = place_type; }
-
-    public double getRelevance() { return relevance; }
-    public void setRelevance(double relevance) { this.relevance = relevance; }
-
-    public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
-
-    public MapboxGeometry getGeometry() { return geometry; }
-    public void setGeometry(MapboxGeometry geometry) { this.geometry = geometry; }
-}
-
-/**
- * Геометрия из ответа Mapbox
- */
-class MapboxGeometry {
-    private String type;
-    private double[] coordinates;
-
-    // Getters and Setters
-    public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
-
-    public double[] getCoordinates() { return coordinates; }
-    public void setCoordinates(double[] coordinates) { this.coordinates = coordinates; }
-}
\ No newline at end of file
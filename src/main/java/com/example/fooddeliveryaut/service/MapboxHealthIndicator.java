@@ -0,0 +1,38 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 🩺 Состояние Mapbox для /actuator/health
+ *
+ * Недоступный Mapbox отдается как UNKNOWN, а не DOWN: геокодирование продолжает
+ * работать на офлайн-справочнике, и снимать инстанс из Eureka не нужно.
+ */
+@Component("mapbox")
+@RequiredArgsConstructor
+public class MapboxHealthIndicator implements HealthIndicator {
+
+    private final MapboxGeocodingService mapboxGeocodingService;
+    private final MapboxConfigProperties mapboxConfig;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = mapboxGeocodingService.isGeocodingAvailable()
+                ? Health.up()
+                : Health.unknown();
+
+        builder.withDetail("tokenConfigured", mapboxConfig.hasValidToken())
+                .withDetail("fallbackMode", !mapboxGeocodingService.isGeocodingAvailable());
+        if (mapboxGeocodingService.getLastCheckedAt() != null) {
+            builder.withDetail("lastCheckedAt", mapboxGeocodingService.getLastCheckedAt().toString());
+        }
+        if (mapboxGeocodingService.getLastCheckError() != null) {
+            builder.withDetail("lastError", mapboxGeocodingService.getLastCheckError());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.util.AddressNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 📖 Офлайн-справочник населенных пунктов для резервного геокодирования
+ *
+ * Загружается при старте из встроенного файла (app.location.gazetteer.resource):
+ * населенные пункты, страны и диапазоны почтовых индексов. Поиск - по хэш-таблицам:
+ * - название или псевдоним (после {@link AddressNormalizer}) -> населенные пункты
+ * - название страны -> код страны
+ * - длина индекса + префикс -> населенные пункты (самый длинный совпавший префикс)
+ *
+ * В адресе проверяются все последовательности до maxNameWords слов, то есть
+ * O(слов) обращений к хэш-таблицам без вызова Mapbox.
+ */
+@Component
+@Slf4j
+public class OfflineGazetteer {
+
+    // Слово "город" в адресе не мешает считать адрес точным названием населенного пункта
+    private static final String CITY_MARKER = "г";
+    private static final int COLUMNS = 7;
+
+    private final Map<String, List<Place>> localities = new HashMap<>();
+    private final Map<String, Place> countries = new HashMap<>();
+    private final Map<String, List<Place>> postalPrefixes = new HashMap<>();
+    private final Map<Integer, Set<String>> postalCountries = new HashMap<>();
+    private final List<Name> names = new ArrayList<>();
+    private int maxNameWords = 1;
+
+    private final Counter localityCounter;
+    private final Counter postalCodeCounter;
+    private final Counter countryCounter;
+    private final Counter missCounter;
+
+    public OfflineGazetteer(LocationConfigProperties locationConfig,
+                            ResourceLoader resourceLoader,
+                            MeterRegistry meterRegistry) {
+        String location = locationConfig.getGazetteer().getResource();
+        load(resourceLoader.getResource(location));
+
+        this.localityCounter = lookupCounter(meterRegistry, "locality");
+        this.postalCodeCounter = lookupCounter(meterRegistry, "postal_code");
+        this.countryCounter = lookupCounter(meterRegistry, "country");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+
+        log.info("📖 Справочник населенных пунктов {}: {} названий, {} стран, {} префиксов индексов",
+                location, localities.size(), countries.size(), postalPrefixes.size());
+    }
+
+    /**
+     * 🔍 Место для произвольной строки адреса или null
+     *
+     * Порядок: населенный пункт (самый правый в адресе), затем почтовый индекс,
+     * затем страна. Если страна в адресе не указана, при неоднозначности
+     * предпочитается defaultCountry.
+     *
+     * @param defaultCountry код или название страны по умолчанию (может быть null)
+     */
+    public Match resolveAddress(String address, String defaultCountry) {
+        String normalized = AddressNormalizer.normalize(address);
+        if (normalized.isEmpty()) {
+            missCounter.increment();
+            return null;
+        }
+        String[] words = normalized.split(" ");
+        boolean[] covered = new boolean[words.length];
+
+        Place country = null;
+        int localityEnd = -1;
+        int localityStart = -1;
+        List<Place> localityCandidates = null;
+
+        for (int start = 0; start < words.length; start++) {
+            for (int count = Math.min(maxNameWords, words.length - start); count >= 1; count--) {
+                int end = start + count;
+                String name = String.join(" ", Arrays.asList(words).subList(start, end));
+
+                Place countryPlace = countries.get(name);
+                // Двухбуквенные коды стран в тексте адреса слишком легко спутать с другими словами
+                if (countryPlace != null && name.length() > 2) {
+                    country = countryPlace;
+                    markCovered(covered, start, end);
+                    break;
+                }
+
+                List<Place> candidates = localities.get(name);
+                if (candidates != null && !isStreetName(words, start, end)
+                        && (end > localityEnd || (end == localityEnd && start < localityStart))) {
+                    localityStart = start;
+                    localityEnd = end;
+                    localityCandidates = candidates;
+                    break;
+                }
+            }
+        }
+
+        String countryCode = country != null ? country.countryCode() : null;
+        String preferredCountry = countryCode != null ? countryCode : countryCode(defaultCountry);
+
+        if (localityCandidates != null) {
+            markCovered(covered, localityStart, localityEnd);
+            localityCounter.increment();
+            return new Match(pick(localityCandidates, countryCode, preferredCountry), isExact(words, covered));
+        }
+
+        Place byPostalCode = resolvePostalCode(words, countryCode, preferredCountry);
+        if (byPostalCode != null) {
+            postalCodeCounter.increment();
+            return new Match(byPostalCode, false);
+        }
+
+        if (country != null) {
+            countryCounter.increment();
+            return new Match(country, false);
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 🏙️ Место по отдельно заданным городу и стране или null
+     *
+     * Неизвестный город с известной страной дает точку страны (столицу).
+     */
+    public Place resolveCity(String city, String country) {
+        String countryCode = countryCode(country);
+
+        List<Place> candidates = localities.get(AddressNormalizer.normalize(city));
+        if (candidates != null) {
+            localityCounter.increment();
+            return pick(candidates, countryCode, countryCode);
+        }
+
+        Place countryPlace = countryCode == null ? null : countries.get(countryCode.toLowerCase(Locale.ROOT));
+        if (countryPlace != null) {
+            countryCounter.increment();
+            return countryPlace;
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * Код страны (ISO 3166-1 alpha-2) по коду или названию, null если страна неизвестна
+     */
+    public String countryCode(String country) {
+        if (country == null) {
+            return null;
+        }
+        Place place = countries.get(AddressNormalizer.normalize(country));
+        return place == null ? null : place.countryCode();
+    }
+
+    public int size() {
+        return localities.size();
+    }
+
+    /**
+     * Все названия и псевдонимы мест в написании справочника (для автодополнения)
+     */
+    public List<Name> names() {
+        return Collections.unmodifiableList(names);
+    }
+
+    // === ПОИСК ===
+
+    private Place resolvePostalCode(String[] words, String countryCode, String preferredCountry) {
+        for (int i = words.length - 1; i >= 0; i--) {
+            String word = words[i];
+            if (word.length() < 4 || !word.chars().allMatch(Character::isDigit)) {
+                continue;
+            }
+            String postalCountry = postalCountry(word.length(), countryCode, preferredCountry);
+            if (postalCountry == null) {
+                continue;
+            }
+            // Самый длинный совпавший префикс среди индексов той же длины
+            for (int prefix = word.length() - 1; prefix >= 2; prefix--) {
+                List<Place> candidates = postalPrefixes.get(postalKey(word.length(), word.substring(0, prefix)));
+                Place place = candidates == null ? null : byCountry(candidates, postalCountry);
+                if (place != null) {
+                    return place;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Индексы одной длины есть у разных стран (5 цифр в Украине, Германии, США):
+     * без страны в адресе подходит только единственная такая страна или страна по умолчанию
+     */
+    private String postalCountry(int length, String countryCode, String preferredCountry) {
+        Set<String> codes = postalCountries.get(length);
+        if (codes == null) {
+            return null;
+        }
+        if (countryCode != null) {
+            return codes.contains(countryCode) ? countryCode : null;
+        }
+        if (codes.size() == 1) {
+            return codes.iterator().next();
+        }
+        return codes.contains(preferredCountry) ? preferredCountry : null;
+    }
+
+    /**
+     * Одноименные населенные пункты: страна из запроса, затем страна по умолчанию, затем крупнейший
+     */
+    private static Place pick(List<Place> candidates, String countryCode, String preferredCountry) {
+        if (candidates.size() > 1) {
+            Place place = countryCode != null ? byCountry(candidates, countryCode) : null;
+            if (place == null && preferredCountry != null) {
+                place = byCountry(candidates, preferredCountry);
+            }
+            if (place != null) {
+                return place;
+            }
+        }
+        // Списки отсортированы по убыванию населения при загрузке
+        return candidates.get(0);
+    }
+
+    private static Place byCountry(List<Place> candidates, String countryCode) {
+        for (Place place : candidates) {
+            if (place.countryCode().equals(countryCode)) {
+                return place;
+            }
+        }
+        return null;
+    }
+
+    // "ул Киевская" не должна дать Киев
+    private static boolean isStreetName(String[] words, int start, int end) {
+        return (start > 0 && AddressNormalizer.isStreetTypeBeforeName(words[start - 1]))
+                || (end < words.length && AddressNormalizer.isStreetTypeAfterName(words[end]));
+    }
+
+    private static boolean isExact(String[] words, boolean[] covered) {
+        for (int i = 0; i < words.length; i++) {
+            if (!covered[i] && !CITY_MARKER.equals(words[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void markCovered(boolean[] covered, int start, int end) {
+        for (int i = start; i < end; i++) {
+            covered[i] = true;
+        }
+    }
+
+    // === ЗАГРУЗКА ===
+
+    private void load(Resource resource) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                parseLine(line, lineNumber);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось загрузить справочник населенных пунктов " + resource, e);
+        }
+
+        localities.values().forEach(places ->
+                places.sort((a, b) -> Long.compare(b.population(), a.population())));
+    }
+
+    private void parseLine(String line, int lineNumber) {
+        String[] columns = line.split("\t", -1);
+        if (columns.length != COLUMNS) {
+            throw new IllegalStateException("Справочник населенных пунктов, строка " + lineNumber
+                    + ": ожидалось " + COLUMNS + " колонок, найдено " + columns.length);
+        }
+
+        try {
+            Level level = Level.valueOf(columns[0].trim().toUpperCase(Locale.ROOT));
+            String countryCode = columns[1].trim().toUpperCase(Locale.ROOT);
+            String[] aliases = columns[2].split("\\|");
+            Place place = new Place(level, countryCode, aliases[0].trim(),
+                    Double.parseDouble(columns[3].trim()),
+                    Double.parseDouble(columns[4].trim()),
+                    columns[5].isBlank() ? 0 : Long.parseLong(columns[5].trim()));
+
+            if (level == Level.COUNTRY) {
+                countries.put(countryCode.toLowerCase(Locale.ROOT), place);
+                for (String name : aliases) {
+                    countries.put(AddressNormalizer.normalize(name), place);
+                    names.add(new Name(name.trim(), place));
+                }
+                return;
+            }
+
+            for (String name : aliases) {
+                names.add(new Name(name.trim(), place));
+                String key = AddressNormalizer.normalize(name);
+                localities.computeIfAbsent(key, k -> new ArrayList<>()).add(place);
+                maxNameWords = Math.max(maxNameWords, key.split(" ").length);
+            }
+            for (String pattern : columns[6].split("\\|")) {
+                if (pattern.isBlank()) {
+                    continue;
+                }
+                String code = pattern.trim();
+                String prefix = code.substring(0, code.indexOf('x') < 0 ? code.length() : code.indexOf('x'));
+                postalPrefixes.computeIfAbsent(postalKey(code.length(), prefix), k -> new ArrayList<>()).add(place);
+                postalCountries.computeIfAbsent(code.length(), k -> new HashSet<>()).add(countryCode);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Справочник населенных пунктов, строка " + lineNumber
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String postalKey(int length, String prefix) {
+        return length + ":" + prefix;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gazetteer.lookups")
+                .description("Запросы к офлайн-справочнику населенных пунктов по результату")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Уровень точности места
+     */
+    public enum Level {
+        LOCALITY,
+        COUNTRY
+    }
+
+    /**
+     * 📍 Населенный пункт или страна (для страны - координаты столицы)
+     */
+    public record Place(Level level, String countryCode, String name,
+                        double latitude, double longitude, long population) {
+    }
+
+    /**
+     * Название или псевдоним места
+     */
+    public record Name(String name, Place place) {
+    }
+
+    /**
+     * Результат поиска по адресу
+     *
+     * @param exact адрес целиком состоит из названия населенного пункта (и страны),
+     *              поэтому точка справочника не хуже ответа Mapbox
+     */
+    public record Match(Place place, boolean exact) {
+    }
+}
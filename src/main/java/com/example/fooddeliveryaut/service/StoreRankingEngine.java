@@ -0,0 +1,107 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.TopK;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * 🏆 Локальное ранжирование магазинов-кандидатов
+ *
+ * Время и стоимость доставки считаются по модели app.location.delivery.*,
+ * k лучших выбираются частичной сортировкой по составному ключу sortBy:
+ * - distance: расстояние, затем рейтинг
+ * - rating: рейтинг (по убыванию), затем расстояние
+ * - delivery_time: время доставки в минутах, затем рейтинг, затем расстояние
+ *
+ * Кандидаты задаются индексами, поэтому DTO строятся только для отобранных.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoreRankingEngine {
+
+    public static final String SORT_DISTANCE = "distance";
+    public static final String SORT_RATING = "rating";
+    public static final String SORT_DELIVERY_TIME = "delivery_time";
+
+    private final LocationConfigProperties locationConfig;
+
+    /**
+     * 🥇 limit лучших кандидатов 0..count-1 по sortBy, от лучшего к худшему
+     *
+     * @param distanceKm расстояние до кандидата
+     * @param store магазин-кандидат
+     */
+    public int[] topK(int count, int limit, String sortBy,
+                      IntToDoubleFunction distanceKm, IntFunction<NearbyStoreDto> store) {
+        return TopK.select(count, limit, comparator(sortBy, distanceKm, store));
+    }
+
+    /**
+     * 🥇 limit лучших из первых count значений candidates по sortBy
+     */
+    public int[] topK(int[] candidates, int count, int limit, String sortBy,
+                      IntToDoubleFunction distanceKm, IntFunction<NearbyStoreDto> store) {
+        return TopK.select(candidates, count, limit, comparator(sortBy, distanceKm, store));
+    }
+
+    /**
+     * 📋 Копия магазина с расстоянием, временем и стоимостью доставки
+     */
+    public NearbyStoreDto withDelivery(NearbyStoreDto store, double distanceKm) {
+        return store.toBuilder()
+                .distanceKm(distanceKm)
+                .distanceText(GeoDistanceUtil.formatDistance(distanceKm))
+                .estimatedDeliveryTime(deliveryTimeMinutes(distanceKm))
+                .deliveryFee(deliveryFee(distanceKm))
+                .build();
+    }
+
+    /**
+     * 🚚 Время доставки (мин): базовое время + путь со средней скоростью
+     */
+    public int deliveryTimeMinutes(double distanceKm) {
+        LocationConfigProperties.Delivery delivery = locationConfig.getDelivery();
+        return (int) Math.round((distanceKm / delivery.getSpeedKmh()) * 60 + delivery.getBaseTimeMinutes());
+    }
+
+    /**
+     * 💰 Стоимость доставки: базовая + за каждый километр
+     */
+    public BigDecimal deliveryFee(double distanceKm) {
+        LocationConfigProperties.Delivery delivery = locationConfig.getDelivery();
+        return delivery.getBaseFee().add(delivery.getFeePerKm().multiply(BigDecimal.valueOf(distanceKm)));
+    }
+
+    /**
+     * Составной ключ сортировки (неизвестный sortBy - как distance)
+     */
+    public TopK.IndexComparator comparator(String sortBy, IntToDoubleFunction distanceKm,
+                                           IntFunction<NearbyStoreDto> store) {
+        TopK.IndexComparator byDistance = (a, b) ->
+                Double.compare(distanceKm.applyAsDouble(a), distanceKm.applyAsDouble(b));
+        TopK.IndexComparator byRatingDesc = (a, b) ->
+                Double.compare(ratingOf(store.apply(b)), ratingOf(store.apply(a)));
+
+        if (SORT_RATING.equals(sortBy)) {
+            return byRatingDesc.thenComparing(byDistance);
+        }
+        if (SORT_DELIVERY_TIME.equals(sortBy)) {
+            TopK.IndexComparator byDeliveryTime = (a, b) -> Integer.compare(
+                    deliveryTimeMinutes(distanceKm.applyAsDouble(a)),
+                    deliveryTimeMinutes(distanceKm.applyAsDouble(b)));
+            return byDeliveryTime.thenComparing(byRatingDesc).thenComparing(byDistance);
+        }
+        return byDistance.thenComparing(byRatingDesc);
+    }
+
+    private static double ratingOf(NearbyStoreDto store) {
+        return store.getRating() == null ? 0 : store.getRating();
+    }
+}
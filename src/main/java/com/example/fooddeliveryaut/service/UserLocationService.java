@@ -2,7 +2,9 @@ package com.example.fooddeliveryaut.service;
 
 import com.example.fooddeliveryaut.dto.*;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 🌍 Сервис для работы с геолокацией пользователей
@@ -54,6 +56,16 @@ public interface UserLocationService {
      */
     List<NearbyStoreDto> findNearbyStores(Long userId, FindNearbyStoresDto searchDto);
 
+    /**
+     * ⚡ Поиск ближайших магазинов без блокировки потока на вызове сервиса магазинов
+     *
+     * @param userId ID пользователя
+     * @param searchDto параметры поиска
+     * @return future со списком ближайших магазинов
+     * @throws RuntimeException если пользователь не найден или у него нет геолокации
+     */
+    CompletableFuture<List<NearbyStoreDto>> findNearbyStoresAsync(Long userId, FindNearbyStoresDto searchDto);
+
     /**
      * 📏 Расчет расстояния между пользователем и конкретным магазином
      *
@@ -64,6 +76,36 @@ public interface UserLocationService {
      */
     DistanceCalculationDto calculateDistanceToStore(Long userId, Long storeId);
 
+    /**
+     * ⚡ Расчет расстояния до магазина без блокировки потока на вызове сервиса магазинов
+     *
+     * @param userId ID пользователя
+     * @param storeId ID магазина
+     * @return future с информацией о расстоянии и времени доставки
+     * @throws RuntimeException если пользователь не найден или нет геолокации
+     */
+    CompletableFuture<DistanceCalculationDto> calculateDistanceToStoreAsync(Long userId, Long storeId);
+
+    /**
+     * 📏 Пакетный расчет расстояний между пользователем и несколькими магазинами
+     *
+     * @param userId ID пользователя
+     * @param storeIds ID магазинов
+     * @return расстояния и время доставки для найденных магазинов (в порядке запроса)
+     * @throws RuntimeException если пользователь не найден или нет геолокации
+     */
+    List<DistanceCalculationDto> calculateDistancesToStores(Long userId, List<Long> storeIds);
+
+    /**
+     * 👥 Пользователи в радиусе от точки, отсортированные по расстоянию
+     *
+     * @param latitude широта точки
+     * @param longitude долгота точки
+     * @param radiusKm радиус поиска в км
+     * @return пользователи с геолокацией внутри круга, от ближайшего к дальнему
+     */
+    List<UserResponseDto> findUsersWithinRadius(BigDecimal latitude, BigDecimal longitude, double radiusKm);
+
     /**
      * 📊 Получение статистики по геолокации пользователей (для админов)
      *
@@ -1,22 +1,40 @@
 package com.example.fooddeliveryaut.service.impl;
 
-import com.example.fooddeliveryaut.config.LocationConfigProperties;
-import com.example.fooddeliveryaut.config.ServiceNamesProperties;
+import com.example.fooddeliveryaut.cache.NearbyStoresCache;
+import com.example.fooddeliveryaut.cache.StoreCatalogReplica;
+import com.example.fooddeliveryaut.cache.StoreLocationCache;
+import com.example.fooddeliveryaut.cache.UserOriginCache;
+import com.example.fooddeliveryaut.config.ProductServiceProperties;
 import com.example.fooddeliveryaut.dto.*;
 import com.example.fooddeliveryaut.mapper.UserMapper;
 import com.example.fooddeliveryaut.model.User;
 import com.example.fooddeliveryaut.repository.UserRepository;
+import com.example.fooddeliveryaut.service.GeoLocation;
+import com.example.fooddeliveryaut.service.GeocodingService;
+import com.example.fooddeliveryaut.service.StoreRankingEngine;
 import com.example.fooddeliveryaut.service.UserLocationService;
+import com.example.fooddeliveryaut.util.FutureUtil;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.GeoRadiusFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,9 +44,13 @@ public class UserLocationServiceImpl implements UserLocationService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final RestTemplate restTemplate; // Должен быть @LoadBalanced
-    private final LocationConfigProperties locationConfig;
-    private final ServiceNamesProperties serviceNames;
+    private final StoreLocationCache storeLocationCache;
+    private final NearbyStoresCache nearbyStoresCache;
+    private final UserOriginCache userOriginCache;
+    private final StoreCatalogReplica storeCatalogReplica;
+    private final StoreRankingEngine storeRankingEngine;
+    private final GeocodingService geocodingService;
+    private final ProductServiceProperties productServiceProperties;
 
     /**
      * 📍 Обновление координат пользователя
@@ -55,6 +77,7 @@ public class UserLocationServiceImpl implements UserLocationService {
         }
 
         User savedUser = userRepository.save(user);
+        userOriginCache.invalidate(userId);
         log.info("✅ Геолокация пользователя {} обновлена: [{}, {}]",
                 userId, savedUser.getLatitude(), savedUser.getLongitude());
 
@@ -85,6 +108,7 @@ public class UserLocationServiceImpl implements UserLocationService {
         }
 
         User savedUser = userRepository.save(user);
+        userOriginCache.invalidate(userId);
         log.info("✅ Адрес пользователя {} обновлен: {}", userId, savedUser.getFullAddress());
 
         return userMapper.toResponseDto(savedUser);
@@ -125,21 +149,12 @@ public class UserLocationServiceImpl implements UserLocationService {
         log.info("🔍 Поиск ближайших магазинов для пользователя ID: {}", userId);
 
         User user = findUserById(userId);
+        applyUserCoordinates(user, searchDto);
 
-        // Используем координаты пользователя, если они не переданы в запросе
-        BigDecimal latitude = searchDto.getLatitude() != null ?
-                searchDto.getLatitude() : user.getLatitude();
-        BigDecimal longitude = searchDto.getLongitude() != null ?
-                searchDto.getLongitude() : user.getLongitude();
-
-        if (latitude == null || longitude == null) {
-            throw new RuntimeException("Координаты пользователя не установлены. Добавьте геолокацию в профиле.");
+        if (storeCatalogReplica.isReady()) {
+            return findInCatalogReplica(searchDto, userId);
         }
 
-        // Обновляем DTO с координатами пользователя
-        searchDto.setLatitude(latitude);
-        searchDto.setLongitude(longitude);
-
         // Вызываем сервис магазинов для поиска
         List<NearbyStoreDto> nearbyStores = callStoreServiceForNearbyStores(searchDto);
 
@@ -149,6 +164,30 @@ public class UserLocationServiceImpl implements UserLocationService {
         return nearbyStores;
     }
 
+    /**
+     * ⚡ Поиск ближайших магазинов без блокировки потока на вызове сервиса магазинов
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<NearbyStoreDto>> findNearbyStoresAsync(Long userId, FindNearbyStoresDto searchDto) {
+        log.info("🔍 Асинхронный поиск ближайших магазинов для пользователя ID: {}", userId);
+
+        User user = findUserById(userId);
+        applyUserCoordinates(user, searchDto);
+
+        if (storeCatalogReplica.isReady()) {
+            return CompletableFuture.completedFuture(findInCatalogReplica(searchDto, userId));
+        }
+
+        return nearbyStoresCache.findAsync(searchDto)
+                .exceptionally(e -> nearbyStoresFallback(searchDto, FutureUtil.unwrap(e)))
+                .thenApply(nearbyStores -> {
+                    log.info("✅ Найдено {} магазинов в радиусе {} км от пользователя {}",
+                            nearbyStores.size(), searchDto.getRadiusKm(), userId);
+                    return nearbyStores;
+                });
+    }
+
     /**
      * 📏 Расчет расстояния между пользователем и магазином
      */
@@ -164,27 +203,134 @@ public class UserLocationServiceImpl implements UserLocationService {
         }
 
         // Получаем координаты магазина через API
-        StoreLocationDto  storeLocation = getStoreLocation(storeId);
+        StoreLocationDto storeLocation = getStoreLocation(storeId);
 
-        // Рассчитываем расстояние
-        double distanceKm = calculateDistanceInKm(
-                user.getLatitude(), user.getLongitude(),
-                storeLocation.getLatitude(), storeLocation.getLongitude()
-        );
+        return toDistanceDto(user, storeId, storeLocation);
+    }
 
-        // Рассчитываем время доставки и стоимость
-        int deliveryTime = calculateDeliveryTime(distanceKm);
-        BigDecimal deliveryFee = calculateDeliveryFee(distanceKm);
+    /**
+     * ⚡ Расчет расстояния до магазина без блокировки потока на вызове сервиса магазинов
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CompletableFuture<DistanceCalculationDto> calculateDistanceToStoreAsync(Long userId, Long storeId) {
+        log.debug("📏 Асинхронный расчет расстояния от пользователя {} до магазина {}", userId, storeId);
 
-        return DistanceCalculationDto.builder()
-                .storeId(storeId)
-                .storeName(storeLocation.getName())
-                .distanceKm(distanceKm)
-                .distanceText(formatDistance(distanceKm))
-                .estimatedDeliveryTime(deliveryTime)
-                .deliveryFee(deliveryFee)
-                .calculatedAt(LocalDateTime.now())
-                .build();
+        User user = findUserById(userId);
+
+        if (!user.hasLocation()) {
+            throw new RuntimeException("Геолокация пользователя не установлена");
+        }
+
+        return storeLocationCache.getAsync(storeId)
+                .exceptionally(e -> storeLocationFallback(storeId, FutureUtil.unwrap(e)))
+                .thenApply(storeLocation -> toDistanceDto(user, storeId, storeLocation));
+    }
+
+    /**
+     * 📏 Пакетный расчет расстояний от пользователя до нескольких магазинов
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DistanceCalculationDto> calculateDistancesToStores(Long userId, List<Long> storeIds) {
+        log.debug("📏 Пакетный расчет расстояний от пользователя {} до {} магазинов", userId, storeIds.size());
+
+        User user = findUserById(userId);
+
+        if (!user.hasLocation()) {
+            throw new RuntimeException("Геолокация пользователя не установлена");
+        }
+
+        // Один запрос за локациями всех магазинов, дубликаты ID отбрасываем
+        Set<Long> uniqueStoreIds = new LinkedHashSet<>(storeIds);
+        Map<Long, StoreLocationDto> locations = getStoreLocations(uniqueStoreIds);
+
+        List<StoreLocationDto> resolved = new ArrayList<>(uniqueStoreIds.size());
+        for (Long storeId : uniqueStoreIds) {
+            StoreLocationDto location = locations.get(storeId);
+            if (location != null && location.getLatitude() != null && location.getLongitude() != null) {
+                resolved.add(location);
+            } else {
+                log.warn("⚠️ Локация магазина {} не найдена, пропускаем", storeId);
+            }
+        }
+
+        int count = resolved.size();
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = resolved.get(i).getLatitude().doubleValue();
+            lons[i] = resolved.get(i).getLongitude().doubleValue();
+        }
+
+        // Рассчитываем все расстояния за один проход
+        double[] distances = new double[count];
+        GeoDistanceUtil.distancesKm(user.getLatitude().doubleValue(), user.getLongitude().doubleValue(),
+                lats, lons, distances, count);
+
+        LocalDateTime calculatedAt = LocalDateTime.now();
+        List<DistanceCalculationDto> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            StoreLocationDto location = resolved.get(i);
+            double distanceKm = distances[i];
+
+            result.add(DistanceCalculationDto.builder()
+                    .storeId(location.getStoreId())
+                    .storeName(location.getName())
+                    .distanceKm(distanceKm)
+                    .distanceText(formatDistance(distanceKm))
+                    .estimatedDeliveryTime(calculateDeliveryTime(distanceKm))
+                    .deliveryFee(calculateDeliveryFee(distanceKm))
+                    .calculatedAt(calculatedAt)
+                    .build());
+        }
+
+        return result;
+    }
+
+    /**
+     * 👥 Пользователи в радиусе от точки
+     * Bounding box отсекает кандидатов в БД, GeoRadiusFilter отбрасывает углы box'а
+     * без тригонометрии, Haversine считается только для прошедших фильтр
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponseDto> findUsersWithinRadius(BigDecimal latitude, BigDecimal longitude, double radiusKm) {
+        double lat = latitude.doubleValue();
+        double lon = longitude.doubleValue();
+        GeoRadiusFilter radiusFilter = new GeoRadiusFilter(lat, lon, radiusKm);
+
+        List<User> candidates = new ArrayList<>();
+        for (double[] range : radiusFilter.getLongitudeRanges()) {
+            candidates.addAll(userRepository.findUsersInBoundingBox(
+                    BigDecimal.valueOf(radiusFilter.getMinLatitude()),
+                    BigDecimal.valueOf(radiusFilter.getMaxLatitude()),
+                    BigDecimal.valueOf(range[0]),
+                    BigDecimal.valueOf(range[1])));
+        }
+
+        int count = candidates.size();
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = candidates.get(i).getLatitude().doubleValue();
+            lons[i] = candidates.get(i).getLongitude().doubleValue();
+        }
+
+        int[] inside = new int[count];
+        int found = radiusFilter.filter(lats, lons, count, inside);
+
+        double[] distances = new double[count];
+        GeoDistanceUtil.distancesKm(lat, lon, lats, lons, inside, found, distances);
+
+        log.debug("👥 Пользователи в радиусе {} км: {} из {} кандидатов", radiusKm, found, count);
+
+        return Arrays.stream(inside, 0, found)
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> distances[i]))
+                .map(i -> userMapper.toResponseDto(candidates.get(i)))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -239,6 +385,7 @@ public class UserLocationServiceImpl implements UserLocationService {
         user.clearLocation();
 
         User savedUser = userRepository.save(user);
+        userOriginCache.invalidate(userId);
         log.info("✅ Геолокация пользователя {} очищена", userId);
 
         return userMapper.toResponseDto(savedUser);
@@ -251,6 +398,46 @@ public class UserLocationServiceImpl implements UserLocationService {
                 .orElseThrow(() -> new RuntimeException("Пользователь с ID " + userId + " не найден"));
     }
 
+    /**
+     * Координаты поиска: из запроса, а если их нет - из профиля пользователя
+     */
+    private void applyUserCoordinates(User user, FindNearbyStoresDto searchDto) {
+        BigDecimal latitude = searchDto.getLatitude() != null ?
+                searchDto.getLatitude() : user.getLatitude();
+        BigDecimal longitude = searchDto.getLongitude() != null ?
+                searchDto.getLongitude() : user.getLongitude();
+
+        if (latitude == null || longitude == null) {
+            throw new RuntimeException("Координаты пользователя не установлены. Добавьте геолокацию в профиле.");
+        }
+
+        // Обновляем DTO с координатами пользователя
+        searchDto.setLatitude(latitude);
+        searchDto.setLongitude(longitude);
+    }
+
+    private DistanceCalculationDto toDistanceDto(User user, Long storeId, StoreLocationDto storeLocation) {
+        // Рассчитываем расстояние
+        double distanceKm = calculateDistanceInKm(
+                user.getLatitude(), user.getLongitude(),
+                storeLocation.getLatitude(), storeLocation.getLongitude()
+        );
+
+        // Рассчитываем время доставки и стоимость
+        int deliveryTime = calculateDeliveryTime(distanceKm);
+        BigDecimal deliveryFee = calculateDeliveryFee(distanceKm);
+
+        return DistanceCalculationDto.builder()
+                .storeId(storeId)
+                .storeName(storeLocation.getName())
+                .distanceKm(distanceKm)
+                .distanceText(formatDistance(distanceKm))
+                .estimatedDeliveryTime(deliveryTime)
+                .deliveryFee(deliveryFee)
+                .calculatedAt(LocalDateTime.now())
+                .build();
+    }
+
     private void updateUserAddressFields(User user, UpdateUserLocationDto locationDto) {
         user.setStreet(locationDto.getStreet());
         user.setCity(locationDto.getCity());
@@ -280,11 +467,13 @@ public class UserLocationServiceImpl implements UserLocationService {
 
     private void performForwardGeocoding(User user) {
         try {
-            // Здесь будет интеграция с MapboxGeocodingService
-            // GeoLocation coordinates = geocodingService.geocodeAddress(user.getFormattedAddress());
-            // user.setLatitude(coordinates.getLatitude());
-            // user.setLongitude(coordinates.getLongitude());
-            // user.setLocationUpdatedAt(LocalDateTime.now());
+            GeoLocation coordinates = geocodingService.geocodeAddress(user.getFormattedAddress());
+            // Центр города или точка по умолчанию хуже, чем отсутствие координат
+            if (coordinates.isApproximate()) {
+                log.warn("⚠️ Точные координаты для адреса не найдены: {}", user.getFormattedAddress());
+                return;
+            }
+            user.updateLocation(coordinates.getLatitude(), coordinates.getLongitude());
 
             log.info("✅ Координаты получены через geocoding для адреса: {}", user.getFormattedAddress());
 
@@ -293,60 +482,86 @@ public class UserLocationServiceImpl implements UserLocationService {
         }
     }
 
-    private List<NearbyStoreDto> callStoreServiceForNearbyStores(FindNearbyStoresDto searchDto) {
-        try {
-            // 🌐 Используем Eureka для обращения к сервису магазинов
-            String url = "http://" + serviceNames.getProductService() + "/api/stores/nearby";
-
-            log.debug("🔗 Вызов сервиса магазинов: {}", url);
+    private List<NearbyStoreDto> findInCatalogReplica(FindNearbyStoresDto searchDto, Long userId) {
+        List<NearbyStoreDto> nearbyStores = storeCatalogReplica.findNearby(searchDto);
 
-            // Отправляем POST запрос с параметрами поиска
-            NearbyStoreDto[] response = restTemplate.postForObject(url, searchDto, NearbyStoreDto[].class);
+        log.info("✅ Найдено {} магазинов в радиусе {} км от пользователя {} (локальный каталог, версия {})",
+                nearbyStores.size(), searchDto.getRadiusKm(), userId, storeCatalogReplica.getVersion());
 
-            if (response != null) {
-                List<NearbyStoreDto> stores = List.of(response);
-                log.info("✅ Получено {} магазинов от сервиса {}", stores.size(), serviceNames.getProductService());
-                return stores;
-            }
+        return nearbyStores;
+    }
 
-            log.warn("⚠️ Пустой ответ от сервиса магазинов");
-            return List.of();
+    private List<NearbyStoreDto> callStoreServiceForNearbyStores(FindNearbyStoresDto searchDto) {
+        try {
+            return nearbyStoresCache.find(searchDto);
 
         } catch (Exception e) {
-            log.error("❌ Ошибка вызова сервиса магазинов через Eureka: {}", e.getMessage());
+            return nearbyStoresFallback(searchDto, e);
+        }
+    }
 
-            // 🔄 Возвращаем временные тестовые данные для разработки
-            log.info("🔄 Возвращаем тестовые данные для разработки");
-            return createMockStores(searchDto);
+    private List<NearbyStoreDto> nearbyStoresFallback(FindNearbyStoresDto searchDto, Throwable e) {
+        log.error("❌ Ошибка вызова сервиса магазинов через Eureka: {}", e.getMessage());
+
+        if (!isMockFallbackEnabled()) {
+            throw new RuntimeException("Сервис магазинов временно недоступен", e);
         }
+
+        // 🔄 Возвращаем временные тестовые данные для разработки
+        log.info("🔄 Возвращаем тестовые данные для разработки");
+        return createMockStores(searchDto);
     }
 
     private StoreLocationDto getStoreLocation(Long storeId) {
         try {
-            // 🌐 Используем Eureka для получения информации о магазине
-            String url = "http://" + serviceNames.getProductService() + "/api/stores/" + storeId + "/location";
+            return storeLocationCache.get(storeId);
+
+        } catch (Exception e) {
+            return storeLocationFallback(storeId, e);
+        }
+    }
 
-            log.debug("🔗 Получение локации магазина: {}", url);
+    private StoreLocationDto storeLocationFallback(Long storeId, Throwable e) {
+        log.error("❌ Ошибка получения локации магазина {} через Eureka: {}", storeId, e.getMessage());
 
-            StoreLocationDto storeLocation = restTemplate.getForObject(url, StoreLocationDto.class);
+        if (e instanceof HttpClientErrorException.NotFound) {
+            throw new RuntimeException("Магазин с ID " + storeId + " не найден", e);
+        }
+        if (!isMockFallbackEnabled()) {
+            throw new RuntimeException("Сервис магазинов временно недоступен", e);
+        }
 
-            if (storeLocation != null) {
-                log.info("✅ Получена локация магазина {} от сервиса {}", storeId, serviceNames.getProductService());
-                return storeLocation;
-            }
+        // 🔄 Возвращаем тестовые данные для разработки
+        log.info("🔄 Возвращаем тестовые данные для магазина {}", storeId);
+        return createMockStoreLocation(storeId);
+    }
 
-            throw new RuntimeException("Пустой ответ от сервиса магазинов");
+    private Map<Long, StoreLocationDto> getStoreLocations(Collection<Long> storeIds) {
+        try {
+            return storeLocationCache.getAll(storeIds);
 
         } catch (Exception e) {
-            log.error("❌ Ошибка получения локации магазина {} через Eureka: {}", storeId, e.getMessage());
+            log.error("❌ Ошибка пакетного получения локаций магазинов через Eureka: {}", e.getMessage());
+
+            if (!isMockFallbackEnabled()) {
+                throw new RuntimeException("Сервис магазинов временно недоступен", e);
+            }
 
             // 🔄 Возвращаем тестовые данные для разработки
-            log.info("🔄 Возвращаем тестовые данные для магазина {}", storeId);
-            return createMockStoreLocation(storeId);
+            log.info("🔄 Возвращаем тестовые данные для {} магазинов", storeIds.size());
+            Map<Long, StoreLocationDto> locations = new HashMap<>();
+            for (Long storeId : storeIds) {
+                locations.put(storeId, createMockStoreLocation(storeId));
+            }
+            return locations;
         }
     }
 
-    // 🧪 Методы для тестовых данных (убрать в продакшене)
+    // 🧪 Методы для тестовых данных (только при app.product-service.fallback.mock-enabled=true)
+    private boolean isMockFallbackEnabled() {
+        return Boolean.TRUE.equals(productServiceProperties.getFallback().getMockEnabled());
+    }
+
     private List<NearbyStoreDto> createMockStores(FindNearbyStoresDto searchDto) {
         return List.of(
                 NearbyStoreDto.builder()
@@ -397,26 +612,11 @@ public class UserLocationServiceImpl implements UserLocationService {
      */
     private double calculateDistanceInKm(BigDecimal lat1, BigDecimal lon1,
                                          BigDecimal lat2, BigDecimal lon2) {
-        final double R = 6371; // Радиус Земли в км
-
-        double latDistance = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
-        double lonDistance = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
-
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1.doubleValue()))
-                * Math.cos(Math.toRadians(lat2.doubleValue()))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return R * c;
+        return GeoDistanceUtil.distanceKm(lat1, lon1, lat2, lon2);
     }
 
     private String formatDistance(double distanceKm) {
-        if (distanceKm < 1) {
-            return String.format("%.0f м", distanceKm * 1000);
-        }
-        return String.format("%.1f км", distanceKm);
+        return GeoDistanceUtil.formatDistance(distanceKm);
     }
 
     private String formatCoordinates(BigDecimal latitude, BigDecimal longitude) {
@@ -437,20 +637,11 @@ public class UserLocationServiceImpl implements UserLocationService {
     }
 
     private int calculateDeliveryTime(double distanceKm) {
-        // Используем настройки из конфигурации
-        return (int) Math.round(
-                (distanceKm / locationConfig.getDelivery().getSpeedKmh()) * 60 +
-                        locationConfig.getDelivery().getBaseTimeMinutes()
-        );
+        return storeRankingEngine.deliveryTimeMinutes(distanceKm);
     }
 
     private BigDecimal calculateDeliveryFee(double distanceKm) {
-        // Используем настройки из конфигурации
-        BigDecimal baseFee = locationConfig.getDelivery().getBaseFee();
-        BigDecimal perKmFee = locationConfig.getDelivery().getFeePerKm();
-        BigDecimal distanceFee = perKmFee.multiply(BigDecimal.valueOf(distanceKm));
-
-        return baseFee.add(distanceFee);
+        return storeRankingEngine.deliveryFee(distanceKm);
     }
 }
 
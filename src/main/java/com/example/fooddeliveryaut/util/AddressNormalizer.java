@@ -0,0 +1,133 @@
+package com.example.fooddeliveryaut.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 🧹 Нормализация адреса для ключа кэша геокодирования
+ *
+ * "Улица Крещатик 1, Киев", "  ул. крещатик, 1   КИЕВ." и "вул Крещатик 1 Киев"
+ * дают один ключ "ул крещатик 1 киев": регистр и Unicode-формы приводятся к одному
+ * виду, пунктуация и пробелы схлопываются, типы улиц заменяются единым сокращением.
+ * Порядок слов сохраняется.
+ */
+public final class AddressNormalizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Сокращения с дефисом нужно заменить до удаления пунктуации
+    private static final Map<Pattern, String> HYPHENATED = Map.of(
+            Pattern.compile("(?<![\\p{L}\\p{N}])пр-к?т(?![\\p{L}\\p{N}])"), "пр",
+            Pattern.compile("(?<![\\p{L}\\p{N}])б-р(?![\\p{L}\\p{N}])"), "бул",
+            Pattern.compile("(?<![\\p{L}\\p{N}])пр-д(?![\\p{L}\\p{N}])"), "проезд"
+    );
+
+    private static final Map<String, String> STREET_TYPES = Map.ofEntries(
+            Map.entry("улица", "ул"), Map.entry("вулиця", "ул"), Map.entry("вул", "ул"),
+            Map.entry("проспект", "пр"), Map.entry("просп", "пр"), Map.entry("пркт", "пр"),
+            Map.entry("переулок", "пер"), Map.entry("провулок", "пер"), Map.entry("пров", "пер"),
+            Map.entry("бульвар", "бул"), Map.entry("бульв", "бул"),
+            Map.entry("площадь", "пл"), Map.entry("площа", "пл"),
+            Map.entry("шоссе", "ш"),
+            Map.entry("набережная", "наб"), Map.entry("набережна", "наб"),
+            Map.entry("город", "г"), Map.entry("місто", "г"), Map.entry("м", "г"),
+            Map.entry("дом", "д"), Map.entry("будинок", "д"), Map.entry("буд", "д"),
+            Map.entry("квартира", "кв"),
+            Map.entry("street", "st"), Map.entry("str", "st"),
+            Map.entry("avenue", "ave"), Map.entry("av", "ave"),
+            Map.entry("road", "rd"),
+            Map.entry("boulevard", "blvd"),
+            Map.entry("lane", "ln"),
+            Map.entry("square", "sq"),
+            // "Str." - сокращение и street, и Straße: все три дают один ключ
+            Map.entry("strasse", "st"), Map.entry("straße", "st")
+    );
+
+    // Типы улиц после нормализации: перед названием (ru/uk) и после него (en/de)
+    private static final Set<String> STREET_TYPES_BEFORE_NAME = Set.of("ул", "пр", "пер", "бул", "пл", "ш", "наб", "проезд");
+    private static final Set<String> STREET_TYPES_AFTER_NAME = Set.of("st", "ave", "rd", "blvd", "ln", "sq");
+
+    private AddressNormalizer() {
+    }
+
+    /**
+     * Нормализованное слово - тип улицы, стоящий перед названием ("ул")
+     */
+    public static boolean isStreetTypeBeforeName(String word) {
+        return STREET_TYPES_BEFORE_NAME.contains(word);
+    }
+
+    /**
+     * Нормализованное слово - тип улицы, стоящий после названия ("st")
+     */
+    public static boolean isStreetTypeAfterName(String word) {
+        return STREET_TYPES_AFTER_NAME.contains(word);
+    }
+
+    /**
+     * Нормализованный адрес или пустая строка, если в адресе нет букв и цифр
+     */
+    public static String normalize(String address) {
+        if (address == null) {
+            return "";
+        }
+
+        String value = lowerCase(address);
+
+        for (Map.Entry<Pattern, String> abbreviation : HYPHENATED.entrySet()) {
+            value = abbreviation.getKey().matcher(value).replaceAll(abbreviation.getValue());
+        }
+
+        String[] words = NON_WORD.matcher(value).replaceAll(" ").trim().split(" ");
+        StringBuilder result = new StringBuilder(value.length());
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!result.isEmpty()) {
+                result.append(' ');
+            }
+            result.append(STREET_TYPES.getOrDefault(word, word));
+        }
+        return result.toString();
+    }
+
+    /**
+     * ⌨️ Нормализация введенного начала адреса (для автодополнения)
+     *
+     * Законченные слова нормализуются как в {@link #normalize(String)}, последнее
+     * недописанное слово - только по регистру: "м" не должно превратиться в "г",
+     * а "ули" - потерять совпадение с "ул". Если ввод заканчивается пробелом или
+     * знаком препинания, все слова считаются законченными (в конце остается пробел).
+     */
+    public static String normalizePrefix(String input) {
+        if (input == null) {
+            return "";
+        }
+
+        String value = lowerCase(input);
+        int end = value.length();
+        int start = end;
+        while (start > 0 && Character.isLetterOrDigit(value.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end) {
+            // Слово закончено: "ул " не должно совпадать с "улан удэ"
+            String words = normalize(value);
+            return words.isEmpty() ? words : words + " ";
+        }
+
+        String head = normalize(value.substring(0, start));
+        String last = value.substring(start, end);
+        return head.isEmpty() ? last : head + " " + last;
+    }
+
+    private static String lowerCase(String value) {
+        return Normalizer.normalize(value, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replace('ё', 'е');
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fooddeliveryaut.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ⏳ Утилиты для CompletableFuture
+ */
+public final class FutureUtil {
+
+    private FutureUtil() {
+    }
+
+    /**
+     * Ожидание результата с исходным исключением вместо CompletionException
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Исходная ошибка из CompletionException (для exceptionally/handle)
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
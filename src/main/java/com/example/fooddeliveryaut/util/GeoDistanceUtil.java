@@ -0,0 +1,111 @@
+package com.example.fooddeliveryaut.util;
+
+import java.math.BigDecimal;
+
+/**
+ * 📏 Расчет расстояний между точками по формуле Haversine
+ *
+ * Пакетный вариант принимает координаты в виде struct-of-arrays (lat[], lon[]),
+ * один раз считает cos(широты) точки отсчета и пишет результат в массив,
+ * переданный вызывающим кодом, - без аллокаций на каждую точку.
+ */
+public final class GeoDistanceUtil {
+
+    /**
+     * Радиус Земли в км
+     */
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+
+    private GeoDistanceUtil() {
+    }
+
+    /**
+     * 📏 Расстояние между двумя точками в км
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = lat1 * DEG_TO_RAD;
+        return haversineKm(lat1Rad, Math.cos(lat1Rad), lon1 * DEG_TO_RAD, lat2 * DEG_TO_RAD, lon2 * DEG_TO_RAD);
+    }
+
+    /**
+     * 📏 Расстояние между двумя точками в км (координаты из сущностей/DTO)
+     */
+    public static double distanceKm(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
+        return distanceKm(lat1.doubleValue(), lon1.doubleValue(), lat2.doubleValue(), lon2.doubleValue());
+    }
+
+    /**
+     * 📦 Пакетный расчет расстояний от одной точки до многих
+     *
+     * @param originLat широта точки отсчета
+     * @param originLon долгота точки отсчета
+     * @param lats широты точек
+     * @param lons долготы точек
+     * @param out массив для результатов (км)
+     * @param count количество точек для обработки
+     * @throws IllegalArgumentException если массивы короче count
+     */
+    public static void distancesKm(double originLat, double originLon,
+                                   double[] lats, double[] lons, double[] out, int count) {
+        if (count < 0 || lats.length < count || lons.length < count || out.length < count) {
+            throw new IllegalArgumentException("Размер массивов меньше количества точек: " + count);
+        }
+
+        double originLatRad = originLat * DEG_TO_RAD;
+        double originLonRad = originLon * DEG_TO_RAD;
+        double originCos = Math.cos(originLatRad);
+
+        for (int i = 0; i < count; i++) {
+            out[i] = haversineKm(originLatRad, originCos, originLonRad, lats[i] * DEG_TO_RAD, lons[i] * DEG_TO_RAD);
+        }
+    }
+
+    /**
+     * 📦 Пакетный расчет только для выбранных точек (например, прошедших GeoRadiusFilter)
+     *
+     * Результат пишется по номеру точки: out[indexes[j]], остальные элементы out не меняются.
+     *
+     * @param indexes номера точек в lats/lons
+     * @param count количество номеров для обработки
+     * @param out массив для результатов (км), не короче lats
+     * @throws IllegalArgumentException если indexes короче count или out короче lats
+     */
+    public static void distancesKm(double originLat, double originLon,
+                                   double[] lats, double[] lons, int[] indexes, int count, double[] out) {
+        if (count < 0 || indexes.length < count || out.length < lats.length) {
+            throw new IllegalArgumentException("Размер массивов меньше количества точек: " + count);
+        }
+
+        double originLatRad = originLat * DEG_TO_RAD;
+        double originLonRad = originLon * DEG_TO_RAD;
+        double originCos = Math.cos(originLatRad);
+
+        for (int j = 0; j < count; j++) {
+            int i = indexes[j];
+            out[i] = haversineKm(originLatRad, originCos, originLonRad, lats[i] * DEG_TO_RAD, lons[i] * DEG_TO_RAD);
+        }
+    }
+
+    /**
+     * 📝 Человекочитаемое расстояние: "850 м" или "1.2 км"
+     */
+    public static String formatDistance(double distanceKm) {
+        if (distanceKm < 1) {
+            return String.format("%.0f м", distanceKm * 1000);
+        }
+        return String.format("%.1f км", distanceKm);
+    }
+
+    private static double haversineKm(double lat1Rad, double cosLat1, double lon1Rad,
+                                      double lat2Rad, double lon2Rad) {
+        double sinLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinLon = Math.sin((lon2Rad - lon1Rad) / 2);
+
+        double a = sinLat * sinLat + cosLat1 * Math.cos(lat2Rad) * sinLon * sinLon;
+        a = Math.min(1.0, Math.max(0.0, a));
+
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
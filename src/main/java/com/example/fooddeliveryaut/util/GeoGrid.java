@@ -0,0 +1,87 @@
+package com.example.fooddeliveryaut.util;
+
+/**
+ * 🔲 Сетка из примерно квадратных ячеек заданного размера (км)
+ *
+ * Строки сетки идут по широте с постоянным шагом, шаг по долготе в каждой
+ * строке растет как 1 / cos(широты), чтобы ячейка оставалась близкой к квадрату.
+ * Используется как ключ кэшей и пространственных индексов.
+ */
+public final class GeoGrid {
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoDistanceUtil.EARTH_RADIUS_KM / 180.0;
+
+    private final double cellSizeKm;
+    private final double latStepDeg;
+
+    public GeoGrid(double cellSizeKm) {
+        if (cellSizeKm <= 0) {
+            throw new IllegalArgumentException("Размер ячейки должен быть положительным: " + cellSizeKm);
+        }
+        this.cellSizeKm = cellSizeKm;
+        this.latStepDeg = cellSizeKm / KM_PER_DEGREE;
+    }
+
+    public double getCellSizeKm() {
+        return cellSizeKm;
+    }
+
+    public long latIndex(double lat) {
+        return (long) Math.floor((lat + 90.0) / latStepDeg);
+    }
+
+    public long lonIndex(long latIndex, double lon) {
+        return (long) Math.floor((lon + 180.0) / lonStepDeg(latIndex));
+    }
+
+    public double centerLat(long latIndex) {
+        return Math.min(90.0, -90.0 + (latIndex + 0.5) * latStepDeg);
+    }
+
+    public double centerLon(long latIndex, long lonIndex) {
+        return Math.min(180.0, -180.0 + (lonIndex + 0.5) * lonStepDeg(latIndex));
+    }
+
+    /**
+     * 🆔 Идентификатор ячейки, в которую попадает точка
+     */
+    public long cellId(double lat, double lon) {
+        long latIndex = latIndex(lat);
+        return cellId(latIndex, lonIndex(latIndex, lon));
+    }
+
+    public static long cellId(long latIndex, long lonIndex) {
+        return (latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+
+    public static long latIndexOf(long cellId) {
+        return cellId >> 32;
+    }
+
+    public static long lonIndexOf(long cellId) {
+        return cellId & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 📏 Верхняя оценка расстояния от центра ячейки до любой ее точки (км)
+     */
+    public double maxDistanceFromCenterKm(long latIndex, long lonIndex) {
+        double centerLat = centerLat(latIndex);
+        double centerLon = centerLon(latIndex, lonIndex);
+        double halfLat = latStepDeg / 2;
+        double halfLon = lonStepDeg(latIndex) / 2;
+
+        double max = 0;
+        for (double dLat : new double[]{-halfLat, halfLat}) {
+            double cornerLat = Math.max(-90.0, Math.min(90.0, centerLat + dLat));
+            max = Math.max(max, GeoDistanceUtil.distanceKm(centerLat, centerLon, cornerLat, centerLon + halfLon));
+        }
+        // Небольшой запас: угол - оценка максимума, а не строгий максимум
+        return max * 1.01;
+    }
+
+    private double lonStepDeg(long latIndex) {
+        double cos = Math.cos(Math.toRadians(centerLat(latIndex)));
+        return Math.min(360.0, latStepDeg / Math.max(cos, 1e-6));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.fooddeliveryaut.util;
+
+/**
+ * 🎯 Двухступенчатая проверка "точка внутри радиуса"
+ *
+ * 1. Дешевые оценки без тригонометрии по точке: нижняя граница Haversine
+ *    (sin x ≥ x - x³/6, cos φ2 ≥ cos φ1 - |Δφ|) отбрасывает дальние точки,
+ *    верхняя граница (sin x ≤ x, cos φ2 ≤ cos φ1 + |Δφ|) сразу принимает ближние.
+ * 2. Точный Haversine считается только для точек у границы круга.
+ *
+ * Обе оценки консервативны, поэтому результат совпадает с точным расчетом
+ * (нет ложных отказов), в том числе у полюсов и через антимеридиан.
+ */
+public final class GeoRadiusFilter {
+
+    private static final double DEG_TO_RAD = Math.PI / 180.0;
+    private static final double RAD_TO_DEG = 180.0 / Math.PI;
+
+    // Запас на ошибки округления, чтобы оценки оставались консервативными
+    private static final double EPSILON = 1e-9;
+
+    private final double originLat;
+    private final double originLon;
+    private final double originLatRad;
+    private final double originLonRad;
+    private final double originCos;
+    private final double radiusKm;
+
+    private final double maxAngle;      // радиус в радианах центрального угла
+    private final double haversineLimit; // sin²(maxAngle / 2)
+    private final boolean coversGlobe;
+
+    public GeoRadiusFilter(double originLat, double originLon, double radiusKm) {
+        if (radiusKm < 0) {
+            throw new IllegalArgumentException("Радиус не может быть отрицательным: " + radiusKm);
+        }
+
+        this.originLat = originLat;
+        this.originLon = originLon;
+        this.originLatRad = originLat * DEG_TO_RAD;
+        this.originLonRad = originLon * DEG_TO_RAD;
+        this.originCos = Math.cos(originLatRad);
+        this.radiusKm = radiusKm;
+
+        this.maxAngle = radiusKm / GeoDistanceUtil.EARTH_RADIUS_KM;
+        this.coversGlobe = maxAngle >= Math.PI;
+
+        double sinHalf = Math.sin(Math.min(maxAngle, Math.PI) / 2);
+        this.haversineLimit = sinHalf * sinHalf;
+    }
+
+    /**
+     * ✅ Находится ли точка внутри радиуса (граница включительно)
+     */
+    public boolean contains(double lat, double lon) {
+        if (coversGlobe) {
+            return true;
+        }
+
+        double dLat = Math.abs(lat * DEG_TO_RAD - originLatRad);
+
+        // Расстояние по дуге не меньше разницы широт
+        if (dLat > maxAngle * (1 + EPSILON)) {
+            return false;
+        }
+
+        // Разница долгот с учетом перехода через антимеридиан, в [0, π]
+        double dLon = Math.abs(Math.IEEEremainder(lon * DEG_TO_RAD - originLonRad, 2 * Math.PI));
+
+        double x = dLat / 2;
+        double y = dLon / 2;
+
+        double sinXLow = x - x * x * x / 6;
+        double sinYLow = y - y * y * y / 6;
+        double cosLow = Math.max(0.0, originCos - dLat);
+        double haversineLow = sinXLow * sinXLow + originCos * cosLow * sinYLow * sinYLow;
+
+        if (haversineLow > haversineLimit * (1 + EPSILON)) {
+            return false;
+        }
+
+        double cosHigh = Math.min(1.0, originCos + dLat);
+        double haversineHigh = x * x + originCos * cosHigh * y * y;
+
+        if (haversineHigh < haversineLimit * (1 - EPSILON)) {
+            return true;
+        }
+
+        return GeoDistanceUtil.distanceKm(originLat, originLon, lat, lon) <= radiusKm;
+    }
+
+    /**
+     * 📦 Пакетная фильтрация struct-of-arrays координат
+     *
+     * @param lats широты точек
+     * @param lons долготы точек
+     * @param count количество точек для обработки
+     * @param outIndexes массив для индексов точек внутри радиуса
+     * @return количество найденных точек (заполненная часть outIndexes)
+     */
+    public int filter(double[] lats, double[] lons, int count, int[] outIndexes) {
+        if (count < 0 || lats.length < count || lons.length < count || outIndexes.length < count) {
+            throw new IllegalArgumentException("Размер массивов меньше количества точек: " + count);
+        }
+
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (contains(lats[i], lons[i])) {
+                outIndexes[found++] = i;
+            }
+        }
+        return found;
+    }
+
+    // === BOUNDING BOX ДЛЯ ПРЕДВАРИТЕЛЬНОЙ ВЫБОРКИ ===
+
+    public double getMinLatitude() {
+        return Math.max(-90.0, originLat - maxAngle * RAD_TO_DEG);
+    }
+
+    public double getMaxLatitude() {
+        return Math.min(90.0, originLat + maxAngle * RAD_TO_DEG);
+    }
+
+    /**
+     * 🌐 Диапазоны долгот, покрывающие круг
+     *
+     * @return один диапазон {min, max} или два, если круг пересекает антимеридиан
+     */
+    public double[][] getLongitudeRanges() {
+        if (coversGlobe || getMaxLatitude() >= 90.0 || getMinLatitude() <= -90.0) {
+            return new double[][]{{-180.0, 180.0}};
+        }
+
+        double ratio = Math.sin(maxAngle) / originCos;
+        if (maxAngle >= Math.PI / 2 || ratio >= 1.0) {
+            return new double[][]{{-180.0, 180.0}};
+        }
+
+        double deltaDeg = Math.asin(ratio) * RAD_TO_DEG;
+        double minLon = originLon - deltaDeg;
+        double maxLon = originLon + deltaDeg;
+
+        if (minLon < -180.0) {
+            return new double[][]{{minLon + 360.0, 180.0}, {-180.0, maxLon}};
+        }
+        if (maxLon > 180.0) {
+            return new double[][]{{minLon, 180.0}, {-180.0, maxLon - 360.0}};
+        }
+        return new double[][]{{minLon, maxLon}};
+    }
+
+    public double getRadiusKm() {
+        return radiusKm;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.fooddeliveryaut.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 🌳 Сжатое префиксное дерево (radix trie) для автодополнения
+ *
+ * Ключи - строки, значения - номера записей. Цепочки узлов с одним потомком
+ * склеены в одну метку, поэтому узлов не больше, чем 2 * ключей.
+ * В каждом узле заранее сохранены до candidatesPerNode лучших записей поддерева
+ * (по порядку, заданному при сборке): поиск по префиксу - спуск на длину
+ * префикса и чтение готового массива, без обхода поддерева.
+ *
+ * Дерево после {@link Builder#build} не меняется и может читаться из многих потоков.
+ */
+public final class RadixTrie {
+
+    private static final int[] NONE = new int[0];
+
+    private final Node root;
+    private final int nodeCount;
+
+    private RadixTrie(Node root, int nodeCount) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 🔍 Лучшие записи среди ключей, начинающихся с prefix (от лучшей к худшей)
+     *
+     * Пустой префикс дает лучшие записи всего дерева.
+     */
+    public int[] candidates(String prefix) {
+        Node node = root;
+        int position = 0;
+
+        while (position < prefix.length()) {
+            Node child = node.child(prefix.charAt(position));
+            if (child == null) {
+                return NONE;
+            }
+
+            String label = child.label;
+            int remaining = prefix.length() - position;
+            if (remaining <= label.length()) {
+                // Префикс кончается внутри метки: подходит все поддерево потомка
+                return label.regionMatches(0, prefix, position, remaining) ? child.top : NONE;
+            }
+            if (!prefix.startsWith(label, position)) {
+                return NONE;
+            }
+            position += label.length();
+            node = child;
+        }
+        return node.top;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Сборка дерева: add для каждого ключа, затем build с порядком записей
+     */
+    public static final class Builder {
+
+        private final Node root = new Node("");
+        private int nodeCount = 1;
+
+        private Builder() {
+        }
+
+        /**
+         * Добавить ключ записи (у одной записи может быть несколько ключей)
+         */
+        public Builder add(String key, int id) {
+            Node node = root;
+            int position = 0;
+
+            while (true) {
+                if (position == key.length()) {
+                    node.addId(id);
+                    return this;
+                }
+
+                Node child = node.mutableChild(key.charAt(position));
+                if (child == null) {
+                    Node leaf = new Node(key.substring(position));
+                    leaf.addId(id);
+                    node.addChild(leaf);
+                    nodeCount++;
+                    return this;
+                }
+
+                String label = child.label;
+                int common = commonPrefixLength(label, key, position);
+                if (common < label.length()) {
+                    // Ключ расходится с меткой: метка делится на общую часть и остаток
+                    Node split = new Node(label.substring(0, common));
+                    child.label = label.substring(common);
+                    split.addChild(child);
+                    node.replaceChild(child, split);
+                    nodeCount++;
+                    child = split;
+                }
+                position += common;
+                node = child;
+            }
+        }
+
+        /**
+         * 🏁 Заморозить дерево и посчитать лучшие записи каждого узла
+         *
+         * @param candidatesPerNode сколько записей хранить в узле
+         * @param order             порядок записей по номерам: отрицательное значение - a лучше b
+         */
+        public RadixTrie build(int candidatesPerNode, TopK.IndexComparator order) {
+            freeze(root, candidatesPerNode, order);
+            return new RadixTrie(root, nodeCount);
+        }
+
+        private static void freeze(Node node, int candidatesPerNode, TopK.IndexComparator order) {
+            int count = node.idCount;
+            for (Node child : node.building) {
+                freeze(child, candidatesPerNode, order);
+                count += child.top.length;
+            }
+
+            // Свои записи и лучшие записи потомков; одна запись может прийти по нескольким ключам
+            int[] ids = Arrays.copyOf(node.ids, count);
+            int filled = node.idCount;
+            for (Node child : node.building) {
+                System.arraycopy(child.top, 0, ids, filled, child.top.length);
+                filled += child.top.length;
+            }
+            Arrays.sort(ids);
+            int unique = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[unique++] = ids[i];
+                }
+            }
+            node.top = TopK.select(ids, unique, candidatesPerNode, order);
+
+            node.building.sort((a, b) -> Character.compare(a.label.charAt(0), b.label.charAt(0)));
+            node.children = node.building.toArray(new Node[0]);
+            node.firstChars = new char[node.children.length];
+            for (int i = 0; i < node.children.length; i++) {
+                node.firstChars[i] = node.children[i].label.charAt(0);
+            }
+            node.building = null;
+            node.ids = null;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int max = Math.min(label.length(), key.length() - offset);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Узел: метка ребра от родителя, потомки по первому символу метки
+     */
+    private static final class Node {
+
+        private String label;
+
+        // Состояние сборки
+        private List<Node> building = new ArrayList<>(2);
+        private int[] ids = NONE;
+        private int idCount;
+
+        // Замороженное состояние
+        private char[] firstChars;
+        private Node[] children;
+        private int[] top = NONE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node mutableChild(char c) {
+            for (Node child : building) {
+                if (child.label.charAt(0) == c) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            building.add(child);
+        }
+
+        private void replaceChild(Node oldChild, Node newChild) {
+            building.set(building.indexOf(oldChild), newChild);
+        }
+
+        private void addId(int id) {
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(2, idCount * 2));
+            }
+            ids[idCount++] = id;
+        }
+    }
+}
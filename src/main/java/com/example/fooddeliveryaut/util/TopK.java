@@ -0,0 +1,115 @@
+package com.example.fooddeliveryaut.util;
+
+/**
+ * 🏆 Частичная сортировка: k лучших элементов без сортировки всего набора
+ *
+ * Ограниченная куча размера k, на вершине которой худший из отобранных.
+ * Сложность O(n log k) вместо O(n log n), память O(k).
+ * Элементы задаются индексами, сравнение - по индексам (без упаковки в Integer).
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Сравнение элементов по индексам: отрицательное значение - a лучше b
+     */
+    @FunctionalInterface
+    public interface IndexComparator {
+        int compare(int a, int b);
+
+        default IndexComparator thenComparing(IndexComparator next) {
+            return (a, b) -> {
+                int result = compare(a, b);
+                return result != 0 ? result : next.compare(a, b);
+            };
+        }
+    }
+
+    /**
+     * k лучших индексов из 0..count-1, от лучшего к худшему
+     */
+    public static int[] select(int count, int k, IndexComparator comparator) {
+        int size = Math.min(Math.max(k, 0), count);
+        int[] heap = new int[size];
+        int filled = 0;
+
+        for (int index = 0; index < count && size > 0; index++) {
+            filled = offer(heap, filled, index, comparator);
+        }
+        return drain(heap, filled, comparator);
+    }
+
+    /**
+     * k лучших из первых count значений indices, от лучшего к худшему
+     */
+    public static int[] select(int[] indices, int count, int k, IndexComparator comparator) {
+        int size = Math.min(Math.max(k, 0), count);
+        int[] heap = new int[size];
+        int filled = 0;
+
+        for (int i = 0; i < count && size > 0; i++) {
+            filled = offer(heap, filled, indices[i], comparator);
+        }
+        return drain(heap, filled, comparator);
+    }
+
+    private static int offer(int[] heap, int filled, int index, IndexComparator comparator) {
+        if (filled < heap.length) {
+            heap[filled] = index;
+            siftUp(heap, filled, comparator);
+            return filled + 1;
+        }
+        // Лучше худшего из отобранных - вытесняет его
+        if (comparator.compare(index, heap[0]) < 0) {
+            heap[0] = index;
+            siftDown(heap, filled, comparator);
+        }
+        return filled;
+    }
+
+    private static int[] drain(int[] heap, int filled, IndexComparator comparator) {
+        // Снимаем худший с вершины и кладем в конец: получаем порядок от лучшего к худшему
+        for (int size = filled - 1; size > 0; size--) {
+            int worst = heap[0];
+            heap[0] = heap[size];
+            heap[size] = worst;
+            siftDown(heap, size, comparator);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int position, IndexComparator comparator) {
+        int value = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (comparator.compare(value, heap[parent]) <= 0) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = value;
+    }
+
+    private static void siftDown(int[] heap, int size, IndexComparator comparator) {
+        int position = 0;
+        int value = heap[0];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(value, heap[child]) >= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = value;
+    }
+}
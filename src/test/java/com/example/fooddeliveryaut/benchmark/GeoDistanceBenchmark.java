@@ -0,0 +1,88 @@
+package com.example.fooddeliveryaut.benchmark;
+
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ⏱️ Расстояния от одной точки до N точек: по одной точке против пакетного расчета
+ *
+ * - scalarBigDecimal: как считали вызывающие до пакетного API (BigDecimal из DTO)
+ * - scalarDouble: distanceKm(double...) в цикле, cos широты отсчета на каждой точке
+ * - batch: distancesKm по struct-of-arrays в переданный массив
+ *
+ * Запуск: mvn -P benchmark test-compile exec:exec -Djmh.args="GeoDistanceBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoDistanceBenchmark {
+
+    private static final double ORIGIN_LAT = 50.4501;
+    private static final double ORIGIN_LON = 30.5234;
+
+    @Param({"100", "1000", "10000"})
+    private int count;
+
+    private double[] lats;
+    private double[] lons;
+    private BigDecimal[] latDecimals;
+    private BigDecimal[] lonDecimals;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lats = new double[count];
+        lons = new double[count];
+        latDecimals = new BigDecimal[count];
+        lonDecimals = new BigDecimal[count];
+        out = new double[count];
+        for (int i = 0; i < count; i++) {
+            lats[i] = ORIGIN_LAT + (random.nextDouble() - 0.5);
+            lons[i] = ORIGIN_LON + (random.nextDouble() - 0.5);
+            latDecimals[i] = BigDecimal.valueOf(lats[i]);
+            lonDecimals[i] = BigDecimal.valueOf(lons[i]);
+        }
+    }
+
+    @Benchmark
+    public void scalarBigDecimal(Blackhole blackhole) {
+        BigDecimal originLat = BigDecimal.valueOf(ORIGIN_LAT);
+        BigDecimal originLon = BigDecimal.valueOf(ORIGIN_LON);
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(GeoDistanceUtil.distanceKm(originLat, originLon, latDecimals[i], lonDecimals[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] scalarDouble() {
+        for (int i = 0; i < count; i++) {
+            out[i] = GeoDistanceUtil.distanceKm(ORIGIN_LAT, ORIGIN_LON, lats[i], lons[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        GeoDistanceUtil.distancesKm(ORIGIN_LAT, ORIGIN_LON, lats, lons, out, count);
+        return out;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.fooddeliveryaut.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 🧵 Пачка блокирующих запросов: пул платформенных потоков против виртуальных потоков
+ *
+ * Каждый запрос ждет ответа "PRODUCT-SERVICE" (sleep latencyMillis), как поток Tomcat
+ * на вызове сервиса магазинов. Платформенный пул - 200 потоков, как maxThreads Tomcat
+ * по умолчанию; виртуальные - поток на задачу.
+ * В режиме pinned ожидание идет внутри synchronized (так загружали записи кэши
+ * магазинов внутри compute Caffeine до перехода на AsyncLoadingCache): виртуальный
+ * поток держит носитель и не отпускает его.
+ *
+ * Виртуальные потоки есть только на Java 21, запуск:
+ * mvn -P java21,benchmark test-compile exec:exec -Djmh.args="ThreadModelBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"false", "true"})
+    private boolean pinned;
+
+    @Param({"1000", "5000"})
+    private int requests;
+
+    @Param({"10"})
+    private int latencyMillis;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws Exception {
+        executor = "virtual".equals(threads)
+                // Через reflection, чтобы класс компилировался и на Java 17
+                ? (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public long burst() throws Exception {
+        List<Future<Long>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long id = i;
+            futures.add(executor.submit(() -> handle(id)));
+        }
+
+        long sum = 0;
+        for (Future<Long> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+
+    private long handle(long id) throws InterruptedException {
+        if (pinned) {
+            Object lock = new Object();
+            synchronized (lock) {
+                Thread.sleep(latencyMillis);
+            }
+        } else {
+            Thread.sleep(latencyMillis);
+        }
+        return id;
+    }
+}
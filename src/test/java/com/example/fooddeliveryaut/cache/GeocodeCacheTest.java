@@ -0,0 +1,171 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.model.GeocodeCacheEntry;
+import com.example.fooddeliveryaut.repository.GeocodeCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeocodeCacheTest {
+
+    private static final BigDecimal LATITUDE = new BigDecimal("50.4501");
+    private static final BigDecimal LONGITUDE = new BigDecimal("30.5234");
+
+    @TempDir
+    Path dir;
+
+    // Таблица geocode_cache: сохраненные записи по ключу
+    private final Map<String, GeocodeCacheEntry> table = new HashMap<>();
+
+    private CacheConfigProperties config;
+    private GeocodeCacheRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private GeocodeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        config = new CacheConfigProperties();
+        config.getGeocode().setTtlSeconds(3600);
+        config.getGeocode().setNegativeTtlSeconds(60);
+        config.getGeocodeFile().setDirectory(dir.toString());
+        config.getGeocodeFile().setMaxEntries(100);
+        config.getGeocodeFile().setMaxBytes(64 * 1024);
+
+        repository = mock(GeocodeCacheRepository.class);
+        when(repository.save(any(GeocodeCacheEntry.class))).thenAnswer(invocation -> {
+            GeocodeCacheEntry entry = invocation.getArgument(0);
+            table.put(entry.getAddressKey(), entry);
+            return entry;
+        });
+        when(repository.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.closeFile();
+    }
+
+    @Test
+    void foundAndNotFoundUseTheirOwnTtl() {
+        cache = newCache();
+
+        cache.putFound("ул крещатик 1 киев", LATITUDE, LONGITUDE);
+        cache.putNotFound("ул несуществующая 99");
+
+        GeocodeCacheEntry found = table.get("ул крещатик 1 киев");
+        GeocodeCacheEntry notFound = table.get("ул несуществующая 99");
+        assertEquals(Duration.ofSeconds(3600), Duration.between(found.getCreatedAt(), found.getExpiresAt()));
+        assertEquals(Duration.ofSeconds(60), Duration.between(notFound.getCreatedAt(), notFound.getExpiresAt()));
+        assertNull(notFound.getLatitude());
+
+        GeocodeCache.Result hit = cache.get("ул крещатик 1 киев");
+        assertTrue(hit.isFound());
+        assertEquals(LATITUDE, hit.getLatitude());
+        GeocodeCache.Result negative = cache.get("ул несуществующая 99");
+        assertNotNull(negative);
+        assertFalse(negative.isFound());
+    }
+
+    @Test
+    void expiredNegativeResultIsMissOnEveryTier() {
+        config.getGeocode().setNegativeTtlSeconds(0);
+        cache = newCache();
+
+        cache.putFound("ул крещатик 1 киев", LATITUDE, LONGITUDE);
+        cache.putNotFound("ул несуществующая 99");
+
+        // Ни память, ни файл, ни таблица не отдают истекшую запись: адрес снова уйдет в Mapbox
+        assertNull(cache.get("ул несуществующая 99"));
+        assertEquals(1.0, counter("cache.geocode.misses.total"));
+        assertTrue(cache.get("ул крещатик 1 киев").isFound());
+    }
+
+    @Test
+    void looksUpMemoryThenFileThenDatabase() throws IOException {
+        cache = newCache();
+        cache.putFound("ул крещатик 1 киев", LATITUDE, LONGITUDE);
+
+        // Память
+        assertTrue(cache.get("ул крещатик 1 киев").isFound());
+        verify(repository, never()).findById(anyString());
+
+        // Перезапуск: память пуста, запись читается из файла без обращения к таблице
+        restart();
+        assertTrue(cache.get("ул крещатик 1 киев").isFound());
+        assertTrue(cache.get("ул крещатик 1 киев").isFound());
+        assertEquals(1.0, counter("cache.geocode.file.hits"));
+        verify(repository, never()).findById(anyString());
+
+        // Запись другого экземпляра есть только в таблице: читается оттуда и попадает в файл
+        table.put("пр победы 5 киев", GeocodeCacheEntry.builder()
+                .addressKey("пр победы 5 киев")
+                .latitude(LATITUDE)
+                .longitude(LONGITUDE)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build());
+        assertTrue(cache.get("пр победы 5 киев").isFound());
+        assertEquals(1.0, counter("cache.geocode.database.hits"));
+        verify(repository, times(1)).findById("пр победы 5 киев");
+
+        restart();
+        assertTrue(cache.get("пр победы 5 киев").isFound());
+        assertEquals(1.0, counter("cache.geocode.file.hits"));
+        verify(repository, never()).findById(anyString());
+
+        assertNull(cache.get("ул неизвестная 7"));
+        assertEquals(1.0, counter("cache.geocode.misses.total"));
+    }
+
+    @Test
+    void databaseErrorIsMiss() {
+        config.getGeocodeFile().setEnabled(false);
+        cache = newCache();
+        when(repository.findById(anyString())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertNull(cache.get("ул крещатик 1 киев"));
+        assertEquals(1.0, counter("cache.geocode.misses.total"));
+    }
+
+    private GeocodeCache newCache() {
+        meterRegistry = new SimpleMeterRegistry();
+        return new GeocodeCache(repository, config, meterRegistry);
+    }
+
+    private void restart() throws IOException {
+        cache.closeFile();
+        cache = newCache();
+        clearInvocations(repository);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
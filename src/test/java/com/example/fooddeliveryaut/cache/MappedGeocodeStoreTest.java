@@ -0,0 +1,246 @@
+package com.example.fooddeliveryaut.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedGeocodeStoreTest {
+
+    private static final int MAX_ENTRIES = 100;
+    private static final int MAX_BYTES = 64 * 1024;
+
+    // Ключ из 2 байт и значение из 1 байта: 2 + 2 + 28 + 1
+    private static final int SMALL_RECORD_BYTES = 33;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private MappedGeocodeStore store;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void roundTripsStringAndLongKeys() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        assertTrue(store.put("київ, хрещатик 1", record(50.4501, 30.5234, "Хрещатик, 1")));
+        assertTrue(store.put(42L, record(48.8566, 2.3522, null)));
+
+        MappedGeocodeStore.Record address = store.get("київ, хрещатик 1");
+        assertEquals(50.4501, address.latitude());
+        assertEquals(30.5234, address.longitude());
+        assertEquals("Хрещатик, 1", address.value());
+
+        MappedGeocodeStore.Record cell = store.get(42L);
+        assertEquals(48.8566, cell.latitude());
+        assertNull(cell.value());
+
+        assertNull(store.get("missing"));
+        assertNull(store.get(43L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void overwriteReplacesValueAndCountsOldRecordAsGarbage() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        store.put("k1", record(1, 1, "a"));
+        assertEquals(0, store.garbageBytes());
+
+        store.put("k1", record(2, 2, "b"));
+
+        assertEquals(1, store.size());
+        assertEquals("b", store.get("k1").value());
+        assertEquals(2.0, store.get("k1").latitude());
+        assertEquals(SMALL_RECORD_BYTES, store.garbageBytes());
+        assertEquals(2 * SMALL_RECORD_BYTES, store.usedBytes());
+
+        store.compactIfNeeded(0);
+
+        assertEquals(0, store.garbageBytes());
+        assertEquals(SMALL_RECORD_BYTES, store.usedBytes());
+        assertEquals("b", store.get("k1").value());
+    }
+
+    @Test
+    void expiredRecordsAreHiddenAndDroppedByCompaction() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        long now = System.currentTimeMillis() / 1000;
+
+        store.put("live", new MappedGeocodeStore.Record(1, 1, now + 3600, "v"));
+        store.put("old1", new MappedGeocodeStore.Record(2, 2, now - 1, "v"));
+        store.put("old2", new MappedGeocodeStore.Record(3, 3, now - 1, "v"));
+
+        assertNull(store.get("old1"));
+        assertNull(store.get("old2"));
+        assertEquals("v", store.get("live").value());
+        assertEquals(3, store.size());
+
+        // Истекших больше половины - уплотнение без учета мусора
+        store.compactIfNeeded(100);
+
+        assertEquals(1, store.size());
+        assertEquals("v", store.get("live").value());
+    }
+
+    @Test
+    void compactsWhenRecordAreaIsFull() throws IOException {
+        store = open(4, 3 * SMALL_RECORD_BYTES);
+
+        // Перезаписи одного ключа заполняют область мусором: put уплотняет и продолжает
+        for (int i = 0; i < 10; i++) {
+            assertTrue(store.put("k1", record(i, i, "v")), "put #" + i);
+        }
+        assertEquals(9.0, store.get("k1").latitude());
+        assertEquals(1, store.size());
+
+        assertTrue(store.put("k2", record(2, 2, "v")));
+        assertTrue(store.put("k3", record(3, 3, "v")));
+
+        // Все записи живые: уплотнение не освобождает места
+        assertFalse(store.put("k4", record(4, 4, "v")));
+        assertNull(store.get("k4"));
+        assertEquals(3, store.size());
+        assertEquals(9.0, store.get("k1").latitude());
+    }
+
+    @Test
+    void reopensWithRecordsAfterClose() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+        store.put("k2", record(2, 2, "b"));
+        store.close();
+
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        assertEquals(2, store.size());
+        assertEquals("a", store.get("k1").value());
+        assertEquals("b", store.get("k2").value());
+    }
+
+    @Test
+    void recreatesCorruptFile() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+        store.close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), 0);
+        }
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        assertEquals(0, store.size());
+        assertNull(store.get("k1"));
+        assertTrue(store.put("k1", record(1, 1, "a")));
+        assertEquals("a", store.get("k1").value());
+    }
+
+    @Test
+    void recreatesFileWhenRecordAreaIsCorrupt() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+        store.put("k2", record(2, 2, "b"));
+        store.close();
+
+        // Заголовок цел, но длина значения первой записи указывает за пределы файла
+        long recordArea = Files.size(file) - MAX_BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), recordArea + 2 + 2 + 24);
+        }
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        assertEquals(2, store.size());
+        assertNull(store.get("k1"));
+        assertEquals("b", store.get("k2").value());
+
+        // Перезапись читает длину старой записи: файл создается заново, исключение не выходит наружу
+        assertFalse(store.put("k1", record(3, 3, "c")));
+        assertEquals(0, store.size());
+        assertNull(store.get("k2"));
+
+        assertTrue(store.put("k1", record(3, 3, "c")));
+        store.compactIfNeeded(0);
+        store.close();
+
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        assertEquals(1, store.size());
+        assertEquals("c", store.get("k1").value());
+    }
+
+    @Test
+    void compactionRecreatesFileWithCorruptRecordArea() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+        store.close();
+
+        long recordArea = Files.size(file) - MAX_BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, -7), recordArea + 2 + 2 + 24);
+        }
+        store = open(MAX_ENTRIES, MAX_BYTES);
+
+        store.compactIfNeeded(0);
+
+        assertEquals(0, store.size());
+        assertTrue(store.put("k1", record(1, 1, "a")));
+        assertEquals("a", store.get("k1").value());
+    }
+
+    @Test
+    void secondInstanceFallsBackToMemoryWhileFileIsLocked() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+
+        assertThrows(IOException.class, () -> MappedGeocodeStore.open(file, MAX_ENTRIES, MAX_BYTES));
+        assertNull(MappedGeocodeStore.tryOpen(file, MAX_ENTRIES, MAX_BYTES));
+        // Отказ второго экземпляра не трогает файл первого
+        assertEquals("a", store.get("k1").value());
+
+        store.close();
+        store = MappedGeocodeStore.tryOpen(file, MAX_ENTRIES, MAX_BYTES);
+        assertNotNull(store);
+        assertEquals("a", store.get("k1").value());
+    }
+
+    @Test
+    void recreatesFileWhenSizeSettingsChange() throws IOException {
+        store = open(MAX_ENTRIES, MAX_BYTES);
+        store.put("k1", record(1, 1, "a"));
+        store.close();
+
+        store = open(MAX_ENTRIES, MAX_BYTES * 2);
+
+        assertEquals(0, store.size());
+        assertNull(store.get("k1"));
+        assertTrue(store.put("k1", record(1, 1, "a")));
+    }
+
+    private MappedGeocodeStore open(int maxEntries, int maxBytes) throws IOException {
+        file = dir.resolve("geocode.bin");
+        return MappedGeocodeStore.open(file, maxEntries, maxBytes);
+    }
+
+    private static MappedGeocodeStore.Record record(double latitude, double longitude, String value) {
+        return new MappedGeocodeStore.Record(latitude, longitude, System.currentTimeMillis() / 1000 + 3600, value);
+    }
+}
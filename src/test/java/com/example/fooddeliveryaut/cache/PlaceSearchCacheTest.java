@@ -0,0 +1,104 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.MapboxResponseReader;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlaceSearchCacheTest {
+
+    // Киев, и точка в 30 м от нее - в той же 500-метровой ячейке
+    private static final double LAT = 50.4501;
+    private static final double LON = 30.5234;
+    private static final double NEAR_LAT = 50.4503;
+    private static final double NEAR_LON = 30.5236;
+
+    private static final List<MapboxResponseReader.Feature> PLACES = List.of(
+            new MapboxResponseReader.Feature("Pizza Celentano", "Pizza Celentano, Хрещатик 15, Київ", 30.522, 50.449),
+            new MapboxResponseReader.Feature("Dominos", "Dominos, Велика Васильківська 5, Київ", 30.519, 50.441));
+
+    private CacheConfigProperties config;
+
+    @BeforeEach
+    void setUp() {
+        config = new CacheConfigProperties();
+        config.getPlaceSearch().setCellSizeMeters(500);
+    }
+
+    @Test
+    void keyIsNormalizedQueryAndCell() {
+        PlaceSearchCache cache = newCache();
+        cache.put("Пицца", LAT, LON, PLACES);
+
+        assertEquals(PLACES, cache.get("  ПИЦЦА! ", LAT, LON));
+        assertEquals(PLACES, cache.get("пицца", NEAR_LAT, NEAR_LON));
+
+        assertNull(cache.get("суши", LAT, LON));
+        // 2 км севернее - другая ячейка
+        assertNull(cache.get("пицца", LAT + 0.018, LON));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void proximityIsCellCenterSharedByCell() {
+        PlaceSearchCache cache = newCache();
+
+        double[] proximity = cache.proximity(LAT, LON);
+
+        assertArrayEquals(proximity, cache.proximity(NEAR_LAT, NEAR_LON));
+        assertNotEquals(LAT, proximity[0]);
+        // Центр ячейки лежит в той же ячейке: ответ для него подходит исходной точке
+        cache.put("пицца", proximity[0], proximity[1], PLACES);
+        assertEquals(PLACES, cache.get("пицца", LAT, LON));
+    }
+
+    @Test
+    void storedListIsCopied() {
+        PlaceSearchCache cache = newCache();
+        List<MapboxResponseReader.Feature> places = new ArrayList<>(PLACES);
+        cache.put("пицца", LAT, LON, places);
+
+        places.clear();
+
+        assertEquals(2, cache.get("пицца", LAT, LON).size());
+    }
+
+    @Test
+    void disabledCacheMissesAndUsesPointItself() {
+        config.getPlaceSearch().setEnabled(false);
+        PlaceSearchCache cache = newCache();
+        cache.put("пицца", LAT, LON, PLACES);
+
+        assertNull(cache.get("пицца", LAT, LON));
+        assertArrayEquals(new double[]{LAT, LON}, cache.proximity(LAT, LON));
+    }
+
+    @ParameterizedTest(name = "resultDepth {0} -> {1}")
+    @CsvSource({
+            "1, 1",
+            "4, 4",
+            "10, 10",
+            "50, 10",
+            "0, 1"
+    })
+    void resultDepthIsClampedToMapboxLimit(int configured, int expected) {
+        config.getPlaceSearch().setResultDepth(configured);
+
+        assertEquals(expected, newCache().resultDepth());
+    }
+
+    private PlaceSearchCache newCache() {
+        return new PlaceSearchCache(config, new SimpleMeterRegistry());
+    }
+}
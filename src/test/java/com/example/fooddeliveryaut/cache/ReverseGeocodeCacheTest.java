@@ -0,0 +1,151 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.util.GeoDistanceUtil;
+import com.example.fooddeliveryaut.util.GeoGrid;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReverseGeocodeCacheTest {
+
+    private static final int CELL_SIZE_METERS = 15;
+    private static final double LON = 30.5234;
+    private static final double DEGREES_PER_METER = 180.0 / (Math.PI * GeoDistanceUtil.EARTH_RADIUS_KM * 1000);
+
+    private static final String ADDRESS = "вул. Хрещатик, 22, Київ";
+
+    @TempDir
+    Path dir;
+
+    private CacheConfigProperties config;
+    private SimpleMeterRegistry meterRegistry;
+    private ReverseGeocodeCache cache;
+
+    // Граница между двумя строками сетки
+    private double boundaryLat;
+
+    @BeforeEach
+    void setUp() {
+        config = new CacheConfigProperties();
+        config.getReverseGeocode().setCellSizeMeters(CELL_SIZE_METERS);
+        config.getGeocodeFile().setDirectory(dir.toString());
+        config.getGeocodeFile().setMaxEntries(100);
+        config.getGeocodeFile().setMaxBytes(64 * 1024);
+
+        GeoGrid grid = new GeoGrid(CELL_SIZE_METERS / 1000.0);
+        long row = grid.latIndex(50.4501);
+        boundaryLat = (grid.centerLat(row) + grid.centerLat(row + 1)) / 2;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.closeFile();
+    }
+
+    @Test
+    void pointInSameCellIsCellHit() {
+        cache = newCache();
+        cache.put(metersFromBoundary(-10), LON, ADDRESS);
+
+        assertEquals(ADDRESS, cache.get(metersFromBoundary(-3), LON));
+        assertEquals(1.0, lookups("cell"));
+        assertEquals(0.0, lookups("neighbor"));
+        assertEquals(0.0, lookups("miss"));
+    }
+
+    @Test
+    void pointAcrossBoundaryGetsNeighborAddressWithinCellSize() {
+        cache = newCache();
+        cache.put(metersFromBoundary(-2), LON, ADDRESS);
+
+        // Соседняя ячейка, 4 м от сохраненной точки
+        double near = metersFromBoundary(2);
+        assertNotEquals(cellOf(metersFromBoundary(-2)), cellOf(near));
+        assertEquals(ADDRESS, cache.get(near, LON));
+
+        // Та же соседняя ячейка, но 16 м от сохраненной точки - больше размера ячейки
+        double far = metersFromBoundary(14);
+        assertEquals(cellOf(near), cellOf(far));
+        assertNull(cache.get(far, LON));
+
+        assertEquals(0.0, lookups("cell"));
+        assertEquals(1.0, lookups("neighbor"));
+        assertEquals(1.0, lookups("miss"));
+    }
+
+    @Test
+    void neighborLookupCanBeDisabled() {
+        config.getReverseGeocode().setNeighborLookup(false);
+        cache = newCache();
+        cache.put(metersFromBoundary(-2), LON, ADDRESS);
+
+        assertNull(cache.get(metersFromBoundary(2), LON));
+        assertEquals(0.0, lookups("neighbor"));
+        assertEquals(1.0, lookups("miss"));
+    }
+
+    @Test
+    void fileSurvivesRestartOnlyForSameCellSize() throws IOException {
+        cache = newCache();
+        cache.put(metersFromBoundary(-5), LON, ADDRESS);
+        assertTrue(Files.exists(dir.resolve("reverse-15m.bin")));
+
+        // Другой размер ячейки - другой файл: ключи старой сетки не читаются
+        restart(20);
+        assertTrue(Files.exists(dir.resolve("reverse-20m.bin")));
+        assertNull(cache.get(metersFromBoundary(-5), LON));
+
+        // Прежний размер: адрес читается из файла, память пуста
+        restart(CELL_SIZE_METERS);
+        assertEquals(0, cache.size());
+        assertEquals(ADDRESS, cache.get(metersFromBoundary(-5), LON));
+        assertEquals(1.0, lookups("cell"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void nullAddressIsNotCached() {
+        cache = newCache();
+        cache.put(metersFromBoundary(-5), LON, null);
+
+        assertNull(cache.get(metersFromBoundary(-5), LON));
+        assertFalse(cache.size() > 0);
+        assertEquals(1.0, lookups("miss"));
+    }
+
+    private ReverseGeocodeCache newCache() {
+        meterRegistry = new SimpleMeterRegistry();
+        return new ReverseGeocodeCache(config, meterRegistry);
+    }
+
+    private void restart(int cellSizeMeters) throws IOException {
+        cache.closeFile();
+        config.getReverseGeocode().setCellSizeMeters(cellSizeMeters);
+        cache = newCache();
+    }
+
+    private double metersFromBoundary(double meters) {
+        return boundaryLat + meters * DEGREES_PER_METER;
+    }
+
+    private long cellOf(double lat) {
+        return new GeoGrid(CELL_SIZE_METERS / 1000.0).cellId(lat, LON);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("cache.reverseGeocode.lookups").tag("result", result).counter().count();
+    }
+}
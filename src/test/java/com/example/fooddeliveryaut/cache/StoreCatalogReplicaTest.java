@@ -0,0 +1,188 @@
+package com.example.fooddeliveryaut.cache;
+
+import com.example.fooddeliveryaut.client.InMemoryStoreCatalogFeed;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.config.StoreCatalogProperties;
+import com.example.fooddeliveryaut.dto.FindNearbyStoresDto;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.service.StoreRankingEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreCatalogReplicaTest {
+
+    // Центр Киева
+    private static final double LAT = 50.4501;
+    private static final double LON = 30.5234;
+
+    private InMemoryStoreCatalogFeed feed;
+    private StoreCatalogReplica replica;
+
+    @BeforeEach
+    void setUp() {
+        feed = new InMemoryStoreCatalogFeed();
+        feed.upsert(store(1L, "pizza", LAT + 0.005, LON, 4.5, true));     // ~0.6 км
+        feed.upsert(store(2L, "sushi", LAT + 0.02, LON, 4.9, true));      // ~2.2 км
+        feed.upsert(store(3L, "pizza", LAT, LON + 0.05, 3.8, false));     // ~3.5 км, закрыт
+        feed.upsert(store(4L, "pizza", LAT + 0.5, LON, 5.0, true));       // ~56 км
+
+        StoreCatalogProperties properties = new StoreCatalogProperties();
+        properties.setEnabled(true);
+        StoreRankingEngine rankingEngine = new StoreRankingEngine(new LocationConfigProperties());
+        replica = new StoreCatalogReplica(feed, properties, rankingEngine, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void notReadyUntilFirstSync() {
+        assertFalse(replica.isReady());
+
+        assertTrue(replica.sync());
+
+        assertTrue(replica.isReady());
+        assertEquals(4, replica.size());
+        assertEquals(4, replica.getVersion());
+    }
+
+    @Test
+    void findsStoresInRadiusSortedByDistance() {
+        replica.sync();
+
+        List<NearbyStoreDto> stores = replica.findNearby(search(10, null, false));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(stores));
+        assertEquals(0.56, stores.get(0).getDistanceKm(), 0.01);
+        assertEquals("556 м", stores.get(0).getDistanceText());
+        // 15 мин + 0.56 км при 30 км/ч; 50 + 10 за км
+        assertEquals(16, stores.get(0).getEstimatedDeliveryTime());
+        assertEquals(55.6, stores.get(0).getDeliveryFee().doubleValue(), 0.1);
+    }
+
+    @Test
+    void sortsByDeliveryTimeThenRating() {
+        feed.upsert(store(7L, "burgers", LAT + 0.0063, LON, 4.8, true)); // ~0.7 км, тоже 16 мин
+        replica.sync();
+
+        FindNearbyStoresDto search = search(10, null, false);
+        search.setSortBy("delivery_time");
+
+        assertEquals(List.of(7L, 1L, 2L, 3L), ids(replica.findNearby(search)));
+    }
+
+    @Test
+    void appliesCategoryOpenAndRatingFilters() {
+        replica.sync();
+
+        assertEquals(List.of(1L, 3L), ids(replica.findNearby(search(10, "PIZZA", false))));
+        assertEquals(List.of(1L), ids(replica.findNearby(search(10, "pizza", true))));
+        assertEquals(List.of(), ids(replica.findNearby(search(10, "burgers", false))));
+        assertEquals(List.of(1L, 2L, 3L), ids(replica.findNearby(search(10, " ", false))));
+
+        FindNearbyStoresDto rated = search(10, null, false);
+        rated.setMinRating(4.6);
+        assertEquals(List.of(2L), ids(replica.findNearby(rated)));
+    }
+
+    @Test
+    void sortsByRatingAndAppliesLimit() {
+        replica.sync();
+
+        FindNearbyStoresDto search = search(100, null, false);
+        search.setSortBy("rating");
+        search.setLimit(2);
+
+        assertEquals(List.of(4L, 2L), ids(replica.findNearby(search)));
+    }
+
+    @Test
+    void adaptiveRadiusStopsAtLimit() {
+        replica.sync();
+
+        FindNearbyStoresDto search = search(50, null, false);
+        search.setAdaptiveRadius(true);
+        search.setLimit(2);
+
+        assertEquals(List.of(1L, 2L), ids(replica.findNearby(search)));
+
+        // Лимит не набирается: радиус растет до максимального
+        search.setLimit(10);
+        assertEquals(List.of(1L, 2L, 3L), ids(replica.findNearby(search)));
+    }
+
+    @Test
+    void adaptiveRadiusRanksNearestByRating() {
+        replica.sync();
+
+        FindNearbyStoresDto search = search(50, null, false);
+        search.setAdaptiveRadius(true);
+        search.setLimit(2);
+        search.setSortBy("rating");
+
+        // Магазин 4 с лучшим рейтингом дальше двух ближайших
+        assertEquals(List.of(2L, 1L), ids(replica.findNearby(search)));
+    }
+
+    @Test
+    void appliesIncrementalChanges() {
+        replica.sync();
+
+        feed.remove(1L);
+        feed.upsert(store(5L, "sushi", LAT - 0.003, LON, 4.0, true));
+        feed.upsert(store(2L, "sushi", LAT + 0.5, LON + 0.5, 4.9, true)); // переехал далеко
+
+        assertTrue(replica.sync());
+
+        assertEquals(7, replica.getVersion());
+        assertNull(replica.get(1L));
+        assertEquals(List.of(5L, 3L), ids(replica.findNearby(search(10, null, false))));
+        assertEquals(List.of(5L), ids(replica.findNearby(search(10, "sushi", false))));
+    }
+
+    @Test
+    void reloadsSnapshotWhenChangesAreNoLongerAvailable() {
+        replica.sync();
+
+        feed.upsert(store(6L, "burgers", LAT + 0.001, LON, 4.2, true));
+        feed.truncateJournal();
+
+        assertTrue(replica.sync());
+
+        assertEquals(5, replica.size());
+        assertEquals(List.of(6L), ids(replica.findNearby(search(10, "burgers", false))));
+    }
+
+    private static FindNearbyStoresDto search(int radiusKm, String category, boolean onlyOpen) {
+        return FindNearbyStoresDto.builder()
+                .latitude(BigDecimal.valueOf(LAT))
+                .longitude(BigDecimal.valueOf(LON))
+                .radiusKm(radiusKm)
+                .category(category)
+                .onlyOpen(onlyOpen)
+                .build();
+    }
+
+    private static NearbyStoreDto store(Long id, String category, double lat, double lon,
+                                        double rating, boolean open) {
+        return NearbyStoreDto.builder()
+                .storeId(id)
+                .name("Store " + id)
+                .category(category)
+                .latitude(BigDecimal.valueOf(lat))
+                .longitude(BigDecimal.valueOf(lon))
+                .rating(rating)
+                .isOpen(open)
+                .build();
+    }
+
+    private static List<Long> ids(List<NearbyStoreDto> stores) {
+        return stores.stream().map(NearbyStoreDto::getStoreId).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogChangesDto;
+import com.example.fooddeliveryaut.dto.StoreCatalogSnapshotDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 🧪 Каталог магазинов в памяти для тестов (вместо PRODUCT-SERVICE)
+ *
+ * Хранит журнал изменений; если запрошенная версия старше самой старой
+ * сохраненной, возвращает snapshotRequired, как настоящий сервис.
+ */
+public class InMemoryStoreCatalogFeed implements StoreCatalogFeed {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, NearbyStoreDto> stores = new LinkedHashMap<>();
+    private final List<Change> journal = new ArrayList<>();
+    private long version;
+    private long oldestJournalVersion;
+
+    public void upsert(NearbyStoreDto store) {
+        lock.lock();
+        try {
+            version++;
+            stores.put(store.getStoreId(), store);
+            journal.add(new Change(version, store, null));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long storeId) {
+        lock.lock();
+        try {
+            version++;
+            stores.remove(storeId);
+            journal.add(new Change(version, null, storeId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 🧹 Забыть журнал изменений (следующий запрос изменений потребует снимок)
+     */
+    public void truncateJournal() {
+        lock.lock();
+        try {
+            journal.clear();
+            oldestJournalVersion = version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StoreCatalogSnapshotDto fetchSnapshot() {
+        lock.lock();
+        try {
+            return StoreCatalogSnapshotDto.builder()
+                    .version(version)
+                    .stores(new ArrayList<>(stores.values()))
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StoreCatalogChangesDto fetchChanges(long sinceVersion) {
+        lock.lock();
+        try {
+            if (sinceVersion < oldestJournalVersion) {
+                return StoreCatalogChangesDto.builder()
+                        .version(version)
+                        .snapshotRequired(true)
+                        .build();
+            }
+
+            // Итоговое состояние каждого измененного магазина: порядок применения не важен
+            Map<Long, NearbyStoreDto> updated = new LinkedHashMap<>();
+            Set<Long> removed = new LinkedHashSet<>();
+            for (Change change : journal) {
+                if (change.version() <= sinceVersion) {
+                    continue;
+                }
+                if (change.store() != null) {
+                    removed.remove(change.store().getStoreId());
+                    updated.put(change.store().getStoreId(), change.store());
+                } else {
+                    updated.remove(change.removedStoreId());
+                    removed.add(change.removedStoreId());
+                }
+            }
+
+            return StoreCatalogChangesDto.builder()
+                    .version(version)
+                    .updated(new ArrayList<>(updated.values()))
+                    .removedStoreIds(new ArrayList<>(removed))
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Change(long version, NearbyStoreDto store, Long removedStoreId) {
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.fooddeliveryaut.enums.GeocodingPriority.BACKGROUND;
+import static com.example.fooddeliveryaut.enums.GeocodingPriority.INTERACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapboxQuotaManagerTest {
+
+    private MapboxConfigProperties config;
+    private MapboxConfigProperties.Quota quota;
+    private SimpleMeterRegistry meterRegistry;
+    private FakeClock clock;
+
+    @BeforeEach
+    void setUp() {
+        config = new MapboxConfigProperties();
+        quota = config.getQuota();
+        // Часы стоят: результат определяется только корзиной
+        quota.setRequestsPerSecond(0.001);
+        quota.setMinRequestsPerSecond(0.001);
+        quota.setInteractiveMaxWaitMs(0);
+        quota.setBackgroundMaxWaitMs(0);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new FakeClock();
+    }
+
+    @Test
+    void backgroundRequestsNeverTakeInteractiveReserve() {
+        quota.setBurst(10);
+        quota.setInteractiveReservePercent(30);
+        MapboxQuotaManager manager = manager();
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(manager.tryAcquire(BACKGROUND), "background #" + i);
+        }
+        assertFalse(manager.tryAcquire(BACKGROUND));
+
+        // Резерв из 3 токенов остался интерактивным запросам
+        for (int i = 0; i < 3; i++) {
+            assertTrue(manager.tryAcquire(INTERACTIVE), "interactive #" + i);
+        }
+        assertFalse(manager.tryAcquire(INTERACTIVE));
+
+        assertEquals(7, count(BACKGROUND, "granted"));
+        assertEquals(1, count(BACKGROUND, "shed"));
+        assertEquals(3, count(INTERACTIVE, "granted"));
+        assertEquals(1, count(INTERACTIVE, "shed"));
+    }
+
+    @Test
+    void shedsRequestAfterItsClassWait() {
+        // Один токен раз в 100 мс
+        quota.setRequestsPerSecond(10.0);
+        quota.setBurst(1);
+        quota.setInteractiveReservePercent(0);
+        quota.setInteractiveMaxWaitMs(20);
+        quota.setBackgroundMaxWaitMs(1000);
+        MapboxQuotaManager manager = manager();
+
+        assertTrue(manager.tryAcquire(INTERACTIVE));
+
+        // Токен появится позже, чем интерактивный запрос готов ждать: отказ без ожидания
+        assertFalse(manager.tryAcquire(INTERACTIVE));
+        assertEquals(0, clock.sleptMs());
+
+        // Фоновый запрос дожидается токена
+        assertTrue(manager.tryAcquire(BACKGROUND));
+        assertEquals(100, clock.sleptMs());
+    }
+
+    @Test
+    void acquireNowNeverWaitsAndIsNotCountedAsShed() {
+        quota.setRequestsPerSecond(10.0);
+        quota.setBurst(1);
+        quota.setInteractiveReservePercent(0);
+        quota.setBackgroundMaxWaitMs(1000);
+        MapboxQuotaManager manager = manager();
+
+        assertTrue(manager.tryAcquireNow(BACKGROUND));
+        assertFalse(manager.tryAcquireNow(BACKGROUND));
+        assertEquals(0, clock.sleptMs());
+        assertEquals(1, count(BACKGROUND, "granted"));
+        assertEquals(0, count(BACKGROUND, "shed"));
+
+        clock.advanceMs(100);
+        assertTrue(manager.tryAcquireNow(BACKGROUND));
+    }
+
+    @Test
+    void throttledWithRetryAfterHalvesRateAndPausesForRetryAfter() {
+        quota.setRequestsPerSecond(8.0);
+        quota.setMinRequestsPerSecond(1.0);
+        quota.setBurst(5);
+        quota.setInteractiveReservePercent(0);
+        quota.setBackoffInitialMs(10_000);
+        MapboxQuotaManager manager = manager();
+
+        manager.onThrottled(Duration.ofMillis(150));
+
+        assertEquals(4.0, manager.currentRate());
+        assertEquals(0.0, manager.availableTokens());
+        assertFalse(manager.tryAcquire(INTERACTIVE));
+
+        // Во время паузы корзина не пополняется
+        clock.advanceMs(150);
+        assertEquals(0.0, manager.availableTokens());
+
+        // Retry-After короче начальной паузы: после него токен набирается за 250 мс при 4 запросах/сек
+        clock.advanceMs(249);
+        assertFalse(manager.tryAcquire(INTERACTIVE));
+        clock.advanceMs(1);
+        assertTrue(manager.tryAcquire(INTERACTIVE));
+        assertEquals(1.0, meterRegistry.get("mapbox.quota.throttled").counter().count());
+    }
+
+    @Test
+    void throttledWithoutRetryAfterUsesDoublingBackoffAndMinRate() {
+        quota.setRequestsPerSecond(8.0);
+        quota.setMinRequestsPerSecond(3.0);
+        quota.setBurst(5);
+        quota.setInteractiveReservePercent(0);
+        quota.setBackoffInitialMs(100);
+        quota.setBackgroundMaxWaitMs(2000);
+        MapboxQuotaManager manager = manager();
+
+        manager.onThrottled(null);
+        assertEquals(4.0, manager.currentRate());
+
+        // Пауза 100 мс, затем токен при 4 запросах/сек - еще 250 мс
+        assertTrue(manager.tryAcquire(BACKGROUND));
+        assertEquals(350, clock.sleptMs());
+
+        // Повторный 429: пауза удваивается, лимит не опускается ниже минимального
+        manager.onThrottled(null);
+        assertEquals(3.0, manager.currentRate());
+
+        clock.resetSlept();
+        assertTrue(manager.tryAcquire(BACKGROUND));
+        assertEquals(200 + 333, clock.sleptMs());
+    }
+
+    @Test
+    void successfulResponsesRestoreRateAndResetBackoff() {
+        quota.setRequestsPerSecond(8.0);
+        quota.setMinRequestsPerSecond(1.0);
+        quota.setRecoveryStep(1.5);
+        quota.setBackoffInitialMs(100);
+        quota.setBackgroundMaxWaitMs(2000);
+        quota.setInteractiveReservePercent(0);
+        MapboxQuotaManager manager = manager();
+
+        manager.onThrottled(null);
+        manager.onThrottled(null);
+        assertEquals(2.0, manager.currentRate());
+
+        manager.onSuccess();
+        assertEquals(3.5, manager.currentRate());
+        for (int i = 0; i < 10; i++) {
+            manager.onSuccess();
+        }
+        assertEquals(8.0, manager.currentRate());
+
+        // После успеха следующий 429 снова начинает с начальной паузы (100 мс), а не с 400 мс;
+        // токен при 4 запросах/сек - еще через 250 мс
+        clock.advanceMs(1000);
+        manager.onThrottled(null);
+        assertTrue(manager.tryAcquire(BACKGROUND));
+        assertEquals(100 + 250, clock.sleptMs());
+    }
+
+    private MapboxQuotaManager manager() {
+        return new MapboxQuotaManager(config, meterRegistry, clock);
+    }
+
+    private double count(GeocodingPriority priority, String result) {
+        return meterRegistry.get("mapbox.quota.requests")
+                .tag("priority", priority.getTag())
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    /**
+     * Часы, которые идут только по команде теста; ожидание квоты сдвигает их мгновенно
+     */
+    private static final class FakeClock implements MapboxQuotaManager.NanoClock {
+        private long now = TimeUnit.SECONDS.toNanos(1000);
+        private long slept;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void sleepNanos(long nanos) {
+            now += nanos;
+            slept += nanos;
+        }
+
+        private void advanceMs(long ms) {
+            now += TimeUnit.MILLISECONDS.toNanos(ms);
+        }
+
+        private long sleptMs() {
+            return TimeUnit.NANOSECONDS.toMillis(slept);
+        }
+
+        private void resetSlept() {
+            slept = 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.fooddeliveryaut.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapboxResponseReaderTest {
+
+    private static final String KYIV = """
+            {"id":"place.1","type":"Feature","place_type":["place"],
+             "properties":{"wikidata":"Q1899","text":"не то","nested":{"place_name":"не то","a":[1,[2,3],{"b":null}]}},
+             "text":"Київ","place_name":"Київ, Україна",
+             "center":[30.5234,50.4501],
+             "geometry":{"type":"Point","extra":{"coordinates":[0,0]},"coordinates":[30.5234,50.4501]},
+             "context":[{"id":"country.1","text":"Україна"}]}""";
+
+    private static final String LVIV = """
+            {"text":"Львів","place_name":"Львів, Україна","geometry":{"coordinates":[24.0297,49.8397,120.5]}}""";
+
+    private final MapboxResponseReader reader = new MapboxResponseReader(new ObjectMapper());
+
+    @Test
+    void readsFeaturesAndSkipsUnknownAndNestedFields() throws IOException {
+        List<MapboxResponseReader.Feature> features = read("""
+                {"type":"FeatureCollection","query":["київ"],"meta":{"features":[{"text":"не то"}]},
+                 "features":[%s,%s],"attribution":"x"}""".formatted(KYIV, LVIV), 10);
+
+        assertEquals(2, features.size());
+        assertEquals(new MapboxResponseReader.Feature("Київ", "Київ, Україна", 30.5234, 50.4501), features.get(0));
+        // Третья координата (высота) игнорируется
+        assertEquals(new MapboxResponseReader.Feature("Львів", "Львів, Україна", 24.0297, 49.8397), features.get(1));
+    }
+
+    @Test
+    void skipsFeaturesWithoutCoordinates() throws IOException {
+        List<MapboxResponseReader.Feature> features = read("""
+                {"features":[{"text":"без точки","geometry":null},
+                             {"text":"одна координата","geometry":{"coordinates":[30.5]}},
+                             %s]}""".formatted(LVIV), 10);
+
+        assertEquals(1, features.size());
+        assertEquals("Львів", features.get(0).text());
+    }
+
+    @Test
+    void readsMissingOptionalFieldsAsNull() throws IOException {
+        List<MapboxResponseReader.Feature> features = read("""
+                {"features":[{"text":null,"geometry":{"coordinates":[1.5,2.5]}}]}""", 10);
+
+        assertNull(features.get(0).text());
+        assertNull(features.get(0).placeName());
+        assertEquals(1.5, features.get(0).longitude());
+        assertEquals(2.5, features.get(0).latitude());
+    }
+
+    @Test
+    void stopsAfterRequestedNumberOfFeatures() throws IOException {
+        // После первых двух объектов тело обрывается невалидным JSON: парсер до него не доходит
+        // Хвост длиннее буфера парсера
+        String truncated = "{\"features\":[" + KYIV + "," + LVIV + ",{\"text\": ??? обрыв" + "x".repeat(64 * 1024);
+        ByteArrayInputStream body = new ByteArrayInputStream(truncated.getBytes(StandardCharsets.UTF_8));
+
+        List<MapboxResponseReader.Feature> features = reader.read(body, 2);
+
+        assertEquals(List.of("Київ", "Львів"), features.stream().map(MapboxResponseReader.Feature::text).toList());
+        // Поток не дочитан: остаток дочитывает RestTemplate при закрытии ответа
+        assertTrue(body.available() > 0);
+    }
+
+    @Test
+    void returnsEmptyListWithoutFeatures() throws IOException {
+        assertTrue(read("{\"type\":\"FeatureCollection\",\"features\":[]}", 10).isEmpty());
+        assertTrue(read("{\"message\":\"Not Found\"}", 10).isEmpty());
+    }
+
+    @Test
+    void rejectsNonObjectResponse() {
+        assertThrows(IOException.class, () -> read("[]", 10));
+    }
+
+    private List<MapboxResponseReader.Feature> read(String json, int maxFeatures) throws IOException {
+        InputStream body = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        return reader.read(body, maxFeatures);
+    }
+}
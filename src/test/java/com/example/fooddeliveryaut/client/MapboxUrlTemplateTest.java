@@ -0,0 +1,79 @@
+package com.example.fooddeliveryaut.client;
+
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MapboxUrlTemplateTest {
+
+    @Test
+    void keepsUnreservedCharacters() {
+        assertEquals("Kyiv-1._~", encode("Kyiv-1._~"));
+    }
+
+    @Test
+    void encodesCyrillicAsUtf8() {
+        // К=D0 9A, и=D0 B8, ї=D1 97, в=D0 B2
+        assertEquals("%D0%9A%D0%B8%D1%97%D0%B2", encode("Київ"));
+    }
+
+    @Test
+    void encodesSpaceAsPercent20AndPlusAsPercent2B() {
+        assertEquals("a%20b", encode("a b"));
+        assertEquals("1%2B1", encode("1+1"));
+        assertEquals("%2C%2F%3F%26%3D%23%25", encode(",/?&=#%"));
+    }
+
+    @Test
+    void encodesSurrogatePairAsOneFourByteSequence() {
+        // U+1F355 (пицца)
+        assertEquals("%F0%9F%8D%95", encode("🍕"));
+        assertEquals("a%F0%9F%8D%95b", encode("a🍕b"));
+    }
+
+    @Test
+    void replacesLoneSurrogateWithReplacementCharacter() {
+        // U+FFFD = EF BF BD
+        assertEquals("a%EF%BF%BDb", encode("a\uD83Cb"));
+        assertEquals("%EF%BF%BD", encode("\uDF55"));
+        assertEquals("%EF%BF%BD", encode("\uD83C"));
+    }
+
+    @Test
+    void roundTripsThroughDecoder() {
+        String value = "вул. Хрещатик, 22 / 1+2 🍕 Café";
+        assertEquals(value, URLDecoder.decode(encode(value), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void buildsForwardAndPlacesUrls() {
+        MapboxConfigProperties config = new MapboxConfigProperties();
+        config.getAccess().setToken("pk.test");
+        config.getGeocoding().setCountry("UA");
+        MapboxUrlTemplate template = new MapboxUrlTemplate(config);
+
+        URI forward = template.forward("вул Хрещатик 1");
+        assertEquals("/geocoding/v5/mapbox.places/вул Хрещатик 1.json", forward.getPath());
+        assertEquals("access_token=pk.test&limit=1&types=address%2Cpoi&country=UA", forward.getRawQuery());
+
+        URI places = template.places("pizza+", new BigDecimal("30.5234"), new BigDecimal("50.4501"), 10);
+        assertEquals("/geocoding/v5/mapbox.places/pizza%2B.json", places.getRawPath());
+        assertEquals("access_token=pk.test&proximity=30.5234,50.4501&limit=10&types=poi&country=UA",
+                places.getRawQuery());
+
+        URI reverse = template.reverse(new BigDecimal("30.5234"), new BigDecimal("50.4501"));
+        assertEquals("/geocoding/v5/mapbox.places/30.5234,50.4501.json", reverse.getPath());
+    }
+
+    private static String encode(String value) {
+        StringBuilder out = new StringBuilder();
+        MapboxUrlTemplate.appendEncoded(out, value);
+        return out.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fooddeliveryaut.controller;
+
+import com.example.fooddeliveryaut.dto.FindNearbyStoresDto;
+import com.example.fooddeliveryaut.service.AddressAutocompleteService;
+import com.example.fooddeliveryaut.service.UserLocationService;
+import com.example.fooddeliveryaut.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserLocationControllerTest {
+
+    private static final String AUTHORIZATION = "Bearer test-token";
+
+    private UserLocationService userLocationService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userLocationService = mock(UserLocationService.class);
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.validateToken("test-token")).thenReturn(true);
+        when(jwtUtil.getUserIdFromToken("test-token")).thenReturn(7L);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserLocationController(userLocationService,
+                mock(AddressAutocompleteService.class), jwtUtil)).build();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            limit=0         | Лимит должен быть не меньше 1
+            limit=500       | Лимит должен быть не больше 100
+            radiusKm=0      | Радиус должен быть не меньше 1 км
+            radiusKm=51     | Радиус должен быть не больше 50 км
+            """)
+    void outOfRangeQueryIsRejectedBeforeSearch(String query, String message) throws Exception {
+        mockMvc.perform(get("/api/users/me/nearby-stores?" + query).header("Authorization", AUTHORIZATION))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$.message").value("Ошибка валидации: " + message));
+
+        verify(userLocationService, never()).findNearbyStoresAsync(anyLong(), any());
+    }
+
+    @Test
+    void boundaryQueryReachesSearch() throws Exception {
+        when(userLocationService.findNearbyStoresAsync(anyLong(), any(FindNearbyStoresDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        MvcResult result = mockMvc.perform(get("/api/users/me/nearby-stores?limit=100&radiusKm=50")
+                        .header("Authorization", AUTHORIZATION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+        verify(userLocationService).findNearbyStoresAsync(anyLong(), any(FindNearbyStoresDto.class));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.fooddeliveryaut.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindNearbyStoresDtoTest {
+
+    private static ValidatorFactory factory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        factory.close();
+    }
+
+    @Test
+    void defaultsAreValid() {
+        assertTrue(validator.validate(FindNearbyStoresDto.builder().build()).isEmpty());
+    }
+
+    @Test
+    void explicitNullLimitAndRadiusAreRejected() {
+        // {"limit": null, "radiusKm": null}: @Min/@Max пропускают null, кэш ячеек распаковал бы его
+        FindNearbyStoresDto dto = FindNearbyStoresDto.builder()
+                .limit(null)
+                .radiusKm(null)
+                .build();
+
+        assertEquals(Set.of("limit", "radiusKm"), invalidFields(dto));
+    }
+
+    @Test
+    void outOfRangeLimitAndRadiusAreRejected() {
+        FindNearbyStoresDto dto = FindNearbyStoresDto.builder()
+                .limit(0)
+                .radiusKm(51)
+                .build();
+
+        assertEquals(Set.of("limit", "radiusKm"), invalidFields(dto));
+    }
+
+    private static Set<String> invalidFields(FindNearbyStoresDto dto) {
+        return validator.validate(dto).stream()
+                .map(ConstraintViolation::getPropertyPath)
+                .map(Object::toString)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.cache.UserOriginCache;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.dto.AddressSuggestionDto;
+import com.example.fooddeliveryaut.model.User;
+import com.example.fooddeliveryaut.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AddressAutocompleteServiceTest {
+
+    private static final double[] KYIV = {50.4501, 30.5234};
+    private static final double[] ODESA = {46.4825, 30.7233};
+
+    private static final long USER_ID = 7L;
+
+    private static OfflineGazetteer gazetteer;
+
+    private final List<Map<String, Object>> addressRows = new ArrayList<>();
+    private final List<Map<String, Object>> cityRows = new ArrayList<>();
+
+    private UserRepository userRepository;
+    private UserOriginCache userOriginCache;
+    private AddressAutocompleteService service;
+
+    @BeforeAll
+    static void loadGazetteer() {
+        gazetteer = new OfflineGazetteer(new LocationConfigProperties(), new DefaultResourceLoader(),
+                new SimpleMeterRegistry());
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userOriginCache = new UserOriginCache(new CacheConfigProperties(), userRepository, new SimpleMeterRegistry());
+        service = new AddressAutocompleteService(gazetteer, new FakeJdbcTemplate(), userOriginCache,
+                new LocationConfigProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void closerOfEquallyPopularStreetsRanksFirst() {
+        address("ул. Садовая 1, Киев", 3, KYIV);
+        address("ул. Садовая 2, Одесса", 3, ODESA);
+        service.rebuild();
+
+        assertEquals(List.of("ул. Садовая, Одесса", "ул. Садовая, Киев"),
+                texts(service.suggest(USER_ID, "садов", ODESA[0], ODESA[1], 5)));
+        assertEquals(List.of("ул. Садовая, Киев", "ул. Садовая, Одесса"),
+                texts(service.suggest(USER_ID, "ул садов", KYIV[0], KYIV[1], 5)));
+    }
+
+    @Test
+    void morePopularStreetRanksFirstWithoutLocation() {
+        address("ул. Садовая 1, Одесса", 3, ODESA);
+        address("ул. Садовая 1, Киев", 10, KYIV);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        service.rebuild();
+
+        List<AddressSuggestionDto> suggestions = service.suggest(USER_ID, "Садовая", null, null, 5);
+
+        assertEquals(List.of("ул. Садовая, Киев", "ул. Садовая, Одесса"), texts(suggestions));
+        assertEquals(10, suggestions.get(0).getUserCount());
+        assertNull(suggestions.get(0).getDistanceKm());
+    }
+
+    @Test
+    void housesOfOneStreetMergeAndRareStreetsAreSkipped() {
+        address("ул. Садовая 1, Киев", 1, KYIV);
+        address("ул. Садовая 15, Киев", 1, KYIV);
+        address("ул. Тихая 3, Киев", 1, KYIV);
+        service.rebuild();
+
+        List<AddressSuggestionDto> suggestions = service.suggest(USER_ID, "ул ", KYIV[0], KYIV[1], 5);
+
+        assertEquals(List.of("ул. Садовая, Киев"), texts(suggestions));
+        assertEquals(2, suggestions.get(0).getUserCount());
+        assertEquals(0.0, suggestions.get(0).getDistanceKm());
+    }
+
+    @Test
+    void aliasesOfOnePlaceAreSuggestedOnce() {
+        city("Киев", 5);
+        service.rebuild();
+
+        // "Киев" и "Київ" - псевдонимы одного места
+        List<String> texts = texts(service.suggest(USER_ID, "Ки", KYIV[0], KYIV[1], 20));
+
+        assertEquals("Киев", texts.get(0));
+        assertTrue(texts.stream().noneMatch("Київ"::equals), texts.toString());
+    }
+
+    @Test
+    void shortPrefixReturnsNothing() {
+        city("Киев", 5);
+        service.rebuild();
+
+        assertEquals(List.of(), service.suggest(USER_ID, " к, ", KYIV[0], KYIV[1], 5));
+    }
+
+    @Test
+    void storedLocationIsReadOnceUntilUserMoves() {
+        address("ул. Садовая 1, Киев", 3, KYIV);
+        address("ул. Садовая 2, Одесса", 3, ODESA);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(userAt(ODESA)));
+        service.rebuild();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ул. Садовая, Одесса", texts(service.suggest(USER_ID, "садов", null, null, 5)).get(0));
+        }
+        verify(userRepository, times(1)).findById(USER_ID);
+
+        // Пользователь переехал: UserLocationService сбрасывает запись
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(userAt(KYIV)));
+        userOriginCache.invalidate(USER_ID);
+
+        assertEquals("ул. Садовая, Киев", texts(service.suggest(USER_ID, "садов", null, null, 5)).get(0));
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @ParameterizedTest(name = "[{0}] -> [{1}]")
+    @CsvSource(delimiter = '|', textBlock = """
+            ул. Крещатик 22, Киев           | ул. Крещатик, Киев
+            Baker Street 221b, London       | Baker Street, London
+            ул. Садовая 1, Одесса, 65000    | ул. Садовая, Одесса
+            вул. Хрещатик, 22 , Київ        | вул. Хрещатик, Київ
+            Киев                            |
+            12, 65000                       |
+            Одесса, 65000                   |
+            """)
+    void stripsHouseNumbersToStreetLevel(String fullAddress, String expected) {
+        assertEquals(expected, AddressAutocompleteService.streetLevel(fullAddress));
+    }
+
+    private void address(String fullAddress, int users, double[] point) {
+        addressRows.add(Map.of("full_address", fullAddress, "users", users, "located", users,
+                "latitude", point[0], "longitude", point[1]));
+    }
+
+    private void city(String city, int users) {
+        cityRows.add(Map.of("city", city, "users", users));
+    }
+
+    private static User userAt(double[] point) {
+        User user = new User();
+        user.updateLocation(BigDecimal.valueOf(point[0]), BigDecimal.valueOf(point[1]));
+        return user;
+    }
+
+    private static List<String> texts(List<AddressSuggestionDto> suggestions) {
+        return suggestions.stream().map(AddressSuggestionDto::getText).toList();
+    }
+
+    /**
+     * Строки запросов индекса из памяти: столбец ResultSet читается из Map по имени
+     */
+    private class FakeJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler) {
+            query(sql, handler, new Object[0]);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            List<Map<String, Object>> rows = sql.contains("full_address") ? addressRows : cityRows;
+            try {
+                for (Map<String, Object> row : rows) {
+                    handler.processRow(mock(ResultSet.class, invocation -> row.get(invocation.<String>getArgument(0))));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.GeocodingBackfillProperties;
+import com.example.fooddeliveryaut.enums.GeocodingPriority;
+import com.example.fooddeliveryaut.model.GeocodingBackfillCheckpoint;
+import com.example.fooddeliveryaut.model.User;
+import com.example.fooddeliveryaut.repository.GeocodingBackfillCheckpointRepository;
+import com.example.fooddeliveryaut.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static com.example.fooddeliveryaut.model.GeocodingBackfillCheckpoint.Status.COMPLETED;
+import static com.example.fooddeliveryaut.model.GeocodingBackfillCheckpoint.Status.STOPPED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeocodingBackfillServiceTest {
+
+    private static final GeoLocation FOUND = new GeoLocation(new BigDecimal("50.45"), new BigDecimal("30.52"));
+    private static final GeoLocation CITY_CENTER = new GeoLocation(new BigDecimal("46.48"), new BigDecimal("30.72"), true);
+
+    // Пользователи без координат по id, как их видит запрос порции
+    private final TreeMap<Long, User> usersWithoutLocation = new TreeMap<>();
+    private final Map<String, GeoLocation> answers = new HashMap<>();
+
+    private GeocodingBackfillProperties config;
+    private GeocodingService geocodingService;
+    private UserRepository userRepository;
+    private GeocodingBackfillCheckpointRepository checkpointRepository;
+    private JdbcTemplate jdbcTemplate;
+    private GeocodingBackfillCheckpoint checkpoint;
+    private GeocodingBackfillService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new GeocodingBackfillProperties();
+        config.setChunkSize(3);
+        config.setWorkers(2);
+        config.setRequestsPerSecond(1000);
+        config.setRetryDelaySeconds(0);
+        config.setOutageMaxWaitSeconds(0);
+
+        geocodingService = mock(GeocodingService.class);
+        when(geocodingService.isGeocodingAvailable()).thenReturn(true);
+        when(geocodingService.geocodeAddress(anyString(), eq(GeocodingPriority.BACKGROUND)))
+                .thenAnswer(invocation -> answers.getOrDefault(invocation.<String>getArgument(0), CITY_CENTER));
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findUsersWithAddressWithoutLocationAfter(anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> usersWithoutLocation.tailMap(invocation.getArgument(0), false).values()
+                        .stream()
+                        .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                        .toList());
+
+        checkpointRepository = mock(GeocodingBackfillCheckpointRepository.class);
+        when(checkpointRepository.findById(GeocodingBackfillService.JOB_NAME))
+                .thenAnswer(invocation -> Optional.ofNullable(checkpoint));
+        when(checkpointRepository.save(any(GeocodingBackfillCheckpoint.class))).thenAnswer(invocation -> {
+            checkpoint = invocation.getArgument(0);
+            return checkpoint;
+        });
+
+        // Записанные координаты убирают пользователя из следующих порций
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] counts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                counts[i] = usersWithoutLocation.remove((Long) rows.get(i)[4]) != null ? 1 : 0;
+            }
+            return counts;
+        });
+
+        service = new GeocodingBackfillService(userRepository, checkpointRepository, geocodingService,
+                jdbcTemplate, mock(PlatformTransactionManager.class), config, Runnable::run,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void geocodesInChunksOncePerNormalizedAddress() {
+        user(1, "ул. Садовая 1, Киев");
+        user(2, "улица Садовая 1 Киев");
+        user(3, "Крещатик 5, Киев");
+        user(4, "Крещатик 5, Киев");
+        user(5, "пр. Победы 10, Киев");
+        answer("ул. Садовая 1, Киев", FOUND);
+        answer("Крещатик 5, Киев", FOUND);
+        answer("пр. Победы 10, Киев", FOUND);
+
+        run();
+
+        // Порции [1, 2, 3] и [4, 5]: адрес - один запрос на порцию
+        verify(geocodingService, times(1)).geocodeAddress("ул. Садовая 1, Киев", GeocodingPriority.BACKGROUND);
+        verify(geocodingService, never()).geocodeAddress("улица Садовая 1 Киев", GeocodingPriority.BACKGROUND);
+        verify(geocodingService, times(2)).geocodeAddress("Крещатик 5, Киев", GeocodingPriority.BACKGROUND);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+
+        assertEquals(COMPLETED, checkpoint.getStatus());
+        assertEquals(5L, checkpoint.getLastUserId());
+        assertEquals(5L, checkpoint.getProcessedUsers());
+        assertEquals(5L, checkpoint.getUpdatedUsers());
+        assertEquals(0L, checkpoint.getUnresolvedUsers());
+        assertTrue(usersWithoutLocation.isEmpty());
+    }
+
+    @Test
+    void approximateResultsAreSkippedButPassed() {
+        user(1, "ул. Садовая 1, Киев");
+        user(2, "Одесса");
+        user(3, "ул. Неизвестная 7, Одесса");
+        answer("ул. Садовая 1, Киев", FOUND);
+
+        run();
+
+        assertEquals(COMPLETED, checkpoint.getStatus());
+        assertEquals(3L, checkpoint.getLastUserId());
+        assertEquals(1L, checkpoint.getUpdatedUsers());
+        assertEquals(2L, checkpoint.getUnresolvedUsers());
+        // Центр города в координаты пользователя не записывается
+        assertEquals(List.of(2L, 3L), new ArrayList<>(usersWithoutLocation.keySet()));
+    }
+
+    @Test
+    void outageStopsWithoutMovingCheckpoint() {
+        user(1, "ул. Садовая 1, Киев");
+        user(2, "Крещатик 5, Киев");
+        when(geocodingService.isGeocodingAvailable()).thenReturn(false);
+
+        run();
+
+        assertEquals(STOPPED, checkpoint.getStatus());
+        assertEquals(0L, checkpoint.getLastUserId());
+        assertEquals(0L, checkpoint.getProcessedUsers());
+        assertNotNull(checkpoint.getLastError());
+        verify(geocodingService, never()).geocodeAddress(anyString(), any());
+        verify(userRepository, never()).findUsersWithAddressWithoutLocationAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void checkpointStopsBeforeFirstDeferredAddress() {
+        user(1, "ул. Садовая 1, Киев");
+        user(2, "Крещатик 5, Киев");
+        user(3, "пр. Победы 10, Киев");
+        user(4, "Одесса");
+        answer("ул. Садовая 1, Киев", FOUND);
+        // Квота сбросила запрос: приблизительный ответ, но адрес не проверен
+        answer("Крещатик 5, Киев", CITY_CENTER.asDeferred());
+        answer("пр. Победы 10, Киев", FOUND);
+
+        run();
+
+        // Первый проход продвинулся до id 1 и записал 3; второй - только отложенный адрес: остановка
+        assertEquals(STOPPED, checkpoint.getStatus());
+        assertEquals(1L, checkpoint.getLastUserId());
+        assertEquals(2L, checkpoint.getProcessedUsers());
+        assertEquals(2L, checkpoint.getUpdatedUsers());
+        assertEquals(0L, checkpoint.getUnresolvedUsers());
+        assertNotNull(checkpoint.getLastError());
+        assertEquals(List.of(2L, 4L), new ArrayList<>(usersWithoutLocation.keySet()));
+
+        // Mapbox снова отвечает: продолжение с checkpoint, а не с начала
+        answer("Крещатик 5, Киев", FOUND);
+        run();
+
+        assertEquals(COMPLETED, checkpoint.getStatus());
+        assertEquals(4L, checkpoint.getLastUserId());
+        assertEquals(3L, checkpoint.getUpdatedUsers());
+        assertEquals(1L, checkpoint.getUnresolvedUsers());
+        assertNull(checkpoint.getLastError());
+        assertEquals(List.of(4L), new ArrayList<>(usersWithoutLocation.keySet()));
+        verify(geocodingService, times(1)).geocodeAddress("ул. Садовая 1, Киев", GeocodingPriority.BACKGROUND);
+    }
+
+    @Test
+    void failedGeocodingCallIsDeferredNotUnresolved() {
+        user(1, "Крещатик 5, Киев");
+        when(geocodingService.geocodeAddress("Крещатик 5, Киев", GeocodingPriority.BACKGROUND))
+                .thenThrow(new IllegalStateException("boom"));
+
+        run();
+
+        assertEquals(STOPPED, checkpoint.getStatus());
+        assertEquals(0L, checkpoint.getLastUserId());
+        assertEquals(0L, checkpoint.getUnresolvedUsers());
+    }
+
+    private void run() {
+        assertTrue(service.start(false));
+    }
+
+    private void user(long id, String address) {
+        usersWithoutLocation.put(id, User.builder().id(id).fullAddress(address).build());
+    }
+
+    private void answer(String address, GeoLocation location) {
+        answers.put(address, location);
+    }
+}
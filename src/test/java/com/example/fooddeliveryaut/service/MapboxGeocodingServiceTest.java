@@ -0,0 +1,199 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.cache.GeocodeCache;
+import com.example.fooddeliveryaut.cache.PlaceSearchCache;
+import com.example.fooddeliveryaut.cache.ReverseGeocodeCache;
+import com.example.fooddeliveryaut.client.MapboxQuotaManager;
+import com.example.fooddeliveryaut.client.MapboxResponseReader;
+import com.example.fooddeliveryaut.config.CacheConfigProperties;
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.config.MapboxConfigProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.example.fooddeliveryaut.enums.GeocodingPriority.BACKGROUND;
+import static com.example.fooddeliveryaut.enums.GeocodingPriority.INTERACTIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MapboxGeocodingServiceTest {
+
+    private MapboxConfigProperties mapboxConfig;
+    private RestTemplate restTemplate;
+    private MapboxQuotaManager quotaManager;
+    private MapboxGeocodingService service;
+
+    @BeforeEach
+    void setUp() {
+        mapboxConfig = new MapboxConfigProperties();
+        mapboxConfig.getAccess().setToken("pk.test-token");
+        restTemplate = mock(RestTemplate.class);
+        quotaManager = mock(MapboxQuotaManager.class);
+        when(quotaManager.tryAcquireNow(BACKGROUND)).thenReturn(true);
+
+        service = newService(mock(PlaceSearchCache.class));
+    }
+
+    @Test
+    void probeTracksAvailableUnavailableAvailable() {
+        // Проверять при каждом вызове, а не раз в checkIntervalSeconds
+        mapboxConfig.getHealth().setCheckIntervalSeconds(0);
+
+        mapboxResponds();
+        service.checkAvailability();
+        assertTrue(service.isGeocodingAvailable());
+        assertNull(service.getLastCheckError());
+
+        mapboxFails();
+        service.checkAvailability();
+        assertFalse(service.isGeocodingAvailable());
+        assertNotNull(service.getLastCheckError());
+
+        mapboxResponds();
+        service.checkAvailability();
+        assertTrue(service.isGeocodingAvailable());
+        assertNull(service.getLastCheckError());
+
+        verify(restTemplate, times(3)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any());
+        // Проверка никогда не ждет квоту на потоке планировщика
+        verify(quotaManager, never()).tryAcquire(any());
+    }
+
+    @Test
+    void probeIsSkippedWithoutFreeQuotaToken() {
+        when(quotaManager.tryAcquireNow(BACKGROUND)).thenReturn(false);
+
+        service.checkAvailability();
+
+        verify(restTemplate, never()).execute(any(URI.class), any(HttpMethod.class), any(), any());
+        assertNull(service.getLastCheckedAt());
+        // Состояние до первой проверки: доступен, если токен задан
+        assertTrue(service.isGeocodingAvailable());
+    }
+
+    @Test
+    void throttledProbeKeepsServiceAvailableAndPausesQuota() {
+        mapboxFails();
+        service.checkAvailability();
+        assertFalse(service.isGeocodingAvailable());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "3");
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        headers, new byte[0], null));
+        service.checkAvailability();
+
+        // 429 - токен рабочий, нужна только пауза
+        assertTrue(service.isGeocodingAvailable());
+        verify(quotaManager).onThrottled(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void recentlyVerifiedServiceIsNotProbedAgain() {
+        mapboxResponds();
+        service.checkAvailability();
+        service.checkAvailability();
+
+        verify(restTemplate, times(1)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any());
+    }
+
+    @Test
+    void unverifiedAddressIsDeferredButNotFoundIsFinal() {
+        when(quotaManager.tryAcquire(any())).thenReturn(false);
+        GeoLocation shed = service.geocodeAddress("ул. Садовая 1, Киев", BACKGROUND);
+        assertTrue(shed.isApproximate());
+        assertTrue(shed.isDeferred());
+
+        when(quotaManager.tryAcquire(any())).thenReturn(true);
+        mapboxFails();
+        assertTrue(service.geocodeAddress("ул. Садовая 1, Киев", BACKGROUND).isDeferred());
+
+        // Mapbox ответил без результатов: приблизительно, но окончательно
+        mapboxResponds();
+        GeoLocation notFound = service.geocodeAddress("ул. Садовая 1, Киев", BACKGROUND);
+        assertTrue(notFound.isApproximate());
+        assertFalse(notFound.isDeferred());
+    }
+
+    @Test
+    void onePlacesFetchAnswersEveryPage() {
+        CacheConfigProperties cacheConfig = new CacheConfigProperties();
+        // Больше, чем отдает Mapbox: запрашивается 10
+        cacheConfig.getPlaceSearch().setResultDepth(50);
+        service = newService(new PlaceSearchCache(cacheConfig, new SimpleMeterRegistry()));
+        when(quotaManager.tryAcquire(INTERACTIVE)).thenReturn(true);
+
+        List<MapboxResponseReader.Feature> features = IntStream.range(0, 10)
+                .mapToObj(i -> new MapboxResponseReader.Feature("Pizza " + i, "Pizza " + i + ", Київ", 30.52, 50.45))
+                .toList();
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any())).thenReturn(features);
+
+        assertEquals(List.of("Pizza 0", "Pizza 1", "Pizza 2", "Pizza 3"), names(placesPage("Піца", 0, 4)));
+        assertEquals(List.of("Pizza 4", "Pizza 5", "Pizza 6", "Pizza 7"), names(placesPage("піца", 4, 4)));
+        assertEquals(List.of("Pizza 8", "Pizza 9"), names(placesPage(" ПІЦА ", 8, 4)));
+        assertEquals(List.of(), placesPage("піца", 12, 4));
+
+        ArgumentCaptor<URI> uri = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate, times(1)).execute(uri.capture(), eq(HttpMethod.GET), isNull(), any());
+        assertTrue(uri.getValue().toString().contains("&limit=10"), uri.getValue().toString());
+        verify(quotaManager, times(1)).tryAcquire(INTERACTIVE);
+
+        // Другой запрос - новый ответ Mapbox
+        placesPage("суші", 0, 4);
+        verify(restTemplate, times(2)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any());
+    }
+
+    private MapboxGeocodingService newService(PlaceSearchCache placeSearchCache) {
+        MapboxGeocodingService created = new MapboxGeocodingService(mapboxConfig, restTemplate,
+                mock(GeocodeCache.class), mock(ReverseGeocodeCache.class), placeSearchCache,
+                mock(OfflineGazetteer.class), new LocationConfigProperties(), quotaManager,
+                new MapboxResponseReader(new ObjectMapper()));
+        created.initializeMapboxService();
+        return created;
+    }
+
+    private List<MapboxPlace> placesPage(String query, int offset, int limit) {
+        return service.searchNearbyPlaces(new BigDecimal("30.5234"), new BigDecimal("50.4501"), query, offset, limit);
+    }
+
+    private static List<String> names(List<MapboxPlace> places) {
+        return places.stream().map(MapboxPlace::getName).toList();
+    }
+
+    private void mapboxResponds() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any()))
+                .thenReturn(null);
+    }
+
+    private void mapboxFails() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any()))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OfflineGazetteerTest {
+
+    private static OfflineGazetteer gazetteer;
+
+    @BeforeAll
+    static void load() {
+        gazetteer = new OfflineGazetteer(new LocationConfigProperties(), new DefaultResourceLoader(),
+                new SimpleMeterRegistry());
+    }
+
+    @ParameterizedTest(name = "[{0}] ({1}) -> {2} {3}")
+    @CsvSource(delimiter = '|', textBlock = """
+            # адрес                        | страна по умолчанию | место       | страна | точный
+            Киев                           |                     | Киев        | UA     | true
+            г. Киев                        |                     | Киев        | UA     | true
+            Kyiv, Ukraine                  |                     | Киев        | UA     | true
+
+            # Побеждает самый правый населенный пункт
+            Берлин, Одесса                 |                     | Одесса      | UA     | false
+            Одесса, Берлин                 |                     | Берлин      | DE     | false
+            Киев, Львов                    |                     | Львов       | UA     | false
+
+            # Название улицы - не населенный пункт
+            ул Киевская                    |                     |             |        |
+            Одесса, ул. Киев 5             |                     | Одесса      | UA     | false
+            Berlin, Paris St 5             |                     | Берлин      | DE     | false
+
+            # 5-значные индексы есть у нескольких стран: нужна страна в адресе или по умолчанию
+            10115                          |                     |             |        |
+            10115                          | DE                  | Берлин      | DE     | false
+            10115                          | US                  | Нью-Йорк    | US     | false
+            10115, Germany                 | US                  | Берлин      | DE     | false
+            10115, USA                     |                     | Нью-Йорк    | US     | false
+            65000                          | UA                  | Одесса      | UA     | false
+
+            # Только страна - точка столицы
+            ул. Неизвестная 1, Украина     |                     | Украина     | UA     | false
+            Германия                       |                     | Германия    | DE     | false
+            """)
+    void resolvesAddress(String address, String defaultCountry, String expectedName, String expectedCountry,
+                         Boolean expectedExact) {
+        OfflineGazetteer.Match match = gazetteer.resolveAddress(address, defaultCountry);
+
+        if (expectedName == null) {
+            assertNull(match);
+            return;
+        }
+        assertEquals(expectedName, match.place().name());
+        assertEquals(expectedCountry, match.place().countryCode());
+        assertEquals(expectedExact, match.exact());
+    }
+
+    @ParameterizedTest(name = "[{0}] ({1}) -> {2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            # город       | страна   | место    | широта  | долгота
+            Париж         |          | Париж    | 48.8566 | 2.3522
+            Odessa        | Ukraine  | Одесса   | 46.4825 | 30.7233
+
+            # Неизвестный город в известной стране - столица
+            Неизвестный   | Германия | Германия | 52.5200 | 13.4050
+            Неизвестный   | UA       | Украина  | 50.4501 | 30.5234
+            Неизвестный   |          |          |         |
+            """)
+    void resolvesCityWithCapitalFallback(String city, String country, String expectedName,
+                                         Double expectedLatitude, Double expectedLongitude) {
+        OfflineGazetteer.Place place = gazetteer.resolveCity(city, country);
+
+        if (expectedName == null) {
+            assertNull(place);
+            return;
+        }
+        assertEquals(expectedName, place.name());
+        assertEquals(expectedLatitude, place.latitude(), 1e-9);
+        assertEquals(expectedLongitude, place.longitude(), 1e-9);
+    }
+}
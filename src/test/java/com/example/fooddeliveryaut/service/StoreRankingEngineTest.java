@@ -0,0 +1,101 @@
+package com.example.fooddeliveryaut.service;
+
+import com.example.fooddeliveryaut.config.LocationConfigProperties;
+import com.example.fooddeliveryaut.dto.NearbyStoreDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StoreRankingEngineTest {
+
+    // Доставка по умолчанию: 15 мин + 30 км/ч, 50 + 10 за км
+    private final StoreRankingEngine engine = new StoreRankingEngine(new LocationConfigProperties());
+
+    // Время доставки: 17, 17, 15, 16, 17, 16 мин
+    private final double[] distances = {1.0, 1.1, 0.2, 0.5, 0.8, 0.5};
+    private final NearbyStoreDto[] stores = {
+            store(4.0), store(4.8), store(3.0), store(null), store(4.0), store(5.0)
+    };
+
+    @Test
+    void distanceThenRating() {
+        // 3 и 5 на одном расстоянии: выше рейтинг - раньше, без рейтинга - как 0
+        assertArrayEquals(new int[]{2, 5, 3, 4, 0, 1}, rank(StoreRankingEngine.SORT_DISTANCE, 6));
+    }
+
+    @Test
+    void ratingThenDistance() {
+        // 4 и 0 с рейтингом 4.0: ближний раньше
+        assertArrayEquals(new int[]{5, 1, 4, 0, 2, 3}, rank(StoreRankingEngine.SORT_RATING, 6));
+    }
+
+    @Test
+    void deliveryTimeThenRatingThenDistance() {
+        // 16 мин: 5 (5.0) раньше 3; 17 мин: 1 (4.8), затем 4 и 0 (4.0) по расстоянию
+        assertArrayEquals(new int[]{2, 5, 3, 1, 4, 0}, rank(StoreRankingEngine.SORT_DELIVERY_TIME, 6));
+    }
+
+    @Test
+    void unknownSortIsDistanceAndLimitIsPrefix() {
+        assertArrayEquals(new int[]{2, 5, 3}, rank("popularity", 3));
+        assertArrayEquals(new int[]{5, 1}, rank(StoreRankingEngine.SORT_RATING, 2));
+    }
+
+    @Test
+    void ranksOnlyGivenCandidates() {
+        int[] candidates = {0, 1, 3, 5};
+
+        assertArrayEquals(new int[]{1, 0},
+                engine.topK(candidates, 3, 2, StoreRankingEngine.SORT_RATING, i -> distances[i], i -> stores[i]));
+    }
+
+    @ParameterizedTest(name = "{0} км -> {1} мин")
+    @CsvSource({
+            "0, 15",
+            "0.2, 15",
+            "1.25, 18",
+            "3, 21",
+            "10, 35"
+    })
+    void deliveryTimeIsBasePlusTravel(double distanceKm, int expectedMinutes) {
+        assertEquals(expectedMinutes, engine.deliveryTimeMinutes(distanceKm));
+    }
+
+    @ParameterizedTest(name = "{0} км -> {1}")
+    @CsvSource({
+            "0, 50",
+            "2.5, 75",
+            "12.34, 173.4"
+    })
+    void deliveryFeeIsBasePlusPerKm(double distanceKm, BigDecimal expectedFee) {
+        assertEquals(0, expectedFee.compareTo(engine.deliveryFee(distanceKm)));
+    }
+
+    @Test
+    void withDeliveryFillsCopyOnly() {
+        NearbyStoreDto store = store(4.5);
+
+        NearbyStoreDto ranked = engine.withDelivery(store, 2.5);
+
+        assertEquals(2.5, ranked.getDistanceKm());
+        assertEquals(20, ranked.getEstimatedDeliveryTime());
+        assertEquals(0, new BigDecimal("75").compareTo(ranked.getDeliveryFee()));
+        assertEquals(4.5, ranked.getRating());
+        assertNull(store.getDistanceKm());
+        assertNull(store.getDeliveryFee());
+    }
+
+    private int[] rank(String sortBy, int limit) {
+        return engine.topK(stores.length, limit, sortBy, i -> distances[i], i -> stores[i]);
+    }
+
+    private static NearbyStoreDto store(Double rating) {
+        return NearbyStoreDto.builder().rating(rating).build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.fooddeliveryaut.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AddressNormalizerTest {
+
+    @ParameterizedTest(name = "[{0}] -> [{1}]")
+    @CsvSource(delimiter = '|', ignoreLeadingAndTrailingWhitespace = false, textBlock = """
+            Улица Крещатик 1, Киев|ул крещатик 1 киев
+              ул. крещатик, 1   КИЕВ.|ул крещатик 1 киев
+            вул Крещатик 1 Киев|ул крещатик 1 киев
+            пр-т Победы 5|пр победы 5
+            Baker Street 221b, London|baker st 221b london
+            Ёлочная, м. Київ|елочная г київ
+            Baker Str. 221b|baker st 221b
+            Haupt Strasse 5, Berlin|haupt st 5 berlin
+            Haupt Straße 5, Berlin|haupt st 5 berlin
+            Hauptstraße 5|hauptstraße 5
+            5th Avenue, New York|5th ave new york
+            б-р Шевченко 3|бул шевченко 3
+            пр-кт Мира 2|пр мира 2
+            просп. Мира 2|пр мира 2
+            Площа Ринок 1, Львів|пл ринок 1 львів
+            д. 5, кв. 12|д 5 кв 12
+            ,.-|''
+            """)
+    void normalizesFullAddress(String address, String expected) {
+        assertEquals(expected, AddressNormalizer.normalize(address));
+    }
+
+    @ParameterizedTest(name = "[{0}]")
+    @CsvSource({"Baker Street", "Baker Str", "Baker Strasse", "Baker Straße"})
+    void streetTypeAfterNameIsRecognizedInEveryForm(String street) {
+        String[] words = AddressNormalizer.normalize(street).split(" ");
+
+        assertTrue(AddressNormalizer.isStreetTypeAfterName(words[words.length - 1]));
+        assertFalse(AddressNormalizer.isStreetTypeBeforeName(words[words.length - 1]));
+    }
+
+    @ParameterizedTest(name = "[{0}] -> [{1}]")
+    @CsvSource(delimiter = '|', ignoreLeadingAndTrailingWhitespace = false, textBlock = """
+            Ки|ки
+            КИЕВ|киев
+
+            # Недописанное последнее слово не заменяется сокращением
+            м|м
+            ули|ули
+            Улица Кре|ул кре
+            вул. Хре|ул хре
+
+            # Законченное слово нормализуется, в конце остается пробел
+            м |'г '
+            улица |'ул '
+            Киев,|'киев '
+            ул. Крещатик 22, К|ул крещатик 22 к
+
+            # Только пунктуация - пустой префикс
+              ,|''
+            """)
+    void normalizesTypedPrefix(String input, String expected) {
+        assertEquals(expected, AddressNormalizer.normalizePrefix(input));
+    }
+}
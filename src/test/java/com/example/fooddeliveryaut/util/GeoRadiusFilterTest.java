@@ -0,0 +1,155 @@
+package com.example.fooddeliveryaut.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoRadiusFilterTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    private final Random random = new Random(20240617L);
+
+    @Test
+    void matchesExactHaversineAcrossLatitudes() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double originLat = -90 + random.nextDouble() * 180;
+            double originLon = -180 + random.nextDouble() * 360;
+            double radiusKm = 0.05 + random.nextDouble() * 50;
+
+            assertBoundaryPointsMatch(originLat, originLon, radiusKm);
+        }
+    }
+
+    @Test
+    void matchesExactHaversineNearPolesWithLargeRadius() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double originLat = (random.nextBoolean() ? 1 : -1) * (85 + random.nextDouble() * 5);
+            double originLon = -180 + random.nextDouble() * 360;
+            double radiusKm = 1 + random.nextDouble() * 1500;
+
+            assertBoundaryPointsMatch(originLat, originLon, radiusKm);
+        }
+    }
+
+    @Test
+    void matchesExactHaversineAcrossAntimeridian() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double originLat = -80 + random.nextDouble() * 160;
+            double originLon = (random.nextBoolean() ? 1 : -1) * (179.5 + random.nextDouble() * 0.5);
+            double radiusKm = 0.5 + random.nextDouble() * 100;
+
+            assertBoundaryPointsMatch(originLat, originLon, radiusKm);
+        }
+    }
+
+    @Test
+    void matchesExactHaversineForUniformlyScatteredPoints() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double originLat = -90 + random.nextDouble() * 180;
+            double originLon = -180 + random.nextDouble() * 360;
+            double radiusKm = random.nextDouble() * 25_000;
+            double lat = -90 + random.nextDouble() * 180;
+            double lon = -180 + random.nextDouble() * 360;
+
+            GeoRadiusFilter filter = new GeoRadiusFilter(originLat, originLon, radiusKm);
+            double exactKm = GeoDistanceUtil.distanceKm(originLat, originLon, lat, lon);
+
+            assertEquals(exactKm <= radiusKm, filter.contains(lat, lon),
+                    () -> describe(originLat, originLon, radiusKm, lat, lon, exactKm));
+        }
+    }
+
+    @Test
+    void boundingBoxCoversEveryPointInsideRadius() {
+        for (int i = 0; i < ITERATIONS; i++) {
+            double originLat = -89 + random.nextDouble() * 178;
+            double originLon = -180 + random.nextDouble() * 360;
+            double radiusKm = 0.05 + random.nextDouble() * 200;
+
+            GeoRadiusFilter filter = new GeoRadiusFilter(originLat, originLon, radiusKm);
+            double[] point = destination(originLat, originLon, random.nextDouble() * 360,
+                    radiusKm * random.nextDouble());
+
+            if (!filter.contains(point[0], point[1])) {
+                continue;
+            }
+
+            assertTrue(point[0] >= filter.getMinLatitude() - 1e-9 && point[0] <= filter.getMaxLatitude() + 1e-9,
+                    () -> "Широта вне bounding box: " + point[0]);
+
+            boolean inLongitudeRange = false;
+            for (double[] range : filter.getLongitudeRanges()) {
+                if (point[1] >= range[0] - 1e-9 && point[1] <= range[1] + 1e-9) {
+                    inLongitudeRange = true;
+                    break;
+                }
+            }
+            assertTrue(inLongitudeRange, "Долгота вне bounding box: " + point[1]);
+        }
+    }
+
+    @Test
+    void batchFilterReturnsSameIndexesAsSinglePointCheck() {
+        GeoRadiusFilter filter = new GeoRadiusFilter(50.4501, 30.5234, 10);
+
+        int count = 10_000;
+        double[] lats = new double[count];
+        double[] lons = new double[count];
+        for (int i = 0; i < count; i++) {
+            double[] point = destination(50.4501, 30.5234, random.nextDouble() * 360, random.nextDouble() * 20);
+            lats[i] = point[0];
+            lons[i] = point[1];
+        }
+
+        int[] indexes = new int[count];
+        int found = filter.filter(lats, lons, count, indexes);
+
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (filter.contains(lats[i], lons[i])) {
+                assertEquals(i, indexes[next++]);
+            }
+        }
+        assertEquals(next, found);
+    }
+
+    private void assertBoundaryPointsMatch(double originLat, double originLon, double radiusKm) {
+        GeoRadiusFilter filter = new GeoRadiusFilter(originLat, originLon, radiusKm);
+
+        // Точки в полосе ±10% от границы круга - самый сложный случай для оценок
+        double[] point = destination(originLat, originLon, random.nextDouble() * 360,
+                radiusKm * (0.9 + random.nextDouble() * 0.2));
+        double exactKm = GeoDistanceUtil.distanceKm(originLat, originLon, point[0], point[1]);
+
+        assertEquals(exactKm <= radiusKm, filter.contains(point[0], point[1]),
+                () -> describe(originLat, originLon, radiusKm, point[0], point[1], exactKm));
+    }
+
+    /**
+     * Точка на заданном расстоянии и азимуте от исходной, долгота нормализована в [-180, 180]
+     */
+    private static double[] destination(double lat, double lon, double bearingDeg, double distanceKm) {
+        double angle = distanceKm / GeoDistanceUtil.EARTH_RADIUS_KM;
+        double latRad = Math.toRadians(lat);
+        double bearing = Math.toRadians(bearingDeg);
+
+        double lat2 = Math.asin(Math.sin(latRad) * Math.cos(angle)
+                + Math.cos(latRad) * Math.sin(angle) * Math.cos(bearing));
+        double lon2 = Math.toRadians(lon) + Math.atan2(
+                Math.sin(bearing) * Math.sin(angle) * Math.cos(latRad),
+                Math.cos(angle) - Math.sin(latRad) * Math.sin(lat2));
+
+        double lonDeg = Math.toDegrees(Math.IEEEremainder(lon2, 2 * Math.PI));
+        return new double[]{Math.toDegrees(lat2), lonDeg};
+    }
+
+    private static String describe(double originLat, double originLon, double radiusKm,
+                                   double lat, double lon, double exactKm) {
+        return String.format("origin=[%f, %f], radius=%f км, point=[%f, %f], exact=%f км",
+                originLat, originLon, radiusKm, lat, lon, exactKm);
+    }
+}
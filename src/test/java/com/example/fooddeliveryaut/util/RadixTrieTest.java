@@ -0,0 +1,108 @@
+package com.example.fooddeliveryaut.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RadixTrieTest {
+
+    private static final int KYIV = 0;
+    private static final int CHISINAU = 1;
+    private static final int KYIV_STREET = 2;
+    private static final int KHARKIV = 3;
+    private static final int KIROVOHRAD = 4;
+
+    // Оценка записи по номеру: больше - лучше
+    private static final double[] SCORES = {5, 3, 1, 4, 2};
+
+    private static final TopK.IndexComparator BY_SCORE =
+            ((TopK.IndexComparator) (a, b) -> Double.compare(SCORES[b], SCORES[a])).thenComparing(Integer::compare);
+
+    @ParameterizedTest(name = "[{0}] -> {1}")
+    @CsvSource(delimiter = '|', textBlock = """
+            # префикс      | записи от лучшей к худшей
+            ки             | 0 1 4 2
+            кие            | 0 2
+            киев           | 0 2
+            киевс          | 2
+            киевская       | 2
+            киевскаяя      |
+            кия            |
+            х              | 3
+            харьков        | 3
+            kyi            | 0
+            ky             | 0
+            k              | 0
+            z              |
+            """)
+    void findsBestRecordsForPrefix(String prefix, String expected) {
+        RadixTrie trie = cities(10);
+
+        assertArrayEquals(ids(expected), trie.candidates(prefix));
+    }
+
+    @Test
+    void emptyPrefixReturnsBestOfWholeTree() {
+        assertArrayEquals(new int[]{KYIV, KHARKIV, CHISINAU, KIROVOHRAD, KYIV_STREET}, cities(10).candidates(""));
+        assertArrayEquals(new int[]{KYIV, KHARKIV}, cities(2).candidates(""));
+    }
+
+    @Test
+    void keepsOnlyCandidatesPerNodeBestRecords() {
+        RadixTrie trie = cities(2);
+
+        assertArrayEquals(new int[]{KYIV, CHISINAU}, trie.candidates("ки"));
+        // Узел ниже хранит своих лучших, а не остаток родителя
+        assertArrayEquals(new int[]{KYIV, KYIV_STREET}, trie.candidates("киев"));
+    }
+
+    @Test
+    void recordWithSeveralKeysInSubtreeIsReturnedOnce() {
+        RadixTrie trie = RadixTrie.builder()
+                .add("киев", KYIV)
+                .add("київ", KYIV)
+                .add("кишинев", CHISINAU)
+                .build(10, BY_SCORE);
+
+        assertArrayEquals(new int[]{KYIV, CHISINAU}, trie.candidates("ки"));
+        assertArrayEquals(new int[]{KYIV}, trie.candidates("киї"));
+    }
+
+    @Test
+    void splitsLabelsOnDivergingKeys() {
+        RadixTrie trie = RadixTrie.builder()
+                .add("abc", 0)
+                .add("abd", 1)
+                .add("b", 2)
+                .build(10, Integer::compare);
+
+        // Корень, "ab", "c", "d", "b"
+        assertEquals(5, trie.nodeCount());
+        assertArrayEquals(new int[]{0, 1}, trie.candidates("ab"));
+        assertArrayEquals(new int[]{0, 1}, trie.candidates("a"));
+        assertArrayEquals(new int[]{1}, trie.candidates("abd"));
+        assertArrayEquals(new int[]{}, trie.candidates("abe"));
+    }
+
+    private static RadixTrie cities(int candidatesPerNode) {
+        return RadixTrie.builder()
+                .add("киев", KYIV)
+                .add("kyiv", KYIV)
+                .add("кишинев", CHISINAU)
+                .add("киевская", KYIV_STREET)
+                .add("харьков", KHARKIV)
+                .add("кировоград", KIROVOHRAD)
+                .build(candidatesPerNode, BY_SCORE);
+    }
+
+    private static int[] ids(String list) {
+        return list == null
+                ? new int[0]
+                : Arrays.stream(list.trim().split("\\s+")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.fooddeliveryaut.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    @ParameterizedTest(name = "k = {0}")
+    @ValueSource(ints = {1, 2, 7, 50, 199, 200})
+    void matchesPrefixOfFullSort(int k) {
+        // Малый разброс значений: много повторов, порядок задает индекс
+        int[] values = new Random(42).ints(200, 0, 20).toArray();
+        TopK.IndexComparator byValue = (a, b) -> Integer.compare(values[a], values[b]);
+        TopK.IndexComparator comparator = byValue.thenComparing(Integer::compare);
+
+        int[] expected = IntStream.range(0, values.length).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> values[i]).thenComparing(i -> i))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertArrayEquals(expected, TopK.select(values.length, k, comparator));
+    }
+
+    @Test
+    void kNotLessThanCountReturnsEverythingSorted() {
+        int[] values = {5, 1, 4, 2, 3};
+        TopK.IndexComparator comparator = (a, b) -> Integer.compare(values[a], values[b]);
+
+        assertArrayEquals(new int[]{1, 3, 4, 2, 0}, TopK.select(values.length, values.length, comparator));
+        assertArrayEquals(new int[]{1, 3, 4, 2, 0}, TopK.select(values.length, 100, comparator));
+    }
+
+    @Test
+    void zeroOrNegativeKAndEmptyInputSelectNothing() {
+        TopK.IndexComparator comparator = Integer::compare;
+
+        assertEquals(0, TopK.select(10, 0, comparator).length);
+        assertEquals(0, TopK.select(10, -1, comparator).length);
+        assertEquals(0, TopK.select(0, 5, comparator).length);
+        assertEquals(0, TopK.select(new int[]{3, 1}, 2, 0, comparator).length);
+    }
+
+    @Test
+    void tiesKeepOnlyKDistinctIndices() {
+        // Все равны: годится любой набор, но без повторов и ровно k
+        int[] selected = TopK.select(10, 4, (a, b) -> 0);
+
+        assertEquals(4, selected.length);
+        assertEquals(4, Arrays.stream(selected).distinct().count());
+        assertEquals(4, Arrays.stream(selected).filter(i -> i >= 0 && i < 10).count());
+    }
+
+    @Test
+    void tieBreakOrdersEqualKeys() {
+        double[] ratings = {4.5, 4.9, 4.5, 4.9, 3.0};
+        TopK.IndexComparator byRatingDesc = (a, b) -> Double.compare(ratings[b], ratings[a]);
+
+        assertArrayEquals(new int[]{1, 3, 0},
+                TopK.select(ratings.length, 3, byRatingDesc.thenComparing(Integer::compare)));
+        assertArrayEquals(new int[]{3, 1, 2},
+                TopK.select(ratings.length, 3, byRatingDesc.thenComparing((a, b) -> Integer.compare(b, a))));
+    }
+
+    @Test
+    void selectsFromGivenIndicesOnly() {
+        int[] values = {9, 1, 8, 2, 7, 3};
+        TopK.IndexComparator comparator = (a, b) -> Integer.compare(values[a], values[b]);
+        // Учитываются только первые count значений массива кандидатов
+        int[] candidates = {0, 2, 4, 5, 1, 3};
+
+        assertArrayEquals(new int[]{5, 4}, TopK.select(candidates, 4, 2, comparator));
+        assertArrayEquals(new int[]{5, 4, 2, 0}, TopK.select(candidates, 4, 10, comparator));
+    }
+}